@@ -1,21 +1,69 @@
 package org.comroid.restless;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 //todo: Incomplete
 public final class CommonHeaderNames {
+    public static final String HOST = "Host";
     public static final String REFERER = "Referer";
     public static final String COOKIE = "Cookie";
+    public static final String SET_COOKIE = "Set-Cookie";
     public static final String ACCEPTED_CHARSET = "Accept-Charset";
     public static final String CACHE_CONTROL = "Cache-Control";
+    public static final String CONTENT_LENGTH = "Content-Length";
     // responses
     public static final String ACCEPTED_CONTENT_TYPE = "Accept";
     public static final String ACCEPTED_ENCODING = "Accept-Encoding";
     public static final String ACCEPTED_LANGUAGE = "Accept-Language";
     public static final String REDIRECT_TARGET = "Location";
+    public static final String ETAG = "ETag";
+    public static final String LAST_MODIFIED = "Last-Modified";
+    public static final String VARY = "Vary";
+    public static final String AGE = "Age";
+    public static final String DATE = "Date";
+    public static final String EXPIRES = "Expires";
     // requests
     public static final String AUTHORIZATION = "Authorization";
+    public static final String IF_NONE_MATCH = "If-None-Match";
+    public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
     public static final String REQUEST_CONTENT_TYPE = "Content-Type";
     public static final String USER_AGENT = "User-Agent";
     public static final String WARNING = "Warning";
     // websocket
     public static final String WEBSOCKET_SUBPROTOCOL = "Sec-WebSocket-Protocol";
+    private static final Map<String, String> canonicalNames;
+
+    static {
+        final Map<String, String> names = new HashMap<>();
+        for (Field field : CommonHeaderNames.class.getDeclaredFields()) {
+            if (field.getType() != String.class || !Modifier.isStatic(field.getModifiers()))
+                continue;
+            try {
+                final String name = (String) field.get(null);
+                final String key = name.toLowerCase(Locale.ROOT).intern();
+                names.put(name, key);
+                names.put(key, key);
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+        canonicalNames = Collections.unmodifiableMap(names);
+    }
+
+    /**
+     * Returns the case-insensitive lookup key of a header name.
+     * Keys of the names declared in this class are shared instances.
+     *
+     * @param name The header name
+     * @return The lowercase header name
+     */
+    public static String canonical(String name) {
+        final String key = canonicalNames.get(name);
+        return key == null ? name.toLowerCase(Locale.ROOT) : key;
+    }
 }
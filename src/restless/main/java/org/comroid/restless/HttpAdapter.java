@@ -5,6 +5,8 @@ import org.comroid.api.ContextualProvider;
 import org.comroid.restless.socket.Websocket;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -12,8 +14,20 @@ import java.util.function.Consumer;
 
 @SuppressWarnings("rawtypes")
 public interface HttpAdapter extends ContextualProvider.This<Object> {
-    static HttpAdapter autodetect() {
-        throw new UnsupportedOperationException();
+    /**
+     * Instantiates the first available adapter implementation.
+     * The blocking adapter is preferred when the runtime supports virtual threads.
+     *
+     * @return A new HttpAdapter
+     * @throws UnsupportedOperationException If no implementation is available
+     */
+    static HttpAdapter autodetect() throws UnsupportedOperationException {
+        for (String adapterClass : Support.candidates())
+            try {
+                return (HttpAdapter) Class.forName(adapterClass).getConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError ignored) {
+            }
+        throw new UnsupportedOperationException("No HttpAdapter implementation is available");
     }
 
     @Upgrade
@@ -40,4 +54,28 @@ public interface HttpAdapter extends ContextualProvider.This<Object> {
     );
 
     CompletableFuture<REST.Response> call(REST.Request request);
+
+    final class Support {
+        private static final String BLOCKING_ADAPTER = "org.comroid.restless.adapter.java.BlockingHttpAdapter";
+        private static final String JAVA_ADAPTER = "org.comroid.restless.adapter.java.JavaHttpAdapter";
+        private static final String OKHTTP_ADAPTER = "org.comroid.restless.adapter.okhttp.v4.OkHttp4Adapter";
+
+        private static List<String> candidates() {
+            if (hasVirtualThreads())
+                return Arrays.asList(BLOCKING_ADAPTER, JAVA_ADAPTER, OKHTTP_ADAPTER);
+            return Arrays.asList(JAVA_ADAPTER, OKHTTP_ADAPTER);
+        }
+
+        /**
+         * Creates a virtual thread builder, as the method also exists on runtimes where virtual threads are
+         * a preview feature and throws {@link UnsupportedOperationException} unless previews are enabled.
+         */
+        private static boolean hasVirtualThreads() {
+            try {
+                return Thread.class.getMethod("ofVirtual").invoke(null) != null;
+            } catch (ReflectiveOperationException | UnsupportedOperationException | LinkageError e) {
+                return false;
+            }
+        }
+    }
 }
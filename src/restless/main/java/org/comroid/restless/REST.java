@@ -13,14 +13,19 @@ import org.comroid.mutatio.ref.Reference;
 import org.comroid.mutatio.ref.ReferenceList;
 import org.comroid.mutatio.span.Span;
 import org.comroid.restless.body.BodyBuilderType;
+import org.comroid.restless.cache.HttpCache;
 import org.comroid.restless.endpoint.AccessibleEndpoint;
 import org.comroid.restless.endpoint.CompleteEndpoint;
 import org.comroid.restless.endpoint.RatelimitDefinition;
 import org.comroid.restless.endpoint.TypeBoundEndpoint;
 import org.comroid.restless.exception.RestEndpointException;
+import org.comroid.restless.metrics.RestMetrics;
+import org.comroid.restless.policy.LatencyWindow;
+import org.comroid.restless.policy.RequestPolicy;
 import org.comroid.restless.server.Ratelimiter;
 import org.comroid.uniform.SerializationAdapter;
 import org.comroid.uniform.cache.Cache;
+import org.comroid.uniform.io.UniReader;
 import org.comroid.uniform.model.Serializable;
 import org.comroid.uniform.node.UniNode;
 import org.comroid.uniform.node.UniObjectNode;
@@ -36,20 +41,36 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public final class REST implements ContextualProvider.Underlying {
+    /**
+     * Derives the coalescing key from the request URL and all request headers,
+     * ignoring header name case and the order of headers and values.
+     */
+    public static final BiFunction<CompleteEndpoint, Header.List, Object> DEFAULT_COALESCING_KEY = (endpoint, headers) -> {
+        final Map<String, Set<String>> headerMap = new TreeMap<>();
+        headers.forEach(header -> headerMap
+                .computeIfAbsent(header.getKey(), k -> new TreeSet<>())
+                .addAll(header.getValues()));
+        return Arrays.asList(endpoint.getSpec(), headerMap);
+    };
     private static final Logger logger = LogManager.getLogger();
     private final ContextualProvider context;
     private final Ratelimiter ratelimiter;
     private final Executor executor;
+    private final Map<Object, Coalesced> inFlight = new ConcurrentHashMap<>();
+    private volatile @Nullable BiFunction<CompleteEndpoint, Header.List, ?> coalescingKey = DEFAULT_COALESCING_KEY;
+    private volatile @Nullable HttpCache httpCache = null;
+    private final Map<AccessibleEndpoint, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private volatile RequestPolicy requestPolicy = RequestPolicy.NONE;
+    private volatile RestMetrics metrics = RestMetrics.NONE;
 
     @Deprecated
     public HttpAdapter getHttpAdapter() {
@@ -74,6 +95,72 @@ public final class REST implements ContextualProvider.Underlying {
         return context;
     }
 
+    public @Nullable HttpCache getHttpCache() {
+        return httpCache;
+    }
+
+    /**
+     * Sets the cache that {@code GET} responses are stored in.
+     * Fresh entries are served without a network call; stale entries are revalidated and reused on {@code 304 Not Modified}.
+     *
+     * @param httpCache The cache to use, or {@code null} to disable caching
+     * @return This instance
+     */
+    public REST setHttpCache(@Nullable HttpCache httpCache) {
+        this.httpCache = httpCache;
+        return this;
+    }
+
+    public RequestPolicy getRequestPolicy() {
+        return requestPolicy;
+    }
+
+    /**
+     * Sets the policy for requests that do not define their own.
+     *
+     * @param requestPolicy The default request policy
+     * @return This instance
+     * @see Request#policy(RequestPolicy)
+     */
+    public REST setRequestPolicy(RequestPolicy requestPolicy) {
+        this.requestPolicy = Objects.requireNonNull(requestPolicy, "RequestPolicy");
+        return this;
+    }
+
+    public RestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the receiver of request timings, status codes and ratelimiter queue depths.
+     *
+     * @param metrics The metrics to record into
+     * @return This instance
+     * @see RestMetrics#memory()
+     */
+    public REST setMetrics(RestMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "RestMetrics");
+        return this;
+    }
+
+    public @Nullable BiFunction<CompleteEndpoint, Header.List, ?> getCoalescingKey() {
+        return coalescingKey;
+    }
+
+    /**
+     * Sets how identical in-flight requests are recognized.
+     * Idempotent requests without a body whose method and derived key are equal share one network call.
+     * The body is then read once, and every caller receives its own {@link Response} over it.
+     *
+     * @param coalescingKey The key derivation function, or {@code null} to disable coalescing
+     * @return This instance
+     * @see #DEFAULT_COALESCING_KEY
+     */
+    public REST setCoalescingKey(@Nullable BiFunction<CompleteEndpoint, Header.List, ?> coalescingKey) {
+        this.coalescingKey = coalescingKey;
+        return this;
+    }
+
     public REST(
             ContextualProvider context
     ) {
@@ -135,6 +222,250 @@ public final class REST implements ContextualProvider.Underlying {
         return new Request<>(this, creator);
     }
 
+    private CompletableFuture<Response> dispatch(Request<?> request) {
+        final RequestPolicy policy = request.getPolicy();
+        final CompletableFuture<Response> result = new CompletableFuture<>();
+        final AtomicReference<CompletableFuture<Response>> hedge = new AtomicReference<>();
+
+        if (policy.getTimeout() > 0) {
+            request.deadline = System.currentTimeMillis() + policy.getTimeout();
+            final ScheduledFuture<?> timeout = RequestPolicy.Support.SCHEDULER.schedule(() -> result.completeExceptionally(new TimeoutException(
+                    String.format("%s did not complete within %dms", request, policy.getTimeout())
+            )), policy.getTimeout(), TimeUnit.MILLISECONDS);
+            result.whenComplete((response, t) -> timeout.cancel(false));
+        }
+
+        attempt(request, policy, 0, result, hedge);
+        if (policy.isHedging() && request.isCoalescable())
+            scheduleHedge(request, policy, result, hedge);
+        return result;
+    }
+
+    private void attempt(
+            Request<?> request,
+            RequestPolicy policy,
+            int retry,
+            CompletableFuture<Response> result,
+            AtomicReference<CompletableFuture<Response>> hedge
+    ) {
+        if (result.isDone())
+            return;
+
+        send(request, result).whenComplete((response, t) -> {
+            if (result.isDone()) {
+                discard(response);
+                return;
+            }
+
+            final boolean retryable = t == null
+                    ? policy.isRetryable(request.getMethod(), response.getStatusCode())
+                    : policy.isRetryable(request.getMethod(), t);
+            if (retryable && retry < policy.getMaxRetries()) {
+                final long backoff = policy.backoff(retry);
+
+                if (System.currentTimeMillis() + backoff < request.getDeadline()) {
+                    logger.debug("Retrying {} in {}ms after {}", request, backoff,
+                            t == null ? "status " + response.getStatusCode() : t.toString());
+                    discard(response);
+                    RequestPolicy.Support.SCHEDULER.schedule(
+                            () -> attempt(request, policy, retry + 1, result, hedge),
+                            backoff, TimeUnit.MILLISECONDS);
+                    return;
+                }
+            }
+
+            final CompletableFuture<Response> pending = hedge.get();
+            if (t != null && pending != null && !pending.isDone()) {
+                // let the hedge decide the outcome
+                pending.whenComplete((hedged, ht) -> {
+                    if (ht != null)
+                        result.completeExceptionally(t);
+                });
+                return;
+            }
+
+            if (t != null)
+                result.completeExceptionally(t);
+            else if (!result.complete(response))
+                discard(response);
+        });
+    }
+
+    private void scheduleHedge(
+            Request<?> request,
+            RequestPolicy policy,
+            CompletableFuture<Response> result,
+            AtomicReference<CompletableFuture<Response>> hedge
+    ) {
+        final long delay = latencies.computeIfAbsent(request.getEndpoint().getEndpoint(), key -> new LatencyWindow(128))
+                .percentile(policy.getHedgePercentile());
+        if (delay < 0)
+            return;
+
+        final ScheduledFuture<?> task = RequestPolicy.Support.SCHEDULER.schedule(() -> {
+            if (result.isDone())
+                return;
+
+            logger.trace("Hedging {} after {}ms", request, delay);
+            final CompletableFuture<Response> call = send(request, result);
+            hedge.set(call);
+            call.whenComplete((response, t) -> {
+                if (t == null && !result.complete(response))
+                    discard(response);
+            });
+        }, delay, TimeUnit.MILLISECONDS);
+        result.whenComplete((response, t) -> task.cancel(false));
+    }
+
+    /**
+     * Sends the request through the ratelimiter and the adapter.
+     * The network call is cancelled once {@code result} completes otherwise, by a timeout or another call.
+     */
+    private CompletableFuture<Response> send(Request<?> request, CompletableFuture<Response> result) {
+        final AccessibleEndpoint endpoint = request.getEndpoint().getEndpoint();
+        final RestMetrics metrics = this.metrics;
+        final long start = System.nanoTime();
+        final long[] dequeued = new long[1];
+
+        metrics.recordQueueDepth(ratelimiter.getQueueDepth());
+        return ratelimiter.apply(endpoint, request)
+                .thenComposeAsync(it -> {
+                    dequeued[0] = System.nanoTime();
+                    metrics.recordLatency(endpoint, RestMetrics.Stage.QUEUED, dequeued[0] - start);
+                    if (result.isDone())
+                        return Polyfill.<Response>failedFuture(new CancellationException(request + " completed before it was sent"));
+
+                    final CompletableFuture<Response> call = requireFromContext(HttpAdapter.class).call(it);
+                    result.whenComplete((response, t) -> call.cancel(true));
+                    return call;
+                }, executor)
+                .whenComplete((response, t) -> {
+                    if (dequeued[0] != 0)
+                        metrics.recordLatency(endpoint, RestMetrics.Stage.NETWORK, System.nanoTime() - dequeued[0]);
+                    if (t != null) {
+                        metrics.recordFailure(endpoint, t);
+                        return;
+                    }
+
+                    metrics.recordStatus(endpoint, response.getStatusCode());
+                    latencies.computeIfAbsent(endpoint, key -> new LatencyWindow(128))
+                            .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                });
+    }
+
+    private static void discard(@Nullable Response response) {
+        if (response != null)
+            response.close();
+    }
+
+    private static void discard(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            logger.trace("Could not discard response body", e);
+        }
+    }
+
+    private CompletableFuture<Response> cached(Request<?> request, Supplier<CompletableFuture<Response>> call) {
+        final HttpCache cache = httpCache;
+        if (cache == null || request.getMethod() != Method.GET || !request.isCoalescable())
+            return call.get();
+        // conditional requests of the caller are answered by the origin alone
+        final Header.List headers = request.getHeaders();
+        if (headers.contains(CommonHeaderNames.IF_NONE_MATCH) || headers.contains(CommonHeaderNames.IF_MODIFIED_SINCE))
+            return call.get();
+
+        final SerializationAdapter<?, ?, ?> seriLib = requireFromContext(SerializationAdapter.class);
+        final String key = HttpCache.keyOf(request.getEndpoint().getSpec(), headers);
+        final HttpCache.Entry stored = cache.get(key);
+        // only one variant is kept per key; others are fetched anew and replace it
+        final HttpCache.Entry cached = stored == null || !stored.matches(headers) ? null : stored;
+
+        if (cached != null) {
+            if (cached.isFresh()) {
+                logger.trace("Serving {} from cache", request);
+                return CompletableFuture.completedFuture(cached.toResponse(seriLib));
+            }
+
+            if (cached.getETag() != null)
+                headers.set(CommonHeaderNames.IF_NONE_MATCH, cached.getETag());
+            if (cached.getLastModified() != null)
+                headers.set(CommonHeaderNames.IF_MODIFIED_SINCE, cached.getLastModified());
+        }
+
+        // the validators belong to this attempt only and must not outlive the entry they were taken from
+        return call.get().whenComplete((response, t) -> {
+            headers.remove(CommonHeaderNames.IF_NONE_MATCH);
+            headers.remove(CommonHeaderNames.IF_MODIFIED_SINCE);
+        }).thenApply(response -> {
+            if (response.getStatusCode() == HTTPStatusCodes.NOT_MODIFIED) {
+                discard(response);
+                if (cached == null)
+                    throw new IllegalStateException("Received " + HTTPStatusCodes.NOT_MODIFIED + " for unconditional " + request);
+                final HttpCache.Entry refreshed = cached.refresh(response.getHeaders());
+                cache.put(key, refreshed);
+                return refreshed.toResponse(seriLib);
+            }
+            if (!HttpCache.Entry.isCacheable(response))
+                return response;
+
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            final InputStream in = response.getStream();
+            try {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    body.write(buffer, 0, read);
+                    if (body.size() > HttpCache.MAX_BODY_SIZE) {
+                        logger.debug("Not caching {}; body exceeds {} bytes", request, HttpCache.MAX_BODY_SIZE);
+                        final InputStream rest = new SequenceInputStream(new ByteArrayInputStream(body.toByteArray()), in);
+                        return new Response(response.getStatusCode(), response.getMimeType(), rest, seriLib, response.getHeaders());
+                    }
+                }
+                in.close();
+            } catch (IOException e) {
+                discard(in);
+                throw new UncheckedIOException("Could not read response body", e);
+            }
+
+            final HttpCache.Entry entry = HttpCache.Entry.of(response, headers, body.toByteArray());
+            cache.put(key, entry);
+            return entry.toResponse(seriLib);
+        });
+    }
+
+    private CompletableFuture<Response> coalesce(Request<?> request, Supplier<CompletableFuture<Response>> call) {
+        final BiFunction<CompleteEndpoint, Header.List, ?> keyFunction = coalescingKey;
+        if (keyFunction == null || !request.isCoalescable())
+            return call.get();
+
+        final SerializationAdapter<?, ?, ?> seriLib = requireFromContext(SerializationAdapter.class);
+        final Object key = Arrays.asList(request.getMethod(), keyFunction.apply(request.getEndpoint(), request.getHeaders()));
+        final Coalesced coalesced = new Coalesced();
+        final Coalesced existing = inFlight.putIfAbsent(key, coalesced);
+        if (existing != null) {
+            final CompletableFuture<Response> follower = existing.follow();
+            if (follower != null) {
+                logger.trace("Coalescing {} into in-flight call", request);
+                return follower;
+            }
+            // the in-flight call completed meanwhile
+            return call.get();
+        }
+
+        final CompletableFuture<Response> result = new CompletableFuture<>();
+        try {
+            call.get().whenComplete((response, t) -> {
+                inFlight.remove(key, coalesced);
+                coalesced.complete(response, t, result, seriLib);
+            });
+        } catch (Throwable t) {
+            inFlight.remove(key, coalesced);
+            coalesced.complete(null, t, result, seriLib);
+        }
+        return result;
+    }
+
     public enum Method implements Named {
         GET,
 
@@ -167,12 +498,21 @@ public final class REST implements ContextualProvider.Underlying {
 
     public static final class Header {
         private final String name;
+        private final String key;
         private final Set<String> values;
 
         public String getName() {
             return name;
         }
 
+        /**
+         * @return The case-insensitive lookup key of this header's name
+         * @see CommonHeaderNames#canonical(String)
+         */
+        public String getKey() {
+            return key;
+        }
+
         public Set<String> getValues() {
             return Collections.unmodifiableSet(values);
         }
@@ -183,11 +523,18 @@ public final class REST implements ContextualProvider.Underlying {
 
         public Header(String name, String... values) {
             this.name = name;
-            this.values = new HashSet<>(Arrays.asList(
-                    values.length == 1 && values[0].contains(",")
-                            ? values[0].split(",")
-                            : values));
-            this.values.removeIf(String::isEmpty);
+            this.key = CommonHeaderNames.canonical(name);
+            // keep value order, so that values containing commas can be recombined
+            this.values = Arrays.stream(values.length == 1 && values[0].contains(",")
+                    ? values[0].split(",")
+                    : values)
+                    .map(String::trim)
+                    .filter(str -> !str.isEmpty())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+
+        public boolean isNamed(String name) {
+            return key.equals(CommonHeaderNames.canonical(name));
         }
 
         public String combineValues() {
@@ -199,7 +546,34 @@ public final class REST implements ContextualProvider.Underlying {
             return String.format("%s: %s", getName(), combineValues());
         }
 
-        public static final class List extends ArrayList<Header> {
+        /**
+         * A list of headers with case-insensitive hashed lookup by name.
+         * Multiple headers of the same name are kept in order; lookups by name return the first of them.
+         * <p>
+         * {@linkplain #copy() Copies} and {@linkplain #snapshot() snapshots} share their storage with this list
+         * until either of them is modified.
+         */
+        public static final class List extends AbstractList<Header> implements RandomAccess {
+            private final boolean immutable;
+            private ArrayList<Header> headers;
+            private HashMap<String, Header> index;
+            private boolean shared;
+
+            public boolean isImmutable() {
+                return immutable;
+            }
+
+            public List() {
+                this(new ArrayList<>(), new HashMap<>(), false, false);
+            }
+
+            private List(ArrayList<Header> headers, HashMap<String, Header> index, boolean immutable, boolean shared) {
+                this.headers = headers;
+                this.index = index;
+                this.immutable = immutable;
+                this.shared = shared;
+            }
+
             public static List of(Headers headers) {
                 final List list = new List();
                 headers.forEach((name, values) -> list.add(name, values.toArray(new String[0])));
@@ -207,31 +581,145 @@ public final class REST implements ContextualProvider.Underlying {
                 return list;
             }
 
+            /**
+             * @return A modifiable copy of this list
+             */
+            public List copy() {
+                shared = true;
+                return new List(headers, index, false, true);
+            }
+
+            /**
+             * @return An immutable copy of this list; this list itself if it is immutable already
+             */
+            public List snapshot() {
+                if (immutable)
+                    return this;
+                shared = true;
+                return new List(headers, index, true, true);
+            }
+
             public boolean add(String name, String... values) {
-                return super.add(new Header(name, values));
+                return add(new Header(name, values));
+            }
+
+            /**
+             * Replaces all headers of the given name.
+             *
+             * @param name   The header name
+             * @param values The header values
+             */
+            public void set(String name, String... values) {
+                remove(name);
+                add(name, values);
+            }
+
+            /**
+             * Removes all headers of the given name.
+             *
+             * @param name The header name
+             * @return Whether any header was removed
+             */
+            public boolean remove(String name) {
+                final String key = CommonHeaderNames.canonical(name);
+                if (!index.containsKey(key))
+                    return false;
+
+                mutate();
+                headers.removeIf(header -> header.key.equals(key));
+                index.remove(key);
+                return true;
             }
 
             public boolean contains(String name) {
-                return stream().anyMatch(it -> it.name.equals(name));
+                return index.containsKey(CommonHeaderNames.canonical(name));
             }
 
             public String getFirst(String key) {
-                return stream()
-                        .filter(it -> it.name.equals(key))
-                        .findAny()
-                        .map(Header::getFirstValue)
-                        .orElse(null);
+                final Header header = getHeader(key);
+                return header == null ? null : header.getFirstValue();
             }
 
             public Header getHeader(String key) {
-                return stream()
-                        .filter(it -> it.name.equals(key))
-                        .findAny()
-                        .orElse(null);
+                return index.get(CommonHeaderNames.canonical(key));
+            }
+
+            /**
+             * @param name The header name
+             * @return The values of all headers with the given name, in order
+             */
+            public java.util.List<String> getValues(String name) {
+                final String key = CommonHeaderNames.canonical(name);
+                final Header first = index.get(key);
+                if (first == null)
+                    return Collections.emptyList();
+
+                final java.util.List<String> values = new ArrayList<>(first.values);
+                for (int i = headers.indexOf(first) + 1; i < headers.size(); i++)
+                    if (headers.get(i).key.equals(key))
+                        values.addAll(headers.get(i).values);
+                return values;
             }
 
             public void forEach(BiConsumer<String, String> action) {
-                forEach(header -> action.accept(header.getName(), header.combineValues()));
+                for (Header header : headers)
+                    action.accept(header.getName(), header.combineValues());
+            }
+
+            @Override
+            public Header get(int index) {
+                return headers.get(index);
+            }
+
+            @Override
+            public int size() {
+                return headers.size();
+            }
+
+            @Override
+            public void add(int index, Header header) {
+                mutate();
+                headers.add(index, header);
+                final Header first = this.index.get(header.key);
+                if (first == null || headers.indexOf(first) > index)
+                    this.index.put(header.key, header);
+            }
+
+            @Override
+            public Header set(int index, Header header) {
+                mutate();
+                final Header prev = headers.set(index, header);
+                reindex(prev.key);
+                reindex(header.key);
+                return prev;
+            }
+
+            @Override
+            public Header remove(int index) {
+                mutate();
+                final Header prev = headers.remove(index);
+                reindex(prev.key);
+                return prev;
+            }
+
+            @Override
+            public boolean removeIf(Predicate<? super Header> filter) {
+                if (headers.stream().noneMatch(filter))
+                    return false;
+
+                mutate();
+                headers.removeIf(filter);
+                index.clear();
+                for (Header header : headers)
+                    index.putIfAbsent(header.key, header);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                mutate();
+                headers.clear();
+                index.clear();
             }
 
             @Override
@@ -252,15 +740,43 @@ public final class REST implements ContextualProvider.Underlying {
             public Optional<String> tryFirst(String headerName) {
                 return Optional.ofNullable(getFirst(headerName));
             }
+
+            private void mutate() {
+                if (immutable)
+                    throw new UnsupportedOperationException("Header list is immutable");
+                if (shared) {
+                    headers = new ArrayList<>(headers);
+                    index = new HashMap<>(index);
+                    shared = false;
+                }
+                modCount++;
+            }
+
+            private void reindex(String key) {
+                index.remove(key);
+                for (Header header : headers)
+                    if (header.key.equals(key)) {
+                        index.put(key, header);
+                        break;
+                    }
+            }
         }
     }
 
-    public static class Response {
+    /**
+     * A response, whose body may be streamed from the connection it was received on.
+     * <p>
+     * A streamed body holds on to its connection until it is read completely or the response is {@linkplain #close() closed};
+     * responses whose body is not needed should therefore be closed.
+     */
+    public static class Response implements Closeable {
         private final int statusCode;
         private final CharSequence mimeType;
-        private final @Nullable Serializable body;
         private final @Nullable Reader data;
         private final Header.List headers;
+        private final @Nullable SerializationAdapter<?, ?, ?> seriLib;
+        private @Nullable Serializable body;
+        private @Nullable InputStream stream;
 
         public int getStatusCode() {
             return statusCode;
@@ -271,7 +787,18 @@ public final class REST implements ContextualProvider.Underlying {
         }
 
         public Reference<Serializable> getBody() {
-            return Reference.constant(body);
+            if (stream == null)
+                return Reference.constant(body);
+            return Reference.provided(this::readBody);
+        }
+
+        /**
+         * Whether this response body is backed by a stream that has not been consumed yet.
+         *
+         * @return Whether the body is still pending
+         */
+        public synchronized boolean isStreaming() {
+            return stream != null;
         }
 
         public Reference<Reader> getData() {
@@ -282,7 +809,78 @@ public final class REST implements ContextualProvider.Underlying {
             return headers;
         }
 
+        /**
+         * Returns the raw response body.
+         * For streamed responses, this hands out the underlying stream; it can only be consumed once,
+         * after which {@link #getBody()} is no longer available.
+         *
+         * @return The response body as a stream
+         */
+        public synchronized InputStream getStream() {
+            if (stream != null) {
+                final InputStream it = stream;
+                stream = null;
+                return it;
+            }
+            if (body != null && data == null) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try {
+                    body.writeTo(out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not serialize response body", e);
+                }
+                return new ByteArrayInputStream(out.toByteArray());
+            }
+
+            final String str = new BufferedReader(getFullData()).lines().collect(Collectors.joining("\n"));
+            return new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Writes the raw response body to the given stream, without materializing streamed bodies.
+         *
+         * @param out The target stream
+         * @return The amount of bytes written
+         * @throws IOException If reading or writing fails
+         */
+        public long writeTo(OutputStream out) throws IOException {
+            final byte[] buffer = new byte[8192];
+            long total = 0;
+
+            try (InputStream in = getStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    total += read;
+                }
+            }
+            out.flush();
+            return total;
+        }
+
+        /**
+         * Releases a streamed body that was not consumed; the body is no longer available afterwards.
+         * Has no effect on other responses.
+         */
+        @Override
+        public void close() {
+            final InputStream stream;
+            synchronized (this) {
+                stream = this.stream;
+                this.stream = null;
+            }
+            if (stream == null)
+                return;
+            try {
+                stream.close();
+            } catch (IOException e) {
+                logger.trace("Could not close response body", e);
+            }
+        }
+
         public Reader getFullData() {
+            if (isStreaming() && data == null)
+                return new InputStreamReader(getStream(), StandardCharsets.UTF_8);
             if (body == null && data == null)
                 return new StringReader("");
             if (body != null && data == null)
@@ -459,20 +1057,77 @@ public final class REST implements ContextualProvider.Underlying {
             this(statusCode, mimeType, null, data, headers);
         }
 
+        /**
+         * Creates a response whose body is read lazily from the given {@code stream}.
+         * The body is parsed through the streaming reader of {@code seriLib} when it is first requested using {@link #getBody()}.
+         * Alternatively, the raw body can be consumed using {@link #getStream()} or {@link #writeTo(OutputStream)}.
+         * <p>
+         * The stream should be consumed by either way, as it may hold on to a connection until it is closed.
+         *
+         * @param statusCode the status code
+         * @param mimeType   the mimeType of the response body
+         * @param stream     the response body stream
+         * @param seriLib    the adapter to parse the body with; {@code null} if the body cannot be parsed
+         * @param headers    the response headers
+         */
+        public Response(
+                @MagicConstant(valuesFromClass = HTTPStatusCodes.class) int statusCode,
+                CharSequence mimeType,
+                InputStream stream,
+                @Nullable SerializationAdapter<?, ?, ?> seriLib,
+                Header.List headers
+        ) {
+            this(statusCode, mimeType, null, null, stream, seriLib, headers);
+        }
+
         private Response(
                 @MagicConstant(valuesFromClass = HTTPStatusCodes.class) int statusCode,
                 CharSequence mimeType,
                 @Nullable Serializable body,
                 @Nullable Reader data,
                 Header.List headers
+        ) {
+            this(statusCode, mimeType, body, data, null, null, headers);
+        }
+
+        private Response(
+                @MagicConstant(valuesFromClass = HTTPStatusCodes.class) int statusCode,
+                CharSequence mimeType,
+                @Nullable Serializable body,
+                @Nullable Reader data,
+                @Nullable InputStream stream,
+                @Nullable SerializationAdapter<?, ?, ?> seriLib,
+                Header.List headers
         ) {
             this.statusCode = statusCode;
             this.mimeType = mimeType;
             this.body = body;
             this.data = data;
+            this.stream = stream;
+            this.seriLib = seriLib;
             this.headers = headers;
         }
 
+        private synchronized @Nullable Serializable readBody() {
+            if (stream == null)
+                return body;
+            if (seriLib == null)
+                throw new IllegalStateException("Response body of type " + mimeType + " cannot be parsed");
+
+            try (PushbackInputStream in = new PushbackInputStream(getStream(), 1)) {
+                final int first = in.read();
+                if (first == -1)
+                    return body = null;
+                in.unread(first);
+
+                try (UniReader reader = seriLib.createReader(in)) {
+                    return body = reader.readNode();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read response body", e);
+            }
+        }
+
         private static Header.List redirectHeaderList(URI uri) {
             Header.List headers = new Header.List();
             headers.add(CommonHeaderNames.REDIRECT_TARGET, uri.toString());
@@ -501,8 +1156,8 @@ public final class REST implements ContextualProvider.Underlying {
             assert headers.size() > 0 : "headers missing";
             sb.append((char) 0x0D).append((char) 0x0A);
 
-            if (data != null)
-                sb.append(new BufferedReader(data)
+            if (data != null || isStreaming())
+                sb.append(new BufferedReader(getFullData())
                                 .lines()
                                 .collect(Collectors.joining("\n")))
                         .append((char) 0x0D).append((char) 0x0A);
@@ -532,14 +1187,86 @@ public final class REST implements ContextualProvider.Underlying {
             return String.format("Response{statusCode=%d, mimeType='%s', headers=%s}", statusCode, mimeType, headers);
         }
 
+        /**
+         * Creates an exception from the status code and the {@code message} of the body, if present.
+         * Streamed bodies are consumed or closed.
+         */
         public RestEndpointException toException() {
-            return getBody().map(Serializable::toUniNode)
-                    .map(data -> data.get("message").asString())
-                    .filter(Objects::nonNull)
-                    .ifPresentMapOrElseGet(
-                            msg -> new RestEndpointException(statusCode, msg),
-                            () -> new RestEndpointException(statusCode)
-                    );
+            try {
+                return getBody().map(Serializable::toUniNode)
+                        .map(data -> data.get("message").asString())
+                        .filter(Objects::nonNull)
+                        .ifPresentMapOrElseGet(
+                                msg -> new RestEndpointException(statusCode, msg),
+                                () -> new RestEndpointException(statusCode)
+                        );
+            } catch (RuntimeException e) {
+                logger.trace("Could not read error message of {}", this, e);
+                return new RestEndpointException(statusCode);
+            } finally {
+                close();
+            }
+        }
+    }
+
+    /**
+     * A call that identical requests have joined while it was in flight.
+     * If any did, the response body is read or serialized once and every caller receives its own {@link Response} over it,
+     * as streamed bodies can only be consumed once and parsed bodies must not be shared between callers.
+     */
+    private static final class Coalesced {
+        private final java.util.List<CompletableFuture<Response>> followers = new ArrayList<>();
+        private boolean completed = false;
+
+        /**
+         * @return The future of the joining caller, or {@code null} if the call has completed already
+         */
+        private synchronized @Nullable CompletableFuture<Response> follow() {
+            if (completed)
+                return null;
+            final CompletableFuture<Response> follower = new CompletableFuture<>();
+            followers.add(follower);
+            return follower;
+        }
+
+        private void complete(@Nullable Response response, @Nullable Throwable t, CompletableFuture<Response> leader, SerializationAdapter<?, ?, ?> seriLib) {
+            final java.util.List<CompletableFuture<Response>> followers;
+            synchronized (this) {
+                completed = true;
+                followers = new ArrayList<>(this.followers);
+            }
+
+            if (t == null && followers.isEmpty()) {
+                leader.complete(response);
+                return;
+            }
+
+            byte[] body = null;
+            if (t == null && (response.isStreaming() || response.data != null || response.body != null)) {
+                try (InputStream in = response.getStream()) {
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    final byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1)
+                        out.write(buffer, 0, read);
+                    body = out.toByteArray();
+                } catch (IOException | RuntimeException e) {
+                    t = e;
+                }
+            }
+
+            followers.add(leader);
+            for (CompletableFuture<Response> caller : followers)
+                if (t != null)
+                    caller.completeExceptionally(t);
+                else caller.complete(share(response, body, seriLib));
+        }
+
+        private static Response share(Response response, @Nullable byte[] body, SerializationAdapter<?, ?, ?> seriLib) {
+            if (body == null)
+                return new Response(response.statusCode, response.mimeType, null, null, null, null, response.headers.copy());
+            return new Response(response.statusCode, response.mimeType, null, null, new ByteArrayInputStream(body),
+                    response.seriLib != null ? response.seriLib : seriLib, response.headers.copy());
         }
     }
 
@@ -553,6 +1280,8 @@ public final class REST implements ContextualProvider.Underlying {
         private @Nullable Serializable body;
         private @Nullable Readable data;
         private boolean throwOnMismatch = false;
+        private @Nullable RequestPolicy policy;
+        private volatile long deadline = Long.MAX_VALUE;
         private int[] expectedCodes = new int[]{HTTPStatusCodes.OK};
 
         public final CompleteEndpoint getEndpoint() {
@@ -579,6 +1308,19 @@ public final class REST implements ContextualProvider.Underlying {
             return rest;
         }
 
+        public RequestPolicy getPolicy() {
+            if (policy != null)
+                return policy;
+            return rest == null ? RequestPolicy.NONE : rest.requestPolicy;
+        }
+
+        /**
+         * @return The epoch millisecond after which this request is abandoned; {@link Long#MAX_VALUE} if unbounded
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
         public boolean isExecuted() {
             return execution.isDone();
         }
@@ -608,6 +1350,15 @@ public final class REST implements ContextualProvider.Underlying {
             this.data = data;
         }
 
+        /**
+         * Whether this request may share its network call with identical requests in flight.
+         *
+         * @return Whether this is a {@code GET} or {@code HEAD} request without body
+         */
+        public final boolean isCoalescable() {
+            return (method == Method.GET || method == Method.HEAD) && body == null && data == null;
+        }
+
         public final boolean hasExplicitBody() {
             return body != null && body != data;
         }
@@ -643,6 +1394,12 @@ public final class REST implements ContextualProvider.Underlying {
             return this;
         }
 
+        public Request<T> policy(RequestPolicy policy) {
+            this.policy = policy;
+
+            return this;
+        }
+
         public Request<T> endpoint(CompleteEndpoint endpoint) {
             this.endpoint = endpoint;
 
@@ -698,8 +1455,10 @@ public final class REST implements ContextualProvider.Underlying {
                 //addHeader("Content-Length", String.valueOf(body == null ? 0 : body.length()));
                 logger.trace("Executing request {} @ {} with body {}", method, endpoint.getSpec(), String.valueOf(body));
                 logger.log(Level.ALL, "Request has Headers: {}", headers.toString());
-                rest.ratelimiter.apply(endpoint.getEndpoint(), this)
-                        .thenComposeAsync(request -> rest.requireFromContext(HttpAdapter.class).call(request), rest.executor)
+                final long start = System.nanoTime();
+                execution.whenComplete((response, t) -> rest.metrics
+                        .recordLatency(endpoint.getEndpoint(), RestMetrics.Stage.TOTAL, System.nanoTime() - start));
+                rest.coalesce(this, () -> rest.cached(this, () -> rest.dispatch(this)))
                         .thenAcceptAsync(response -> {
                             if (IntStream.of(expectedCodes).noneMatch(x -> x == response.statusCode)) {
                                 if (throwOnMismatch)
@@ -708,11 +1467,16 @@ public final class REST implements ContextualProvider.Underlying {
                                         response.statusCode, expectedCodes);
                             }
 
+                            // streamed bodies are left for the caller to consume
                             logger.trace("{} @ {} responded with {} body {}", method,
-                                    endpoint.getSpec(), response.statusCode, response.getBody().into(Objects::toString));
+                                    endpoint.getSpec(), response.statusCode, response.isStreaming()
+                                            ? "<streamed>"
+                                            : response.getBody().into(Objects::toString));
 
                             try {
-                                execution.complete(response);
+                                // the caller may have cancelled the execution meanwhile
+                                if (!execution.complete(response))
+                                    response.close();
                             } catch (Throwable t) {
                                 throw new RuntimeException("A problem occurred while handling response " + response, t);
                             }
@@ -726,8 +1490,14 @@ public final class REST implements ContextualProvider.Underlying {
             return execution;
         }
 
+        /**
+         * Executes the request and releases the response body, as only the status code is of interest.
+         */
         public CompletableFuture<Integer> execute$statusCode() {
-            return execute().thenApply(Response::getStatusCode);
+            return execute().thenApply(response -> {
+                response.close();
+                return response.getStatusCode();
+            });
         }
 
         public CompletableFuture<Serializable> execute$body() {
@@ -737,26 +1507,31 @@ public final class REST implements ContextualProvider.Underlying {
         }
 
         public CompletableFuture<Span<T>> execute$deserialize() {
-            return execute$body().thenApply(serializable -> {
-                if (serializable == null)
-                    return null;
-                return serializable.toUniNode();
-            }).thenApply(node -> {
-                if (node == null)
-                    return Span.empty();
-                switch (node.getNodeType()) {
-                    case OBJECT:
-                        return Span.singleton(tProducer.apply(rest, node.asObjectNode()));
-                    case ARRAY:
-                        return node.asArrayNode()
-                                .streamNodes()
-                                .map(data -> tProducer.apply(rest, data))
-                                .collect(Span.collector());
-                    case VALUE:
-                        throw new AssertionError("Cannot deserialize from UniValueNode");
-                }
+            return execute().thenApply(response -> {
+                final long start = System.nanoTime();
+
+                try {
+                    final Serializable serializable = response.getBody().get();
+                    final UniNode node = serializable == null ? null : serializable.toUniNode();
+
+                    if (node == null)
+                        return Span.empty();
+                    switch (node.getNodeType()) {
+                        case OBJECT:
+                            return Span.singleton(tProducer.apply(rest, node.asObjectNode()));
+                        case ARRAY:
+                            return node.asArrayNode()
+                                    .streamNodes()
+                                    .map(data -> tProducer.apply(rest, data))
+                                    .collect(Span.collector());
+                        case VALUE:
+                            throw new AssertionError("Cannot deserialize from UniValueNode");
+                    }
 
-                throw new AssertionError();
+                    throw new AssertionError();
+                } finally {
+                    recordDeserialization(start);
+                }
             });
         }
 
@@ -807,28 +1582,37 @@ public final class REST implements ContextualProvider.Underlying {
         public <ID> CompletableFuture<RefList<T>> execute$autoCache(
                 VarBind<?, ?, ?, ID> identifyBind, Cache<ID, T> cache, @Nullable String dataNodeName
         ) {
-            return execute$body().thenApply(serializable -> {
-                if (serializable == null)
-                    return null;
-                return serializable.toUniNode();
-            }).thenApply(node -> {
-                if (node == null)
-                    return Span.empty();
-                if (dataNodeName != null)
-                    node = node.get(dataNodeName);
-                if (node.isObjectNode()) {
-                    return ReferenceList.of(cacheProduce(identifyBind, cache, node.asObjectNode()));
-                } else if (node.isArrayNode()) {
-                    return node.streamNodes()
-                            .map(UniNode::asObjectNode)
-                            .map(obj -> cacheProduce(identifyBind, cache, obj))
-                            .collect(Collectors.toCollection(ReferenceList::new));
-                } else {
-                    throw new AssertionError();
+            return execute().thenApply(response -> {
+                final long start = System.nanoTime();
+
+                try {
+                    final Serializable serializable = response.getBody().get();
+                    UniNode node = serializable == null ? null : serializable.toUniNode();
+
+                    if (node == null)
+                        return Span.empty();
+                    if (dataNodeName != null)
+                        node = node.get(dataNodeName);
+                    if (node.isObjectNode()) {
+                        return ReferenceList.of(cacheProduce(identifyBind, cache, node.asObjectNode()));
+                    } else if (node.isArrayNode()) {
+                        return node.streamNodes()
+                                .map(UniNode::asObjectNode)
+                                .map(obj -> cacheProduce(identifyBind, cache, obj))
+                                .collect(Collectors.toCollection(ReferenceList::new));
+                    } else {
+                        throw new AssertionError();
+                    }
+                } finally {
+                    recordDeserialization(start);
                 }
             });
         }
 
+        private void recordDeserialization(long start) {
+            rest.metrics.recordLatency(endpoint.getEndpoint(), RestMetrics.Stage.DESERIALIZE, System.nanoTime() - start);
+        }
+
         private <ID> T cacheProduce(VarBind<?, ?, ?, ID> identifyBind, Cache<ID, T> cache, UniObjectNode obj) {
             ID id = identifyBind.getFrom(obj);
 
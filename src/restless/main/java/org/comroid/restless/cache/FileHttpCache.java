@@ -0,0 +1,147 @@
+package org.comroid.restless.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.comroid.restless.REST;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stores one file per entry in a directory; file names are derived from a hash of the key.
+ */
+final class FileHttpCache implements HttpCache {
+    private static final Logger logger = LogManager.getLogger();
+    private static final int VERSION = 2;
+    private static final String SUFFIX = ".httpcache";
+    private final File directory;
+
+    FileHttpCache(File directory) {
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IllegalArgumentException("Could not create cache directory " + directory);
+        this.directory = directory;
+    }
+
+    @Override
+    public @Nullable Entry get(String key) {
+        final File file = fileOf(key);
+        if (!file.exists())
+            return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION || !in.readUTF().equals(key))
+                return null;
+
+            final int statusCode = in.readInt();
+            final String mimeType = in.readUTF();
+            final long storedAt = in.readLong();
+            final long maxAge = in.readLong();
+            final String etag = readNullable(in);
+            final String lastModified = readNullable(in);
+
+            final Map<String, String> selecting = new LinkedHashMap<>();
+            for (int i = in.readInt(); i > 0; i--)
+                selecting.put(in.readUTF(), readNullable(in));
+
+            final REST.Header.List headers = new REST.Header.List();
+            for (int i = in.readInt(); i > 0; i--)
+                headers.add(in.readUTF(), in.readUTF());
+
+            final byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+
+            return new Entry(statusCode, mimeType, headers, body, storedAt, maxAge, etag, lastModified, selecting);
+        } catch (IOException e) {
+            logger.warn("Could not read cache file {}; discarding it", file, e);
+            remove(key);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, Entry entry) {
+        final File file = fileOf(key);
+        final File temp = new File(directory, file.getName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(VERSION);
+            out.writeUTF(key);
+            out.writeInt(entry.getStatusCode());
+            out.writeUTF(entry.getMimeType());
+            out.writeLong(entry.getStoredAt());
+            out.writeLong(entry.getMaxAge());
+            writeNullable(out, entry.getETag());
+            writeNullable(out, entry.getLastModified());
+
+            out.writeInt(entry.getSelectingHeaders().size());
+            for (Map.Entry<String, String> selecting : entry.getSelectingHeaders().entrySet()) {
+                out.writeUTF(selecting.getKey());
+                writeNullable(out, selecting.getValue());
+            }
+
+            final REST.Header.List headers = entry.getHeaders();
+            out.writeInt(headers.size());
+            for (REST.Header header : headers) {
+                out.writeUTF(header.getName());
+                out.writeUTF(header.combineValues());
+            }
+
+            out.writeInt(entry.getBody().length);
+            out.write(entry.getBody());
+        } catch (IOException e) {
+            logger.warn("Could not write cache file {}", file, e);
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(file)) {
+            file.delete();
+            if (!temp.renameTo(file))
+                temp.delete();
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        fileOf(key).delete();
+    }
+
+    @Override
+    public void clear() {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null)
+            for (File file : files)
+                file.delete();
+    }
+
+    private File fileOf(String key) {
+        return new File(directory, sha256(key) + SUFFIX);
+    }
+
+    static String sha256(String str) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(str.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash)
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is not supported", e);
+        }
+    }
+
+    private static @Nullable String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullable(DataOutput out, @Nullable String str) throws IOException {
+        out.writeBoolean(str != null);
+        if (str != null)
+            out.writeUTF(str);
+    }
+}
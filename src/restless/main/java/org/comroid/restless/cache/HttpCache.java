@@ -0,0 +1,302 @@
+package org.comroid.restless.cache;
+
+import org.comroid.restless.CommonHeaderNames;
+import org.comroid.restless.HTTPStatusCodes;
+import org.comroid.restless.REST;
+import org.comroid.uniform.SerializationAdapter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Stores responses of {@code GET} requests, so that they can be served locally while fresh
+ * and revalidated using {@code If-None-Match} and {@code If-Modified-Since} once they are stale.
+ *
+ * @see REST#setHttpCache(HttpCache)
+ */
+public interface HttpCache {
+    /**
+     * Bodies larger than this are never cached.
+     */
+    long MAX_BODY_SIZE = 8 * 1024 * 1024;
+
+    static HttpCache memory(int maxEntries) {
+        return new MemoryHttpCache(maxEntries, null);
+    }
+
+    static HttpCache memory(int maxEntries, File directory) {
+        return new MemoryHttpCache(maxEntries, new FileHttpCache(directory));
+    }
+
+    static HttpCache disk(File directory) {
+        return new FileHttpCache(directory);
+    }
+
+    /**
+     * Creates the key a response is cached by.
+     * Responses to authorized requests are keyed by a digest of their credentials, so they are never served to other users.
+     *
+     * @param url            The requested URL
+     * @param requestHeaders The request headers
+     * @return The cache key
+     */
+    static String keyOf(String url, REST.Header.List requestHeaders) {
+        final String authorization = Entry.header(requestHeaders, CommonHeaderNames.AUTHORIZATION);
+        return authorization == null ? url : url + '#' + FileHttpCache.sha256(authorization);
+    }
+
+    @Nullable Entry get(String key);
+
+    void put(String key, Entry entry);
+
+    void remove(String key);
+
+    void clear();
+
+    final class Entry {
+        private final int statusCode;
+        private final String mimeType;
+        private final REST.Header.List headers;
+        private final byte[] body;
+        private final long storedAt;
+        private final long maxAge;
+        private final @Nullable String etag;
+        private final @Nullable String lastModified;
+        private final Map<String, String> selectingHeaders;
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public REST.Header.List getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public long getStoredAt() {
+            return storedAt;
+        }
+
+        /**
+         * @return The freshness lifetime in seconds that was left when this entry was stored
+         */
+        public long getMaxAge() {
+            return maxAge;
+        }
+
+        public @Nullable String getETag() {
+            return etag;
+        }
+
+        public @Nullable String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return The request headers named by the {@code Vary} response header, with the values they had in the
+         * request this entry was stored for; {@code null} values denote absent headers
+         */
+        public Map<String, String> getSelectingHeaders() {
+            return selectingHeaders;
+        }
+
+        public boolean isFresh() {
+            return System.currentTimeMillis() < storedAt + maxAge * 1000;
+        }
+
+        public boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+
+        public Entry(
+                int statusCode,
+                String mimeType,
+                REST.Header.List headers,
+                byte[] body,
+                long storedAt,
+                long maxAge,
+                @Nullable String etag,
+                @Nullable String lastModified,
+                Map<String, String> selectingHeaders
+        ) {
+            this.statusCode = statusCode;
+            this.mimeType = mimeType;
+            this.headers = headers.snapshot();
+            this.body = body;
+            this.storedAt = storedAt;
+            this.maxAge = maxAge;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.selectingHeaders = Collections.unmodifiableMap(new LinkedHashMap<>(selectingHeaders));
+        }
+
+        /**
+         * Creates a cache entry from a response.
+         *
+         * @param response       The response to cache
+         * @param requestHeaders The headers of the request the response belongs to
+         * @param body           The raw body of the response
+         * @return The entry, or {@code null} if the response must not be cached
+         */
+        public static @Nullable Entry of(REST.Response response, REST.Header.List requestHeaders, byte[] body) {
+            if (!isCacheable(response))
+                return null;
+
+            final REST.Header.List headers = response.getHeaders();
+            final Map<String, String> selecting = new LinkedHashMap<>();
+            for (String name : headers.getValues(CommonHeaderNames.VARY))
+                selecting.put(CommonHeaderNames.canonical(name), header(requestHeaders, name));
+
+            return new Entry(response.getStatusCode(), String.valueOf(response.getMimeType()), headers, body,
+                    System.currentTimeMillis(), maxAge(headers),
+                    header(headers, CommonHeaderNames.ETAG),
+                    header(headers, CommonHeaderNames.LAST_MODIFIED),
+                    selecting);
+        }
+
+        /**
+         * Checks whether this entry may answer a request, as the request headers named by {@code Vary} are unchanged.
+         *
+         * @param requestHeaders The headers of the request
+         * @return Whether this entry matches the request
+         */
+        public boolean matches(REST.Header.List requestHeaders) {
+            for (Map.Entry<String, String> selecting : selectingHeaders.entrySet())
+                if (!Objects.equals(selecting.getValue(), header(requestHeaders, selecting.getKey())))
+                    return false;
+            return true;
+        }
+
+        /**
+         * Checks whether a response may be stored, before its body is read.
+         *
+         * @param response The response to check
+         * @return Whether the response is cacheable
+         */
+        public static boolean isCacheable(REST.Response response) {
+            if (response.getStatusCode() != HTTPStatusCodes.OK)
+                return false;
+
+            final REST.Header.List headers = response.getHeaders();
+            final long maxAge = maxAge(headers);
+            final String length = header(headers, CommonHeaderNames.CONTENT_LENGTH);
+
+            if (maxAge < 0 || "*".equals(header(headers, CommonHeaderNames.VARY)))
+                return false;
+            if (length != null && length.matches("\\d+") && Long.parseLong(length) > MAX_BODY_SIZE)
+                return false;
+            return maxAge > 0
+                    || header(headers, CommonHeaderNames.ETAG) != null
+                    || header(headers, CommonHeaderNames.LAST_MODIFIED) != null;
+        }
+
+        /**
+         * Returns the freshness lifetime a response has left.
+         * The lifetime is declared by the {@code max-age} directive of the {@code Cache-Control} header,
+         * or else by the {@code Expires} header relative to the {@code Date} header,
+         * and is reduced by the {@code Age} the response already had when it was received.
+         *
+         * @param headers The response headers
+         * @return The lifetime in seconds; {@code 0} if the response must be revalidated; {@code -1} if it must not be stored
+         */
+        public static long maxAge(REST.Header.List headers) {
+            long maxAge = -1;
+            final REST.Header cacheControl = headers.getHeader(CommonHeaderNames.CACHE_CONTROL);
+            if (cacheControl != null)
+                for (String directive : cacheControl.getValues()) {
+                    directive = directive.trim().toLowerCase();
+                    if (directive.equals("no-store"))
+                        return -1;
+                    if (directive.equals("no-cache"))
+                        return 0;
+                    if (directive.startsWith("max-age="))
+                        try {
+                            maxAge = Math.max(0, Long.parseLong(directive.substring(8).trim()));
+                        } catch (NumberFormatException ignored) {
+                        }
+                }
+            if (maxAge < 0)
+                maxAge = expires(headers);
+
+            final String age = header(headers, CommonHeaderNames.AGE);
+            if (age != null && age.trim().matches("\\d+"))
+                maxAge -= Long.parseLong(age.trim());
+            return Math.max(0, maxAge);
+        }
+
+        /**
+         * @return The lifetime in seconds declared by the {@code Expires} header; {@code 0} if it is absent or invalid
+         */
+        private static long expires(REST.Header.List headers) {
+            final String expires = header(headers, CommonHeaderNames.EXPIRES);
+            if (expires == null)
+                return 0;
+
+            try {
+                final String date = header(headers, CommonHeaderNames.DATE);
+                final long now = date == null ? System.currentTimeMillis() : parseDate(date);
+                return Math.max(0, (parseDate(expires) - now) / 1000);
+            } catch (DateTimeParseException e) {
+                return 0; // invalid dates denote the past
+            }
+        }
+
+        private static long parseDate(String date) {
+            return ZonedDateTime.parse(date.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        }
+
+        static @Nullable String header(REST.Header.List headers, String name) {
+            final REST.Header header = headers.getHeader(name);
+            return header == null ? null : header.combineValues();
+        }
+
+        /**
+         * Creates a refreshed entry after the origin responded with {@code 304 Not Modified}.
+         * The headers of the {@code 304} response replace the stored ones of the same names,
+         * and the freshness lifetime is recomputed from the merged headers.
+         *
+         * @param notModified The headers of the {@code 304} response
+         * @return The refreshed entry
+         */
+        public Entry refresh(REST.Header.List notModified) {
+            final REST.Header.List merged = headers.copy();
+            merged.remove(CommonHeaderNames.AGE); // the stored response was just confirmed by the origin
+            // the 304 has no body, so its Content-Length does not describe the stored one
+            for (REST.Header header : notModified)
+                if (!header.getName().equalsIgnoreCase(CommonHeaderNames.CONTENT_LENGTH))
+                    merged.remove(header.getName());
+            for (REST.Header header : notModified)
+                if (!header.getName().equalsIgnoreCase(CommonHeaderNames.CONTENT_LENGTH))
+                    merged.add(header);
+
+            final long maxAge = maxAge(merged);
+            final String etag = header(merged, CommonHeaderNames.ETAG);
+            final String lastModified = header(merged, CommonHeaderNames.LAST_MODIFIED);
+
+            return new Entry(statusCode, mimeType, merged, body, System.currentTimeMillis(),
+                    maxAge < 0 ? 0 : maxAge,
+                    etag == null ? this.etag : etag,
+                    lastModified == null ? this.lastModified : lastModified,
+                    selectingHeaders);
+        }
+
+        public REST.Response toResponse(@Nullable SerializationAdapter<?, ?, ?> seriLib) {
+            return new REST.Response(statusCode, mimeType, new ByteArrayInputStream(body), seriLib, headers.copy());
+        }
+    }
+}
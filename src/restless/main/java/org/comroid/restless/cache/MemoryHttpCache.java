@@ -0,0 +1,67 @@
+package org.comroid.restless.cache;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used in-memory cache, optionally backed by a second level cache.
+ */
+final class MemoryHttpCache implements HttpCache {
+    private final Map<String, Entry> entries;
+    private final @Nullable HttpCache secondLevel;
+
+    MemoryHttpCache(final int maxEntries, @Nullable HttpCache secondLevel) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.secondLevel = secondLevel;
+    }
+
+    @Override
+    public @Nullable Entry get(String key) {
+        synchronized (entries) {
+            final Entry entry = entries.get(key);
+            if (entry != null || secondLevel == null)
+                return entry;
+        }
+
+        final Entry entry = secondLevel.get(key);
+        if (entry != null)
+            synchronized (entries) {
+                entries.put(key, entry);
+            }
+        return entry;
+    }
+
+    @Override
+    public void put(String key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        if (secondLevel != null)
+            secondLevel.put(key, entry);
+    }
+
+    @Override
+    public void remove(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+        if (secondLevel != null)
+            secondLevel.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        if (secondLevel != null)
+            secondLevel.clear();
+    }
+}
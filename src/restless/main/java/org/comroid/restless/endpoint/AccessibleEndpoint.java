@@ -2,19 +2,16 @@ package org.comroid.restless.endpoint;
 
 import org.comroid.api.Polyfill;
 import org.comroid.api.WrappedFormattable;
-import org.comroid.common.ref.StaticCache;
 import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.ApiStatus.NonExtendable;
 
 import java.net.URI;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.function.Predicate;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 public interface AccessibleEndpoint extends CompleteEndpoint, WrappedFormattable, Predicate<String>, EndpointScope {
     @Deprecated
@@ -52,6 +49,18 @@ public interface AccessibleEndpoint extends CompleteEndpoint, WrappedFormattable
 
     Pattern getPattern();
 
+    /**
+     * Implementations should compile their template once, using {@link #buildUrlTemplate()}.
+     * By default, the template is compiled on first use and kept for as long as the endpoint is reachable.
+     *
+     * @return The compiled url template of this endpoint
+     */
+    default UrlTemplate getTemplate() {
+        synchronized (Support.templates) {
+            return Support.templates.computeIfAbsent(this, AccessibleEndpoint::buildUrlTemplate);
+        }
+    }
+
     @NonExtendable
     default CompleteEndpoint complete(Object... args) throws IllegalArgumentException {
         return CompleteEndpoint.of(this, string(args));
@@ -68,12 +77,7 @@ public interface AccessibleEndpoint extends CompleteEndpoint, WrappedFormattable
             throw new IllegalArgumentException("Invalid argument count");
         }
 
-        String format = String.format(includeBaseUrl ? getFullUrl() : getUrlExtension(), args);
-
-        if (test(format))
-            return format;
-
-        throw new IllegalArgumentException("Generated spec is invalid");
+        return getTemplate().complete(includeBaseUrl ? getUrlBase() : null, args);
     }
 
     @NonExtendable
@@ -105,16 +109,7 @@ public interface AccessibleEndpoint extends CompleteEndpoint, WrappedFormattable
         if (allowMemberAccess() && isMemberAccess(url))
             url = url.substring(0, url.lastIndexOf("/"));
 
-        final String[] regExpGroups = getRegExpGroups();
-        String replacer = replacer(regExpGroups);
-        Pattern pattern = getPattern();
-
-        if (regExpGroups.length == 0)
-            return pattern.matcher(url).matches() && replacer.equals(url);
-        else {
-            Matcher matcher = pattern.matcher(url);
-            return matcher.matches() && matcher.replaceAll(replacer).equals(url);
-        }
+        return getTemplate().matches(url);
     }
 
     @NonExtendable
@@ -136,61 +131,49 @@ public interface AccessibleEndpoint extends CompleteEndpoint, WrappedFormattable
             requestUrl = requestUrl.substring(0, begin);
         }
 
-        final Matcher matcher = getPattern().matcher(requestUrl);
-        final String[] groups = getRegExpGroups();
-
-        if (matcher.matches() && test(requestUrl)) {
-            List<String> yields = new ArrayList<>();
-
-            int i = 1;
-            while (groups.length + 1 > i && matcher.matches())
-                yields.add(matcher.group(i++));
-            //yields.removeIf(String::isEmpty);
-
-            if (extra != null)
-                yields.add(extra);
-            return yields.toArray(new String[0]);
-        }
+        final String[] yields = getTemplate().match(requestUrl);
+        if (yields == null)
+            return new String[0];
+        if (extra == null)
+            return yields;
 
-        return new String[0];
+        final String[] withMember = Arrays.copyOf(yields, yields.length + 1);
+        withMember[yields.length] = extra;
+        return withMember;
     }
 
+    /**
+     * @deprecated The url template is compiled once; use {@link #getTemplate()} instead.
+     */
     @Internal
+    @Deprecated
     @NonExtendable
     default String replacer(String[] groups) {
-        // todo: Inspect overhead
-        return StaticCache.access(this, "replacer", () -> {
-            String yield = getUrlExtension();
-
-            int i = 0;
-            while (yield.contains("%s") && groups.length > i) {
-                int fi = yield.indexOf("%s");
-                yield = String.format("%s$%d%s",
-                        yield.substring(0, fi),
-                        ++i,
-                        yield.substring(fi + 2)
-                );
-            }
+        String yield = getUrlExtension();
+
+        int i = 0;
+        while (yield.contains("%s") && groups.length > i) {
+            int fi = yield.indexOf("%s");
+            yield = String.format("%s$%d%s",
+                    yield.substring(0, fi),
+                    ++i,
+                    yield.substring(fi + 2)
+            );
+        }
 
-            return yield;
-        });
+        return yield;
     }
 
     @Internal
     @NonExtendable
     default Pattern buildUrlPattern() {
-        final String[] regExpGroups = getRegExpGroups();
-
-        if (regExpGroups != null && regExpGroups.length > 0) {
-            String format = String.format(getUrlExtension(), Arrays.stream(regExpGroups)
-                    .map(str -> String.format("(%s)", str))
-                    .toArray());
-            format = format.replace("?", "\\?");
-            return Pattern.compile(format);
-        }
-        String format = getUrlExtension().replace("%s", "(.*)");
-        format = format.replace("?", "\\?");
-        return Pattern.compile(format);
+        return buildUrlTemplate().getPattern();
+    }
+
+    @Internal
+    @NonExtendable
+    default UrlTemplate buildUrlTemplate() {
+        return UrlTemplate.compile(getUrlExtension(), getRegExpGroups());
     }
 
     default boolean allowMemberAccess() {
@@ -198,11 +181,18 @@ public interface AccessibleEndpoint extends CompleteEndpoint, WrappedFormattable
     }
 
     default boolean isMemberAccess(String url) {
-        return allowMemberAccess() && Stream.of(replacer(getRegExpGroups()), url)
-                .mapToLong(str -> str.chars()
-                        .filter(x -> x == '/')
-                        .count())
-                .distinct()
-                .count() > 1;
+        if (!allowMemberAccess())
+            return false;
+
+        int slashes = 0;
+        for (int i = 0; i < url.length(); i++)
+            if (url.charAt(i) == '/')
+                slashes++;
+        return slashes != getTemplate().getSlashCount();
+    }
+
+    final class Support {
+        // templates of endpoints that do not keep their own; weakly keyed, so that endpoints created per call are not retained
+        static final Map<AccessibleEndpoint, UrlTemplate> templates = new WeakHashMap<>();
     }
 }
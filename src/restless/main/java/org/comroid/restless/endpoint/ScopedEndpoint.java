@@ -5,6 +5,7 @@ import java.util.regex.Pattern;
 public class ScopedEndpoint implements AccessibleEndpoint {
     private final EndpointScope scope;
     private final String urlBase;
+    private final UrlTemplate template;
     private final Pattern pattern;
 
     @Override
@@ -28,10 +29,16 @@ public class ScopedEndpoint implements AccessibleEndpoint {
         return pattern;
     }
 
+    @Override
+    public final UrlTemplate getTemplate() {
+        return template;
+    }
+
     public ScopedEndpoint(EndpointScope scope, String urlBase) {
         this.scope = scope;
         this.urlBase = urlBase;
-        this.pattern = buildUrlPattern();
+        this.template = buildUrlTemplate();
+        this.pattern = template.getPattern();
     }
 
     @Override
@@ -0,0 +1,175 @@
+package org.comroid.restless.endpoint;
+
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable URL template, compiled from an endpoint's url extension.
+ * The template consists of literal segments with a parameter slot in place of every {@code %s}.
+ * Each slot is constrained by the corresponding regular expression group of the endpoint.
+ */
+public final class UrlTemplate {
+    private static final Pattern ANY = Pattern.compile(".*");
+    private final String source;
+    private final String[] literals;
+    private final Pattern[] slots;
+    private final Pattern pattern;
+    private final int literalLength;
+    private final int slashCount;
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getParameterCount() {
+        return slots.length;
+    }
+
+    /**
+     * @return A pattern matching the whole template, with one capturing group per slot
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return The amount of {@code '/'} characters in the literal segments
+     */
+    public int getSlashCount() {
+        return slashCount;
+    }
+
+    private UrlTemplate(String source, String[] literals, Pattern[] slots, Pattern pattern) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        this.pattern = pattern;
+
+        int length = 0, slashes = 0;
+        for (String literal : literals) {
+            length += literal.length();
+            for (int i = 0; i < literal.length(); i++)
+                if (literal.charAt(i) == '/')
+                    slashes++;
+        }
+        this.literalLength = length;
+        this.slashCount = slashes;
+    }
+
+    /**
+     * @param extension    The url extension, containing {@code %s} for every parameter; {@code %%} stands for a literal {@code %}
+     * @param regExpGroups The regular expression of every parameter; parameters without one accept anything
+     * @return The compiled template
+     * @throws IllegalArgumentException If the extension contains any other format specifier
+     */
+    public static UrlTemplate compile(String extension, @Language("RegExp") String... regExpGroups) throws IllegalArgumentException {
+        final List<String> literals = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+
+        for (int i = 0; i < extension.length(); i++) {
+            final char c = extension.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (++i >= extension.length())
+                throw new IllegalArgumentException("Incomplete format specifier in " + extension);
+            switch (extension.charAt(i)) {
+                case '%':
+                    literal.append('%');
+                    break;
+                case 's':
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unsupported format specifier %%%s in %s",
+                            extension.charAt(i), extension));
+            }
+        }
+        literals.add(literal.toString());
+
+        final Pattern[] slots = new Pattern[literals.size() - 1];
+        final StringBuilder pattern = new StringBuilder(Pattern.quote(literals.get(0)));
+        for (int i = 0; i < slots.length; i++) {
+            final boolean constrained = regExpGroups != null && i < regExpGroups.length;
+            slots[i] = constrained ? Pattern.compile(regExpGroups[i]) : ANY;
+            pattern.append('(')
+                    .append(slots[i].pattern())
+                    .append(')')
+                    .append(Pattern.quote(literals.get(i + 1)));
+        }
+
+        return new UrlTemplate(extension, literals.toArray(new String[0]), slots, Pattern.compile(pattern.toString()));
+    }
+
+    /**
+     * Fills the parameter slots with the given arguments.
+     *
+     * @param prefix The prefix to prepend, such as the url base; may be {@code null}
+     * @param args   The parameter values
+     * @return The completed url
+     * @throws IllegalArgumentException If the argument count is wrong or an argument does not fit its slot
+     */
+    public String complete(@Nullable String prefix, Object... args) throws IllegalArgumentException {
+        if (args.length != slots.length)
+            throw new IllegalArgumentException(String.format("Invalid argument count; expected %d but got %d", slots.length, args.length));
+        if (slots.length == 0)
+            return prefix == null ? literals[0] : prefix + literals[0];
+
+        final String[] values = new String[args.length];
+        int length = literalLength + (prefix == null ? 0 : prefix.length());
+        for (int i = 0; i < args.length; i++) {
+            values[i] = String.valueOf(args[i]);
+            if (slots[i] != ANY && !slots[i].matcher(values[i]).matches())
+                throw new IllegalArgumentException(String.format("Argument %d '%s' does not match %s", i, values[i], slots[i]));
+            length += values[i].length();
+        }
+
+        final StringBuilder sb = new StringBuilder(length);
+        if (prefix != null)
+            sb.append(prefix);
+        sb.append(literals[0]);
+        for (int i = 0; i < values.length; i++)
+            sb.append(values[i]).append(literals[i + 1]);
+        return sb.toString();
+    }
+
+    public boolean matches(String path) {
+        if (slots.length == 0)
+            return literals[0].equals(path);
+        return path.length() >= literalLength
+                && path.startsWith(literals[0])
+                && pattern.matcher(path).matches();
+    }
+
+    /**
+     * @param path The path to match
+     * @return The slot values, or {@code null} if the path does not match this template
+     */
+    public @Nullable String[] match(String path) {
+        if (slots.length == 0)
+            return literals[0].equals(path) ? new String[0] : null;
+        if (path.length() < literalLength || !path.startsWith(literals[0]))
+            return null;
+
+        final Matcher matcher = pattern.matcher(path);
+        if (!matcher.matches())
+            return null;
+
+        final String[] yields = new String[slots.length];
+        for (int i = 0; i < yields.length; i++)
+            yields[i] = matcher.group(i + 1);
+        return yields;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,104 @@
+package org.comroid.restless.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values with constant relative precision.
+ * <p>
+ * Like an HDR histogram, values are counted in buckets of exponentially growing width,
+ * each split into {@value #SUB_BUCKETS} linear sub-buckets,
+ * so that any recorded value is reported with an error of at most {@code 1/}{@value #SUB_BUCKETS}.
+ * Memory use is fixed, regardless of the amount and range of recorded values.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKETS * (64 - SUB_BUCKET_BITS));
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong(0);
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        final long count = getCount();
+        return count == 0 ? 0 : (double) getTotal() / count;
+    }
+
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        total.add(value);
+
+        long prev;
+        while (value > (prev = max.get()) && !max.compareAndSet(prev, value)) ;
+    }
+
+    /**
+     * @param percentile The percentile between {@code 0} and {@code 1}
+     * @return The approximated value at the percentile; {@code 0} if nothing was recorded
+     */
+    public long valueAtPercentile(double percentile) {
+        final long count = getCount();
+        if (count == 0)
+            return 0;
+
+        final long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, percentile)) * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(getMax(), valueOf(i));
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++)
+            counts.set(i, 0);
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @return The highest value that is counted into the bucket at the given index
+     */
+    static long valueOf(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram{count=%d, mean=%.1f, p50=%d, p99=%d, max=%d}",
+                getCount(), getMean(), valueAtPercentile(0.5), valueAtPercentile(0.99), getMax());
+    }
+}
@@ -0,0 +1,113 @@
+package org.comroid.restless.metrics;
+
+import org.comroid.restless.endpoint.AccessibleEndpoint;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps all metrics in memory: a {@link LatencyHistogram} per stage, overall and per endpoint,
+ * response counts per status code, failure counts and the ratelimiter queue depth.
+ */
+public final class MemoryRestMetrics implements RestMetrics {
+    private final Map<Stage, LatencyHistogram> histograms = histograms();
+    private final Map<AccessibleEndpoint, Map<Stage, LatencyHistogram>> endpointHistograms = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicInteger queueDepth = new AtomicInteger(0);
+    private final AtomicInteger maxQueueDepth = new AtomicInteger(0);
+
+    public LatencyHistogram getHistogram(Stage stage) {
+        return histograms.get(stage);
+    }
+
+    /**
+     * @return The histogram of the endpoint; an empty histogram if the endpoint was never accessed
+     */
+    public LatencyHistogram getHistogram(AccessibleEndpoint endpoint, Stage stage) {
+        final Map<Stage, LatencyHistogram> map = endpointHistograms.get(endpoint);
+        return map == null ? new LatencyHistogram() : map.get(stage);
+    }
+
+    public Set<AccessibleEndpoint> getEndpoints() {
+        return Collections.unmodifiableSet(endpointHistograms.keySet());
+    }
+
+    /**
+     * @return A sorted snapshot of the response counts by status code
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        final Map<Integer, Long> yield = new TreeMap<>();
+        statusCounts.forEach((code, count) -> yield.put(code, count.sum()));
+        return Collections.unmodifiableMap(yield);
+    }
+
+    public long getStatusCount(int statusCode) {
+        final LongAdder count = statusCounts.get(statusCode);
+        return count == null ? 0 : count.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return The most recently observed ratelimiter queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    MemoryRestMetrics() {
+    }
+
+    private static Map<Stage, LatencyHistogram> histograms() {
+        final Map<Stage, LatencyHistogram> map = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values())
+            map.put(stage, new LatencyHistogram());
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public void recordLatency(AccessibleEndpoint endpoint, Stage stage, long nanos) {
+        histograms.get(stage).record(nanos);
+        endpointHistograms.computeIfAbsent(endpoint, key -> histograms())
+                .get(stage)
+                .record(nanos);
+    }
+
+    @Override
+    public void recordStatus(AccessibleEndpoint endpoint, int statusCode) {
+        statusCounts.computeIfAbsent(statusCode, key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void recordFailure(AccessibleEndpoint endpoint, Throwable error) {
+        failures.increment();
+    }
+
+    @Override
+    public void recordQueueDepth(int depth) {
+        queueDepth.set(depth);
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        endpointHistograms.clear();
+        statusCounts.clear();
+        failures.reset();
+        queueDepth.set(0);
+        maxQueueDepth.set(0);
+    }
+}
@@ -0,0 +1,88 @@
+package org.comroid.restless.metrics;
+
+import org.comroid.restless.REST;
+import org.comroid.restless.endpoint.AccessibleEndpoint;
+
+/**
+ * Receives timings and outcomes of the stages a {@link REST.Request} passes through.
+ * Implementations are called from request threads and must be thread safe and non-blocking.
+ *
+ * @see REST#setMetrics(RestMetrics)
+ */
+public interface RestMetrics {
+    RestMetrics NONE = new Support.None();
+
+    static MemoryRestMetrics memory() {
+        return new MemoryRestMetrics();
+    }
+
+    /**
+     * @param endpoint The endpoint that was accessed
+     * @param stage    The stage that was passed
+     * @param nanos    The time spent in the stage, in nanoseconds
+     */
+    void recordLatency(AccessibleEndpoint endpoint, Stage stage, long nanos);
+
+    /**
+     * Called for every response received from the network, including responses that are retried.
+     *
+     * @param endpoint   The endpoint that was accessed
+     * @param statusCode The status code of the response
+     */
+    void recordStatus(AccessibleEndpoint endpoint, int statusCode);
+
+    /**
+     * Called for every network call that failed without a response.
+     *
+     * @param endpoint The endpoint that was accessed
+     * @param error    The cause of the failure
+     */
+    void recordFailure(AccessibleEndpoint endpoint, Throwable error);
+
+    /**
+     * @param depth The amount of requests waiting in the ratelimiter, observed when a request entered it
+     */
+    void recordQueueDepth(int depth);
+
+    enum Stage {
+        /**
+         * Time spent waiting for the ratelimiter.
+         */
+        QUEUED,
+        /**
+         * Time from leaving the ratelimiter until the HttpAdapter provided a response.
+         */
+        NETWORK,
+        /**
+         * Time spent parsing the body and producing the result of {@code execute$deserialize} or {@code execute$autoCache}.
+         */
+        DESERIALIZE,
+        /**
+         * Time from executing a request until its response was handed to the caller, including retries and cache lookups.
+         */
+        TOTAL
+    }
+
+    final class Support {
+        private static final class None implements RestMetrics {
+            private None() {
+            }
+
+            @Override
+            public void recordLatency(AccessibleEndpoint endpoint, Stage stage, long nanos) {
+            }
+
+            @Override
+            public void recordStatus(AccessibleEndpoint endpoint, int statusCode) {
+            }
+
+            @Override
+            public void recordFailure(AccessibleEndpoint endpoint, Throwable error) {
+            }
+
+            @Override
+            public void recordQueueDepth(int depth) {
+            }
+        }
+    }
+}
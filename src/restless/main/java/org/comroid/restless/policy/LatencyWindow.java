@@ -0,0 +1,40 @@
+package org.comroid.restless.policy;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent latencies of an endpoint to estimate its percentiles.
+ */
+public final class LatencyWindow {
+    private static final int MIN_SAMPLES = 16;
+    private final long[] samples;
+    private int index = 0;
+    private int count = 0;
+
+    public LatencyWindow(int size) {
+        this.samples = new long[size];
+    }
+
+    public synchronized void record(long millis) {
+        samples[index] = millis;
+        index = (index + 1) % samples.length;
+        if (count < samples.length)
+            count++;
+    }
+
+    /**
+     * @param percentile The percentile between {@code 0} and {@code 1}
+     * @return The latency in milliseconds; {@code -1} if there are not enough samples yet
+     */
+    public long percentile(double percentile) {
+        final long[] sorted;
+        synchronized (this) {
+            if (count < Math.min(MIN_SAMPLES, samples.length))
+                return -1;
+            sorted = Arrays.copyOf(samples, count);
+        }
+
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))];
+    }
+}
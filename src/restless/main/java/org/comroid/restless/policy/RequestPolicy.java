@@ -0,0 +1,185 @@
+package org.comroid.restless.policy;
+
+import org.comroid.restless.REST;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.concurrent.*;
+
+/**
+ * Describes how a {@link REST.Request} is retried, bounded and hedged.
+ * Instances are immutable; every {@code with}-method returns a modified copy.
+ * <p>
+ * Every attempt passes the {@linkplain org.comroid.restless.server.Ratelimiter ratelimiter} again.
+ *
+ * @see REST#setRequestPolicy(RequestPolicy)
+ * @see REST.Request#policy(RequestPolicy)
+ */
+public final class RequestPolicy {
+    /**
+     * Sends every request exactly once, without deadline.
+     */
+    public static final RequestPolicy NONE = new RequestPolicy(0, 0, 0, 0, 0);
+    private final int maxRetries;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final long timeout;
+    private final double hedgePercentile;
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * @return The time in milliseconds after which a request fails with a {@link TimeoutException}; {@code 0} if unbounded
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return The latency percentile after which an idempotent request is sent a second time; {@code 0} if disabled
+     */
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public boolean isHedging() {
+        return hedgePercentile > 0;
+    }
+
+    private RequestPolicy(int maxRetries, long initialBackoff, long maxBackoff, long timeout, double hedgePercentile) {
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.timeout = timeout;
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    /**
+     * Creates a policy that retries connect errors and server errors with exponential backoff and full jitter.
+     *
+     * @param maxRetries     The maximum amount of retries after the first attempt
+     * @param initialBackoff The upper bound of the first backoff
+     * @param maxBackoff     The upper bound of any backoff
+     * @param unit           The unit of both backoff parameters
+     * @return The new policy
+     */
+    public static RequestPolicy retrying(int maxRetries, long initialBackoff, long maxBackoff, TimeUnit unit) {
+        return NONE.withRetries(maxRetries, initialBackoff, maxBackoff, unit);
+    }
+
+    public RequestPolicy withRetries(int maxRetries, long initialBackoff, long maxBackoff, TimeUnit unit) {
+        if (maxRetries < 0)
+            throw new IllegalArgumentException("maxRetries must not be negative");
+        return new RequestPolicy(maxRetries, unit.toMillis(initialBackoff), unit.toMillis(maxBackoff), timeout, hedgePercentile);
+    }
+
+    public RequestPolicy withTimeout(long timeout, TimeUnit unit) {
+        return new RequestPolicy(maxRetries, initialBackoff, maxBackoff, unit.toMillis(timeout), hedgePercentile);
+    }
+
+    /**
+     * @param percentile The latency percentile of the endpoint, between {@code 0} and {@code 1}, after which a hedge is sent
+     * @return The modified policy
+     */
+    public RequestPolicy withHedging(double percentile) {
+        if (percentile < 0 || percentile >= 1)
+            throw new IllegalArgumentException("Percentile must be in range [0, 1)");
+        return new RequestPolicy(maxRetries, initialBackoff, maxBackoff, timeout, percentile);
+    }
+
+    /**
+     * Computes the backoff before the given retry, with full jitter.
+     *
+     * @param retry The number of the retry, starting at {@code 0}
+     * @return The backoff in milliseconds
+     */
+    public long backoff(int retry) {
+        final long cap = Math.min(maxBackoff, initialBackoff << Math.min(retry, 30));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     * Whether a response warrants another attempt.
+     *
+     * @param method The request method
+     * @param status The response status code
+     * @return Whether the response is a server error of an idempotent request
+     */
+    public boolean isRetryable(REST.Method method, int status) {
+        return status >= 500 && status != 501 && status != 505 && isIdempotent(method);
+    }
+
+    /**
+     * Whether a failure warrants another attempt.
+     * Failures of idempotent requests are retried on any I/O error;
+     * others only if the connection could not be established, so that they have not been sent.
+     *
+     * @param method  The request method
+     * @param failure The failure
+     * @return Whether the failure is retryable
+     */
+    public boolean isRetryable(REST.Method method, Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                    || cause instanceof UnknownHostException
+                    || cause instanceof NoRouteToHostException)
+                return true;
+            if (cause instanceof IOException)
+                return isIdempotent(method);
+        }
+        return false;
+    }
+
+    public static boolean isIdempotent(REST.Method method) {
+        switch (method) {
+            case GET:
+            case HEAD:
+            case PUT:
+            case DELETE:
+            case OPTIONS:
+            case TRACE:
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RequestPolicy{maxRetries=%d, backoff=%d..%dms, timeout=%dms, hedgePercentile=%s}",
+                maxRetries, initialBackoff, maxBackoff, timeout, hedgePercentile);
+    }
+
+    public static final class Support {
+        /**
+         * Schedules backoffs, hedges and timeouts; the scheduled tasks only hand work to the request executor.
+         */
+        public static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, task -> {
+                final Thread thread = new Thread(task, "restless-request-policy");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // timeouts of completed requests are cancelled; drop them instead of keeping them queued until they expire
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+
+        private Support() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
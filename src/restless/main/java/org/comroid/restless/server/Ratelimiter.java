@@ -37,6 +37,13 @@ public interface Ratelimiter extends BiFunction<RatelimitDefinition, REST.Reques
     @Override
     CompletableFuture<REST.Request> apply(RatelimitDefinition restEndpoint, REST.Request request);
 
+    /**
+     * @return The amount of requests that are currently waiting for execution
+     */
+    default int getQueueDepth() {
+        return 0;
+    }
+
     final class Support {
         private static final Logger logger = LogManager.getLogger();
 
@@ -110,6 +117,11 @@ public interface Ratelimiter extends BiFunction<RatelimitDefinition, REST.Reques
                 return upcoming.computeIfAbsent(endpoint, (key) -> new LinkedBlockingQueue<>());
             }
 
+            @Override
+            public int getQueueDepth() {
+                return currentQueueSize();
+            }
+
             private int currentQueueSize() {
                 return upcoming.values()
                         .stream()
@@ -0,0 +1,232 @@
+package org.comroid.restless.socket;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Parameters of the {@code permessage-deflate} WebSocket extension, as of RFC 7692.
+ * <p>
+ * An instance is either the configuration of one side, or the parameters agreed on during the handshake.
+ * Messages smaller than the threshold are sent uncompressed.
+ * Instances are immutable; every {@code with}-method returns a modified copy.
+ */
+public final class PerMessageDeflate {
+    public static final String EXTENSION_NAME = "permessage-deflate";
+    public static final int MIN_WINDOW_BITS = 8;
+    public static final int MAX_WINDOW_BITS = 15;
+    public static final int DEFAULT_THRESHOLD = 1024;
+    public static final int DEFAULT_MAX_MESSAGE_SIZE = 8 * 1024 * 1024;
+    public static final PerMessageDeflate DISABLED = new PerMessageDeflate(false, Integer.MAX_VALUE, DEFAULT_MAX_MESSAGE_SIZE, false, false, false, MAX_WINDOW_BITS);
+    private final boolean enabled;
+    private final int threshold;
+    private final int maxMessageSize;
+    private final boolean serverNoContextTakeover;
+    private final boolean clientNoContextTakeover;
+    private final boolean serverMaxWindowBitsOffered;
+    private final int clientMaxWindowBits;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The minimum size of a message in bytes for it to be compressed
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return The maximum size of a received message in bytes, after decompression
+     */
+    public int getMaxMessageSize() {
+        return maxMessageSize;
+    }
+
+    /**
+     * @return Whether the server resets its compression context after every message
+     */
+    public boolean isServerNoContextTakeover() {
+        return serverNoContextTakeover;
+    }
+
+    /**
+     * @return Whether the client resets its compression context after every message
+     */
+    public boolean isClientNoContextTakeover() {
+        return clientNoContextTakeover;
+    }
+
+    public int getClientMaxWindowBits() {
+        return clientMaxWindowBits;
+    }
+
+    private PerMessageDeflate(
+            boolean enabled,
+            int threshold,
+            int maxMessageSize,
+            boolean serverNoContextTakeover,
+            boolean clientNoContextTakeover,
+            boolean serverMaxWindowBitsOffered,
+            int clientMaxWindowBits
+    ) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.maxMessageSize = maxMessageSize;
+        this.serverNoContextTakeover = serverNoContextTakeover;
+        this.clientNoContextTakeover = clientNoContextTakeover;
+        this.serverMaxWindowBitsOffered = serverMaxWindowBitsOffered;
+        this.clientMaxWindowBits = clientMaxWindowBits;
+    }
+
+    /**
+     * @return Compression with context takeover on both sides, full windows, the default threshold and message size limit
+     */
+    public static PerMessageDeflate standard() {
+        return new PerMessageDeflate(true, DEFAULT_THRESHOLD, DEFAULT_MAX_MESSAGE_SIZE, false, false, false, MAX_WINDOW_BITS);
+    }
+
+    public PerMessageDeflate withThreshold(int threshold) {
+        return new PerMessageDeflate(enabled, threshold, maxMessageSize, serverNoContextTakeover, clientNoContextTakeover, serverMaxWindowBitsOffered, clientMaxWindowBits);
+    }
+
+    /**
+     * @param maxMessageSize The maximum size of a received message in bytes, after decompression
+     */
+    public PerMessageDeflate withMaxMessageSize(int maxMessageSize) {
+        if (maxMessageSize <= 0)
+            throw new IllegalArgumentException("Invalid message size limit: " + maxMessageSize);
+        return new PerMessageDeflate(enabled, threshold, maxMessageSize, serverNoContextTakeover, clientNoContextTakeover, serverMaxWindowBitsOffered, clientMaxWindowBits);
+    }
+
+    public PerMessageDeflate withServerNoContextTakeover(boolean serverNoContextTakeover) {
+        return new PerMessageDeflate(enabled, threshold, maxMessageSize, serverNoContextTakeover, clientNoContextTakeover, serverMaxWindowBitsOffered, clientMaxWindowBits);
+    }
+
+    public PerMessageDeflate withClientNoContextTakeover(boolean clientNoContextTakeover) {
+        return new PerMessageDeflate(enabled, threshold, maxMessageSize, serverNoContextTakeover, clientNoContextTakeover, serverMaxWindowBitsOffered, clientMaxWindowBits);
+    }
+
+    /**
+     * @param clientMaxWindowBits The LZ77 window size the client is asked to compress with, if it supports limiting it
+     */
+    public PerMessageDeflate withClientMaxWindowBits(int clientMaxWindowBits) {
+        return new PerMessageDeflate(enabled, threshold, maxMessageSize, serverNoContextTakeover, clientNoContextTakeover, serverMaxWindowBitsOffered, checkWindowBits(clientMaxWindowBits));
+    }
+
+    /**
+     * Agrees on the parameters of the first acceptable offer.
+     * <p>
+     * Offers that limit the server window below {@value #MAX_WINDOW_BITS} bits are declined,
+     * as {@link java.util.zip.Deflater} always compresses with the full window.
+     *
+     * @param extensions The {@code Sec-WebSocket-Extensions} request header
+     * @return The agreed parameters, or {@code null} if no offer is acceptable
+     */
+    public @Nullable PerMessageDeflate negotiate(@Nullable String extensions) {
+        if (!enabled || extensions == null)
+            return null;
+
+        for (String offer : extensions.split(",")) {
+            final PerMessageDeflate agreed = accept(offer);
+            if (agreed != null)
+                return agreed;
+        }
+        return null;
+    }
+
+    private @Nullable PerMessageDeflate accept(String offer) {
+        final String[] params = offer.split(";");
+        if (!params[0].trim().equalsIgnoreCase(EXTENSION_NAME))
+            return null;
+
+        boolean serverNoContextTakeover = this.serverNoContextTakeover;
+        boolean clientNoContextTakeover = this.clientNoContextTakeover;
+        boolean serverMaxWindowBitsOffered = false;
+        int clientMaxWindowBits = MAX_WINDOW_BITS;
+        final Set<String> seen = new HashSet<>();
+
+        for (int i = 1; i < params.length; i++) {
+            final String param = params[i].trim();
+            final int eq = param.indexOf('=');
+            final String name = (eq == -1 ? param : param.substring(0, eq)).trim().toLowerCase();
+            final String value = eq == -1 ? null : unquote(param.substring(eq + 1).trim());
+
+            if (!seen.add(name))
+                return null; // duplicate parameters invalidate the offer
+            switch (name) {
+                case "server_no_context_takeover":
+                    if (value != null)
+                        return null;
+                    serverNoContextTakeover = true;
+                    break;
+                case "client_no_context_takeover":
+                    if (value != null)
+                        return null;
+                    clientNoContextTakeover = true;
+                    break;
+                case "server_max_window_bits":
+                    if (parseWindowBits(value) != MAX_WINDOW_BITS)
+                        return null;
+                    serverMaxWindowBitsOffered = true;
+                    break;
+                case "client_max_window_bits":
+                    final int offered = value == null ? MAX_WINDOW_BITS : parseWindowBits(value);
+                    if (offered == -1)
+                        return null;
+                    // the client window can only be limited if the client supports it
+                    clientMaxWindowBits = Math.min(offered, this.clientMaxWindowBits);
+                    break;
+                default:
+                    return null;
+            }
+        }
+
+        return new PerMessageDeflate(true, threshold, maxMessageSize, serverNoContextTakeover, clientNoContextTakeover, serverMaxWindowBitsOffered, clientMaxWindowBits);
+    }
+
+    /**
+     * @return The agreed parameters as value of the {@code Sec-WebSocket-Extensions} response header
+     */
+    public String toHeaderValue() {
+        final StringBuilder sb = new StringBuilder(EXTENSION_NAME);
+        if (serverNoContextTakeover)
+            sb.append("; server_no_context_takeover");
+        if (clientNoContextTakeover)
+            sb.append("; client_no_context_takeover");
+        if (serverMaxWindowBitsOffered)
+            sb.append("; server_max_window_bits=").append(MAX_WINDOW_BITS);
+        if (clientMaxWindowBits < MAX_WINDOW_BITS)
+            sb.append("; client_max_window_bits=").append(clientMaxWindowBits);
+        return sb.toString();
+    }
+
+    private static int parseWindowBits(@Nullable String value) {
+        if (value == null || value.isEmpty() || value.length() > 2)
+            return -1;
+        for (int i = 0; i < value.length(); i++)
+            if (!Character.isDigit(value.charAt(i)))
+                return -1;
+        final int bits = Integer.parseInt(value);
+        return bits < MIN_WINDOW_BITS || bits > MAX_WINDOW_BITS ? -1 : bits;
+    }
+
+    private static int checkWindowBits(int bits) {
+        if (bits < MIN_WINDOW_BITS || bits > MAX_WINDOW_BITS)
+            throw new IllegalArgumentException(String.format("Window bits must be within %d and %d: %d", MIN_WINDOW_BITS, MAX_WINDOW_BITS, bits));
+        return bits;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"')
+            return value.substring(1, value.length() - 1);
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return enabled ? String.format("PerMessageDeflate{%s, threshold=%d}", toHeaderValue(), threshold) : "PerMessageDeflate{disabled}";
+    }
+}
@@ -2,12 +2,17 @@ package org.comroid.restless.socket;
 
 import org.comroid.api.Named;
 import org.comroid.api.Rewrapper;
+import org.comroid.uniform.model.Serializable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 public interface WebsocketPacket {
     Type getType();
 
     default Rewrapper<byte[]> getDataBytes() {
-        return () -> getData().ifPresentMap(String::getBytes);
+        return () -> getData().ifPresentMap(str -> str.getBytes(StandardCharsets.UTF_8));
     }
 
     default Rewrapper<String> getData() {
@@ -56,7 +61,7 @@ public interface WebsocketPacket {
 
             @Override
             public Rewrapper<String> getData() {
-                return () -> new String(bytes);
+                return () -> new String(bytes, StandardCharsets.UTF_8);
             }
 
             private Bytes() {
@@ -67,6 +72,34 @@ public interface WebsocketPacket {
         return new Bytes();
     }
 
+    static WebsocketPacket data(final Serializable data) {
+        class Serialized extends Empty {
+            @Override
+            public Rewrapper<byte[]> getDataBytes() {
+                return () -> {
+                    try {
+                        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        data.writeTo(out);
+                        return out.toByteArray();
+                    } catch (IOException e) {
+                        throw new RuntimeException("Could not serialize packet data", e);
+                    }
+                };
+            }
+
+            @Override
+            public Rewrapper<String> getData() {
+                return data::toSerializedString;
+            }
+
+            private Serialized() {
+                super(Type.DATA);
+            }
+        }
+
+        return new Serialized();
+    }
+
     static WebsocketPacket error(final Throwable error) {
         class Error extends Empty {
             @Override
@@ -0,0 +1,151 @@
+package org.comroid.restless.adapter.java;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.comroid.api.Polyfill;
+import org.comroid.restless.HttpAdapter;
+import org.comroid.restless.REST;
+import org.comroid.restless.socket.Websocket;
+import org.comroid.uniform.SerializationAdapter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * An HttpAdapter that performs every request as a plain blocking {@link HttpClient#send} on a thread of its own.
+ * <p>
+ * When the runtime supports virtual threads, every request runs on a new virtual thread;
+ * otherwise daemon platform threads are used.
+ * Cancelling the returned future interrupts its thread, and {@linkplain #close() closing} the adapter
+ * cancels all requests that are still in flight.
+ * Only on JDK 16 and later does the interrupt abort the exchange; on JDK 11 to 15 {@link HttpClient#send}
+ * merely stops waiting, and the exchange runs to completion in the background.
+ */
+public final class BlockingHttpAdapter implements HttpAdapter, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger();
+    private static final @Nullable ThreadFactory VIRTUAL_THREADS = virtualThreadFactory();
+    private final HttpClient httpClient;
+    private final ThreadFactory threadFactory;
+    private final Set<Thread> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed = false;
+
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public BlockingHttpAdapter() {
+        this(VIRTUAL_THREADS != null ? VIRTUAL_THREADS : platformThreadFactory());
+    }
+
+    public BlockingHttpAdapter(ThreadFactory threadFactory) {
+        this.httpClient = HttpClient.newBuilder().build();
+        this.threadFactory = threadFactory;
+    }
+
+    private static @Nullable ThreadFactory virtualThreadFactory() {
+        try {
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "rest-virtual-", 0L);
+
+            final ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            logger.debug("Virtual threads are available");
+            return factory;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            logger.trace("Virtual threads are not available", e);
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        final AtomicInteger counter = new AtomicInteger(0);
+        return task -> {
+            final Thread thread = new Thread(task, "rest-blocking-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public CompletableFuture<? extends Websocket> createWebSocket(
+            Executor executor,
+            Consumer<Throwable> exceptionHandler,
+            URI uri,
+            REST.Header.List headers,
+            String preferredProtocol
+    ) {
+        return CompletableFuture.completedFuture(new JavaWebsocket(httpClient, executor, exceptionHandler, uri, headers, preferredProtocol));
+    }
+
+    @Override
+    public CompletableFuture<REST.Response> call(REST.Request request) {
+        if (closed)
+            return Polyfill.failedFuture(new IllegalStateException("Adapter is closed"));
+
+        final SerializationAdapter<?, ?, ?> seriLib;
+        final HttpRequest httpRequest;
+        try {
+            seriLib = request.getREST().requireFromContext(SerializationAdapter.class);
+            httpRequest = JavaHttpAdapter.createRequest(request);
+        } catch (Throwable t) {
+            return Polyfill.failedFuture(t);
+        }
+
+        final CompletableFuture<REST.Response> future = new CompletableFuture<>();
+        final Thread thread = threadFactory.newThread(() -> {
+            try {
+                if (future.isDone())
+                    return;
+                final HttpResponse<InputStream> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+                if (!future.complete(JavaHttpAdapter.readResponse(response, seriLib)))
+                    JavaHttpAdapter.discard(response.body());
+            } catch (InterruptedException e) {
+                future.completeExceptionally(new CancellationException("Request was cancelled"));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                inFlight.remove(Thread.currentThread());
+            }
+        });
+
+        inFlight.add(thread);
+        future.whenComplete((response, t) -> {
+            if (future.isCancelled())
+                thread.interrupt();
+        });
+        thread.start();
+
+        if (closed)
+            thread.interrupt();
+        return future;
+    }
+
+    /**
+     * Stops accepting new requests and cancels all requests that are still in flight.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        inFlight.forEach(Thread::interrupt);
+    }
+}
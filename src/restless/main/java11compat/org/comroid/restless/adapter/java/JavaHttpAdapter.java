@@ -2,17 +2,22 @@ package org.comroid.restless.adapter.java;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.comroid.restless.CommonHeaderNames;
 import org.comroid.restless.HttpAdapter;
 import org.comroid.restless.REST;
 import org.comroid.restless.socket.Websocket;
 import org.comroid.uniform.SerializationAdapter;
-import org.comroid.uniform.node.UniNode;
+import org.comroid.uniform.model.Serializable;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
@@ -38,26 +43,61 @@ public final class JavaHttpAdapter implements HttpAdapter {
 
     @Override
     public CompletableFuture<REST.Response> call(REST.Request request) {
+        final SerializationAdapter<?, ?, ?> seriLib = request.getREST().requireFromContext(SerializationAdapter.class);
+
+        // the body is handed over as stream and parsed on first access
+        final CompletableFuture<HttpResponse<InputStream>> exchange = httpClient.sendAsync(createRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+        final CompletableFuture<REST.Response> future = exchange.thenApply(response -> readResponse(response, seriLib));
+        // cancelling aborts the exchange since JDK 16; earlier, the call only ends by its timeout
+        future.whenComplete((response, t) -> {
+            if (future.isCancelled() && !exchange.cancel(true))
+                exchange.thenAccept(abandoned -> discard(abandoned.body()));
+        });
+        return future;
+    }
+
+    static void discard(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            logger.trace("Could not close discarded response body", e);
+        }
+    }
+
+    static HttpRequest createRequest(REST.Request request) {
         final HttpRequest.Builder builder = HttpRequest.newBuilder(request.getEndpoint().getURI());
 
         request.getHeaders().forEach(builder::header);
         final HttpRequest.BodyPublisher publisher = request.getMethod() == REST.Method.GET || request.getBody() == null
                 ? HttpRequest.BodyPublishers.noBody()
-                : HttpRequest.BodyPublishers.ofString(request.getBody().toSerializedString(), StandardCharsets.UTF_8);
+                : HttpRequest.BodyPublishers.ofByteArray(serialize(request.getBody()));
         builder.method(request.getMethod().name(), publisher);
+        if (request.getDeadline() != Long.MAX_VALUE)
+            builder.timeout(Duration.ofMillis(Math.max(1, request.getDeadline() - System.currentTimeMillis())));
 
-        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
-                .thenApply(response -> {
-                    final String body = response.body();
+        return builder.build();
+    }
 
-                    if (body == null)
-                        return new REST.Response(response.statusCode());
+    static REST.Response readResponse(HttpResponse<InputStream> response, SerializationAdapter<?, ?, ?> seriLib) {
+        final REST.Header.List headers = new REST.Header.List();
+        response.headers().map().forEach((name, values) -> values.forEach(value -> headers.add(name, value)));
 
-                    final UniNode data = request.getREST()
-                            .requireFromContext(SerializationAdapter.class)
-                            .createUniNode(body);
+        return new REST.Response(
+                response.statusCode(),
+                response.headers().firstValue(CommonHeaderNames.REQUEST_CONTENT_TYPE).orElse(seriLib.getMimeType()),
+                response.body(),
+                seriLib,
+                headers
+        );
+    }
 
-                    return new REST.Response(response.statusCode(), data);
-                });
+    private static byte[] serialize(Serializable body) {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            body.writeTo(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize request body", e);
+        }
     }
 }
@@ -1,21 +1,47 @@
 package org.comroid.restless.adapter.okhttp.v4;
 
 import okhttp3.*;
+import okio.Buffer;
 import org.comroid.restless.CommonHeaderNames;
 import org.comroid.restless.HttpAdapter;
 import org.comroid.restless.REST;
+import org.comroid.restless.socket.PerMessageDeflate;
 import org.comroid.uniform.SerializationAdapter;
+import org.comroid.uniform.io.UniReader;
+import org.comroid.uniform.model.Serializable;
 import org.comroid.uniform.node.UniNode;
-import org.comroid.util.ReaderUtil;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
+import java.io.*;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public final class OkHttp4Adapter implements HttpAdapter {
-    private final OkHttpClient httpClient = new OkHttpClient.Builder().build();
+    /**
+     * Bodies that cannot be parsed are returned as is if parsing fails within this many bytes.
+     */
+    private static final int MAX_RECORDED_PREFIX = 64 * 1024;
+    private final OkHttpClient httpClient;
+
+    public OkHttp4Adapter() {
+        this(PerMessageDeflate.standard());
+    }
+
+    /**
+     * OkHttp always offers {@code permessage-deflate} with default parameters; only the threshold is applied.
+     *
+     * @param compression The compression of outgoing WebSocket messages
+     */
+    public OkHttp4Adapter(PerMessageDeflate compression) {
+        this.httpClient = new OkHttpClient.Builder()
+                .minWebSocketMessageToCompress(compression.isEnabled() ? compression.getThreshold() : Long.MAX_VALUE)
+                .build();
+    }
 
     @Override
     public CompletableFuture<OkHttp4WebSocket> createWebSocket(Executor executor, Consumer<Throwable> exceptionHandler, URI uri, REST.Header.List headers, String preferredProtocol) {
@@ -24,38 +50,179 @@ public final class OkHttp4Adapter implements HttpAdapter {
 
     @Override
     public CompletableFuture<REST.Response> call(REST.Request request) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                final REST.Method requestMethod = request.getMethod();
-                final String requestBody = request.getBody() != null ? request.getBody().toSerializedString() : null;
-
-                final Request.Builder builder = new Request.Builder().url(request.getEndpoint().getURL());
-
-                final MediaType mediaType = MediaType.parse(request.getHeaders().getFirst(CommonHeaderNames.REQUEST_CONTENT_TYPE));
-                builder.method(requestMethod.name(), requestBody == null ? null : RequestBody.create(mediaType, requestBody));
-
-                request.getHeaders().forEach(header -> builder.addHeader(header.getName(), header.combineValues()));
-
-                final Request kRequest = builder.build();
-                final Call call = httpClient.newCall(kRequest);
-                final Response response = call.execute();
-                final ResponseBody responseBody = response.body();
-                byte[] bytes = responseBody == null ? null : responseBody.bytes();
-
-                try {
-                    UniNode uniNode = request.getREST()
-                            .requireFromContext(SerializationAdapter.class)
-                            .createUniNode(bytes == null ? null : new String(bytes));
-                    return new REST.Response(response.code(), uniNode);
-                } catch (RuntimeException re) {
-                    if (responseBody != null) {
-                        return new REST.Response(response.code(), response.header(CommonHeaderNames.REQUEST_CONTENT_TYPE), ReaderUtil.ofArray(bytes));
-                    }
-                    return new REST.Response(response.code());
+        final CompletableFuture<REST.Response> future = new CompletableFuture<>();
+        final Call call;
+
+        try {
+            call = httpClient.newCall(createRequest(request));
+            if (request.getDeadline() != Long.MAX_VALUE)
+                call.timeout().timeout(Math.max(1, request.getDeadline() - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            future.completeExceptionally(new RuntimeException("Request failed", e));
+            return future;
+        }
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(new RuntimeException("Request failed", e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response it = response) {
+                    future.complete(readResponse(request, it));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
                 }
-            } catch (IOException e) {
-                throw new RuntimeException("Request failed", e);
             }
         });
+        future.whenComplete((response, t) -> {
+            if (future.isCancelled())
+                call.cancel();
+        });
+
+        return future;
+    }
+
+    private static Request createRequest(REST.Request request) throws IOException {
+        final REST.Method requestMethod = request.getMethod();
+        final Serializable requestBody = request.getBody();
+
+        final Request.Builder builder = new Request.Builder().url(request.getEndpoint().getURL());
+
+        final MediaType mediaType = MediaType.parse(request.getHeaders().getFirst(CommonHeaderNames.REQUEST_CONTENT_TYPE));
+        builder.method(requestMethod.name(), requestBody == null ? null : createRequestBody(mediaType, requestBody));
+
+        request.getHeaders().forEach(header -> builder.addHeader(header.getName(), header.combineValues()));
+
+        return builder.build();
+    }
+
+    private static REST.Response readResponse(REST.Request request, Response response) throws IOException {
+        final REST.Header.List headers = new REST.Header.List();
+        for (String name : response.headers().names())
+            headers.add(name, response.headers(name).toArray(new String[0]));
+
+        final ResponseBody responseBody = response.body();
+        if (responseBody == null)
+            return new REST.Response(response.code(), headers);
+
+        final SerializationAdapter<?, ?, ?> seriLib = request.getREST().requireFromContext(SerializationAdapter.class);
+        final MediaType contentType = responseBody.contentType();
+        final Charset charset = contentType == null || contentType.charset() == null ? StandardCharsets.UTF_8 : contentType.charset();
+        final String mimeType = response.header(CommonHeaderNames.REQUEST_CONTENT_TYPE);
+
+        if (!isParseable(seriLib, contentType)) {
+            final byte[] bytes = responseBody.bytes();
+            try {
+                return new REST.Response(response.code(), seriLib.createUniNode(new String(bytes, charset)), headers);
+            } catch (RuntimeException e) {
+                return new REST.Response(response.code(), mimeType, new ByteArrayInputStream(bytes), null, headers);
+            }
+        }
+
+        // the body is handed to the adapter as it arrives; its beginning is kept to return it as is if it cannot be parsed
+        final RecordingInputStream recording = new RecordingInputStream(responseBody.byteStream(), MAX_RECORDED_PREFIX);
+        try {
+            final PushbackInputStream in = new PushbackInputStream(recording, 1);
+            final int first = in.read();
+            if (first == -1) {
+                responseBody.close();
+                return new REST.Response(response.code(), seriLib.createUniNode(""), headers);
+            }
+            in.unread(first);
+
+            final UniNode uniNode;
+            // the adapter reads the bytes directly, without decoding them into a String first
+            try (UniReader reader = charset.equals(StandardCharsets.UTF_8)
+                    ? seriLib.createReader(in)
+                    : seriLib.createReader(new InputStreamReader(in, charset))) {
+                uniNode = reader.readNode();
+            }
+            responseBody.close();
+            return new REST.Response(response.code(), uniNode, headers);
+        } catch (RuntimeException | IOException e) {
+            final InputStream raw = recording.replay();
+            if (raw == null) {
+                responseBody.close();
+                throw new IOException("Could not parse response body", e);
+            }
+            return new REST.Response(response.code(), mimeType, raw, null, headers);
+        }
+    }
+
+    private static boolean isParseable(SerializationAdapter<?, ?, ?> seriLib, MediaType contentType) {
+        return contentType != null
+                && seriLib.getMimeType().equalsIgnoreCase(contentType.type() + '/' + contentType.subtype());
+    }
+
+    private static RequestBody createRequestBody(MediaType mediaType, Serializable body) throws IOException {
+        final Buffer buffer = new Buffer();
+        body.writeTo(buffer.outputStream());
+        return RequestBody.create(mediaType, buffer.readByteString());
+    }
+
+    /**
+     * Keeps the bytes read from a stream until a limit is exceeded, so that they can be read again.
+     * Closing this stream has no effect; the underlying stream is closed by the adapter or by the receiver of the replay.
+     */
+    private static final class RecordingInputStream extends FilterInputStream {
+        private final int limit;
+        private @Nullable ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+
+        private RecordingInputStream(InputStream in, int limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        /**
+         * @return The complete stream from its first byte, or {@code null} if more than the limit was read already
+         */
+        private @Nullable InputStream replay() {
+            if (recorded == null)
+                return null;
+            return new SequenceInputStream(new ByteArrayInputStream(recorded.toByteArray()), in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = in.read();
+            if (b != -1)
+                record(new byte[]{(byte) b}, 0, 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = in.read(b, off, len);
+            if (read > 0)
+                record(b, off, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            final int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void record(byte[] b, int off, int len) {
+            if (recorded == null)
+                return;
+            if (recorded.size() + len > limit)
+                recorded = null;
+            else recorded.write(b, off, len);
+        }
     }
 }
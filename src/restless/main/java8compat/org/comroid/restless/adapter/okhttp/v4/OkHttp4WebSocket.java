@@ -70,7 +70,7 @@ public final class OkHttp4WebSocket implements Websocket {
 
         final Request.Builder initBuilder = new Request.Builder().url(uri.toString());
         if (preferredProtocol != null)
-            headers.add(CommonHeaderNames.WEBSOCKET_SUBPROTOCOL, preferredProtocol);
+            initBuilder.header(CommonHeaderNames.WEBSOCKET_SUBPROTOCOL, preferredProtocol);
         headers.forEach((name, value) -> {
             try {
                 initBuilder.addHeader(name, value);
@@ -0,0 +1,134 @@
+package org.comroid.test.restless;
+
+import org.comroid.api.ContextualProvider;
+import org.comroid.restless.HTTPStatusCodes;
+import org.comroid.restless.HttpAdapter;
+import org.comroid.restless.REST;
+import org.comroid.restless.endpoint.AccessibleEndpoint;
+import org.comroid.restless.endpoint.EndpointScope;
+import org.comroid.restless.endpoint.ScopedEndpoint;
+import org.comroid.restless.server.Ratelimiter;
+import org.comroid.restless.socket.Websocket;
+import org.comroid.uniform.node.UniNode;
+import org.comroid.util.StandardValueType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.comroid.uniform.adapter.json.fastjson.FastJSONLib.fastJsonLib;
+
+public class CoalescingTest {
+    private static final String PAYLOAD = "{\"data\":\"coalesced\"}";
+    private final CompletableFuture<REST.Response> pending = new CompletableFuture<>();
+    private final AtomicInteger calls = new AtomicInteger(0);
+    private ScheduledExecutorService executor;
+    private REST rest;
+
+    @Before
+    public void setup() {
+        final HttpAdapter adapter = new HttpAdapter() {
+            @Override
+            public CompletableFuture<? extends Websocket> createWebSocket(Executor executor, Consumer<Throwable> exceptionHandler, URI uri, REST.Header.List headers, String preferredSubprotocol) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<REST.Response> call(REST.Request request) {
+                calls.incrementAndGet();
+                return pending;
+            }
+        };
+
+        executor = Executors.newScheduledThreadPool(2);
+        rest = new REST(ContextualProvider.getRoot().plus("CoalescingTest", adapter, fastJsonLib), executor, Ratelimiter.INSTANT);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 10_000)
+    public void testCoalescedCallersReadBody() throws Exception {
+        final CompletableFuture<REST.Response> first = get().execute();
+        final CompletableFuture<REST.Response> second = get().execute();
+
+        pending.complete(new REST.Response(HTTPStatusCodes.OK, "application/json",
+                new ByteArrayInputStream(PAYLOAD.getBytes(StandardCharsets.UTF_8)), fastJsonLib, new REST.Header.List()));
+        final REST.Response firstResponse = first.get(5, TimeUnit.SECONDS);
+        final REST.Response secondResponse = second.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals("network calls", 1, calls.get());
+        Assert.assertNotSame("own responses", firstResponse, secondResponse);
+        Assert.assertEquals("first body", PAYLOAD, read(firstResponse.getStream()));
+        Assert.assertEquals("second body", PAYLOAD, read(secondResponse.getStream()));
+    }
+
+    @Test(timeout = 10_000)
+    public void testCoalescedCallersOwnParsedBody() throws Exception {
+        final CompletableFuture<REST.Response> first = get().execute();
+        final CompletableFuture<REST.Response> second = get().execute();
+
+        pending.complete(new REST.Response(HTTPStatusCodes.OK, fastJsonLib.parse(PAYLOAD)));
+        final UniNode firstBody = first.get(5, TimeUnit.SECONDS).getBody().get().toUniNode();
+        final UniNode secondBody = second.get(5, TimeUnit.SECONDS).getBody().get().toUniNode();
+
+        Assert.assertNotSame("own bodies", firstBody, secondBody);
+        firstBody.put("data", StandardValueType.STRING, "changed");
+        Assert.assertEquals("unaffected by other callers", "coalesced", secondBody.get("data").asString());
+    }
+
+    @Test(timeout = 10_000)
+    public void testSingleCallerKeepsStream() throws Exception {
+        final CompletableFuture<REST.Response> only = get().execute();
+
+        pending.complete(new REST.Response(HTTPStatusCodes.OK, "application/json",
+                new ByteArrayInputStream(PAYLOAD.getBytes(StandardCharsets.UTF_8)), fastJsonLib, new REST.Header.List()));
+        final REST.Response response = only.get(5, TimeUnit.SECONDS);
+
+        Assert.assertTrue("still streaming", response.isStreaming());
+        Assert.assertEquals("body", PAYLOAD, read(response.getStream()));
+    }
+
+    private REST.Request<?> get() {
+        return rest.request()
+                .method(REST.Method.GET)
+                .endpoint(endpoint("/coalesced"));
+    }
+
+    private static AccessibleEndpoint endpoint(String path) {
+        final EndpointScope scope = new EndpointScope() {
+            @Override
+            public String getUrlExtension() {
+                return path;
+            }
+
+            @Override
+            public String[] getRegExpGroups() {
+                return new String[0];
+            }
+        };
+
+        return new ScopedEndpoint(scope, "http://127.0.0.1");
+    }
+
+    private static String read(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,212 @@
+package org.comroid.test.restless;
+
+import org.comroid.api.ContextualProvider;
+import org.comroid.restless.CommonHeaderNames;
+import org.comroid.restless.HTTPStatusCodes;
+import org.comroid.restless.HttpAdapter;
+import org.comroid.restless.REST;
+import org.comroid.restless.cache.HttpCache;
+import org.comroid.restless.endpoint.AccessibleEndpoint;
+import org.comroid.restless.endpoint.EndpointScope;
+import org.comroid.restless.endpoint.ScopedEndpoint;
+import org.comroid.restless.server.Ratelimiter;
+import org.comroid.restless.socket.Websocket;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static org.comroid.uniform.adapter.json.fastjson.FastJSONLib.fastJsonLib;
+
+public class HttpCacheTest {
+    private static final String PAYLOAD = "{\"data\":\"cached\"}";
+    private final Queue<REST.Response> responses = new ConcurrentLinkedQueue<>();
+    private final List<REST.Header.List> sent = new CopyOnWriteArrayList<>();
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+    private ScheduledExecutorService executor;
+    private HttpCache cache;
+    private REST rest;
+
+    @Before
+    public void setup() {
+        final HttpAdapter adapter = new HttpAdapter() {
+            @Override
+            public CompletableFuture<? extends Websocket> createWebSocket(Executor executor, Consumer<Throwable> exceptionHandler, URI uri, REST.Header.List headers, String preferredSubprotocol) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<REST.Response> call(REST.Request request) {
+                sent.add(request.getHeaders().copy());
+                return CompletableFuture.completedFuture(responses.remove());
+            }
+        };
+
+        executor = Executors.newScheduledThreadPool(2);
+        cache = HttpCache.memory(16);
+        rest = new REST(ContextualProvider.getRoot().plus("HttpCacheTest", adapter, fastJsonLib), executor, Ratelimiter.INSTANT)
+                .setHttpCache(cache);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 10_000)
+    public void testFreshHit() throws Exception {
+        responses.add(ok(headers(CommonHeaderNames.CACHE_CONTROL, "max-age=60")));
+
+        Assert.assertEquals("first body", PAYLOAD, read(get().execute().get(5, TimeUnit.SECONDS)));
+        Assert.assertEquals("second body", PAYLOAD, read(get().execute().get(5, TimeUnit.SECONDS)));
+        Assert.assertEquals("network calls", 1, sent.size());
+    }
+
+    @Test(timeout = 10_000)
+    public void testNotModifiedRefresh() throws Exception {
+        // stale on arrival, as its age already exhausts its lifetime
+        responses.add(ok(headers(CommonHeaderNames.CACHE_CONTROL, "max-age=60", CommonHeaderNames.AGE, "60",
+                CommonHeaderNames.ETAG, "\"v1\"")));
+        read(get().execute().get(5, TimeUnit.SECONDS));
+
+        // a 304 without Cache-Control keeps the stored lifetime
+        responses.add(new REST.Response(HTTPStatusCodes.NOT_MODIFIED, headers("X-Revalidated", "yes")));
+        final REST.Request<?> revalidating = get();
+        final REST.Response refreshed = revalidating.execute().get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals("validator", "\"v1\"", sent.get(1).getFirst(CommonHeaderNames.IF_NONE_MATCH));
+        Assert.assertFalse("validator is not left on the request", revalidating.getHeaders().contains(CommonHeaderNames.IF_NONE_MATCH));
+        Assert.assertEquals("status", HTTPStatusCodes.OK, refreshed.getStatusCode());
+        Assert.assertEquals("merged headers", "yes", refreshed.getHeaders().getFirst("X-Revalidated"));
+        Assert.assertEquals("stored body", PAYLOAD, read(refreshed));
+
+        Assert.assertEquals("fresh after refresh", PAYLOAD, read(get().execute().get(5, TimeUnit.SECONDS)));
+        Assert.assertEquals("network calls", 2, sent.size());
+    }
+
+    @Test(timeout = 10_000)
+    public void testEvictedEntry() throws Exception {
+        responses.add(ok(headers(CommonHeaderNames.CACHE_CONTROL, "no-cache", CommonHeaderNames.ETAG, "\"v1\"")));
+        read(get().execute().get(5, TimeUnit.SECONDS));
+        cache.clear();
+
+        responses.add(ok(headers(CommonHeaderNames.ETAG, "\"v2\"")));
+        Assert.assertEquals("body", PAYLOAD, read(get().execute().get(5, TimeUnit.SECONDS)));
+        Assert.assertFalse("no validator without entry", sent.get(1).contains(CommonHeaderNames.IF_NONE_MATCH));
+    }
+
+    @Test(timeout = 10_000)
+    public void testVaryMismatch() throws Exception {
+        responses.add(ok(headers(CommonHeaderNames.CACHE_CONTROL, "max-age=60", CommonHeaderNames.VARY, CommonHeaderNames.ACCEPTED_LANGUAGE)));
+        read(get().addHeader(CommonHeaderNames.ACCEPTED_LANGUAGE, "en").execute().get(5, TimeUnit.SECONDS));
+
+        responses.add(ok(headers(CommonHeaderNames.CACHE_CONTROL, "max-age=60")));
+        read(get().addHeader(CommonHeaderNames.ACCEPTED_LANGUAGE, "de").execute().get(5, TimeUnit.SECONDS));
+
+        Assert.assertEquals("network calls", 2, sent.size());
+        Assert.assertFalse("not revalidated", sent.get(1).contains(CommonHeaderNames.IF_NONE_MATCH));
+    }
+
+    @Test(timeout = 10_000)
+    public void testAuthorizationSeparation() throws Exception {
+        responses.add(ok(headers(CommonHeaderNames.CACHE_CONTROL, "max-age=60")));
+        read(get().addHeader(CommonHeaderNames.AUTHORIZATION, "Bearer alice").execute().get(5, TimeUnit.SECONDS));
+
+        responses.add(ok(headers(CommonHeaderNames.CACHE_CONTROL, "max-age=60")));
+        read(get().addHeader(CommonHeaderNames.AUTHORIZATION, "Bearer bob").execute().get(5, TimeUnit.SECONDS));
+        read(get().addHeader(CommonHeaderNames.AUTHORIZATION, "Bearer alice").execute().get(5, TimeUnit.SECONDS));
+
+        Assert.assertEquals("network calls", 2, sent.size());
+        Assert.assertNotEquals("keys",
+                HttpCache.keyOf("http://127.0.0.1/cached", headers(CommonHeaderNames.AUTHORIZATION, "Bearer alice")),
+                HttpCache.keyOf("http://127.0.0.1/cached", headers(CommonHeaderNames.AUTHORIZATION, "Bearer bob")));
+    }
+
+    @Test
+    public void testLifetime() {
+        Assert.assertEquals("max-age less age", 40, HttpCache.Entry.maxAge(headers(
+                CommonHeaderNames.CACHE_CONTROL, "max-age=60", CommonHeaderNames.AGE, "20")));
+        Assert.assertEquals("expires relative to date", 3600, HttpCache.Entry.maxAge(headers(
+                CommonHeaderNames.DATE, "Tue, 15 Nov 1994 08:12:31 GMT",
+                CommonHeaderNames.EXPIRES, "Tue, 15 Nov 1994 09:12:31 GMT")));
+        Assert.assertEquals("invalid expires", 0, HttpCache.Entry.maxAge(headers(CommonHeaderNames.EXPIRES, "0")));
+        Assert.assertEquals("max-age overrides expires", 10, HttpCache.Entry.maxAge(headers(
+                CommonHeaderNames.CACHE_CONTROL, "max-age=10", CommonHeaderNames.EXPIRES, "0")));
+        Assert.assertEquals("no-store", -1, HttpCache.Entry.maxAge(headers(CommonHeaderNames.CACHE_CONTROL, "no-store")));
+    }
+
+    @Test
+    public void testFileCache() throws IOException {
+        final HttpCache.Entry entry = new HttpCache.Entry(HTTPStatusCodes.OK, "application/json",
+                headers(CommonHeaderNames.ETAG, "\"v1\""), PAYLOAD.getBytes(StandardCharsets.UTF_8),
+                1000, 60, "\"v1\"", null, Collections.singletonMap("accept-language", null));
+        HttpCache.disk(folder.getRoot()).put("key", entry);
+
+        final HttpCache.Entry stored = HttpCache.memory(4, folder.getRoot()).get("key");
+        Assert.assertNotNull("stored", stored);
+        Assert.assertEquals("max age", 60, stored.getMaxAge());
+        Assert.assertEquals("etag", "\"v1\"", stored.getETag());
+        Assert.assertEquals("selecting headers", entry.getSelectingHeaders(), stored.getSelectingHeaders());
+        Assert.assertEquals("body", PAYLOAD, new String(stored.getBody(), StandardCharsets.UTF_8));
+        Assert.assertNull("other key", HttpCache.disk(folder.getRoot()).get("other"));
+    }
+
+    private REST.Request<?> get() {
+        return rest.request()
+                .method(REST.Method.GET)
+                .endpoint(endpoint("/cached"));
+    }
+
+    private static REST.Response ok(REST.Header.List headers) {
+        return new REST.Response(HTTPStatusCodes.OK, "application/json",
+                new ByteArrayInputStream(PAYLOAD.getBytes(StandardCharsets.UTF_8)), fastJsonLib, headers);
+    }
+
+    private static REST.Header.List headers(String... namesAndValues) {
+        final REST.Header.List headers = new REST.Header.List();
+        for (int i = 0; i < namesAndValues.length; i += 2)
+            headers.add(namesAndValues[i], namesAndValues[i + 1]);
+        return headers;
+    }
+
+    private static AccessibleEndpoint endpoint(String path) {
+        final EndpointScope scope = new EndpointScope() {
+            @Override
+            public String getUrlExtension() {
+                return path;
+            }
+
+            @Override
+            public String[] getRegExpGroups() {
+                return new String[0];
+            }
+        };
+
+        return new ScopedEndpoint(scope, "http://127.0.0.1");
+    }
+
+    private static String read(REST.Response response) throws IOException {
+        final InputStream in = response.getStream();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
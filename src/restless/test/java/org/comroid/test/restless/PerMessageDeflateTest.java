@@ -0,0 +1,77 @@
+package org.comroid.test.restless;
+
+import org.comroid.restless.socket.PerMessageDeflate;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PerMessageDeflateTest {
+    private final PerMessageDeflate standard = PerMessageDeflate.standard();
+
+    @Test
+    public void testPlainOffer() {
+        PerMessageDeflate agreed = standard.negotiate("permessage-deflate");
+
+        Assert.assertNotNull(agreed);
+        Assert.assertEquals("permessage-deflate", agreed.toHeaderValue());
+        Assert.assertFalse(agreed.isServerNoContextTakeover());
+        Assert.assertEquals(PerMessageDeflate.DEFAULT_THRESHOLD, agreed.getThreshold());
+    }
+
+    @Test
+    public void testContextTakeover() {
+        PerMessageDeflate agreed = standard.withClientNoContextTakeover(true)
+                .negotiate("permessage-deflate; server_no_context_takeover");
+
+        Assert.assertNotNull(agreed);
+        Assert.assertTrue(agreed.isServerNoContextTakeover());
+        Assert.assertTrue(agreed.isClientNoContextTakeover());
+        Assert.assertEquals("permessage-deflate; server_no_context_takeover; client_no_context_takeover", agreed.toHeaderValue());
+    }
+
+    @Test
+    public void testWindowBits() {
+        PerMessageDeflate limiting = standard.withClientMaxWindowBits(10);
+
+        Assert.assertEquals("permessage-deflate; client_max_window_bits=10",
+                limiting.negotiate("permessage-deflate; client_max_window_bits").toHeaderValue());
+        Assert.assertEquals("permessage-deflate; client_max_window_bits=9",
+                limiting.negotiate("permessage-deflate; client_max_window_bits=9").toHeaderValue());
+        Assert.assertEquals("client window cannot be limited without support", "permessage-deflate",
+                limiting.negotiate("permessage-deflate").toHeaderValue());
+        Assert.assertEquals("permessage-deflate; server_max_window_bits=15",
+                standard.negotiate("permessage-deflate; server_max_window_bits=\"15\"").toHeaderValue());
+    }
+
+    @Test
+    public void testFallbackOffer() {
+        PerMessageDeflate agreed = standard.negotiate(
+                "permessage-deflate; server_max_window_bits=10, permessage-deflate; client_max_window_bits");
+
+        Assert.assertNotNull(agreed);
+        Assert.assertEquals(PerMessageDeflate.MAX_WINDOW_BITS, agreed.getClientMaxWindowBits());
+    }
+
+    @Test
+    public void testMaxMessageSize() {
+        Assert.assertEquals(PerMessageDeflate.DEFAULT_MAX_MESSAGE_SIZE,
+                standard.negotiate("permessage-deflate").getMaxMessageSize());
+        Assert.assertEquals("limit is kept by the agreed parameters", 4096,
+                standard.withMaxMessageSize(4096).negotiate("permessage-deflate").getMaxMessageSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxMessageSize() {
+        standard.withMaxMessageSize(0);
+    }
+
+    @Test
+    public void testDeclinedOffers() {
+        Assert.assertNull(standard.negotiate(null));
+        Assert.assertNull(standard.negotiate("x-webkit-deflate-frame"));
+        Assert.assertNull(standard.negotiate("permessage-deflate; server_max_window_bits=10"));
+        Assert.assertNull(standard.negotiate("permessage-deflate; client_max_window_bits=16"));
+        Assert.assertNull(standard.negotiate("permessage-deflate; server_no_context_takeover; server_no_context_takeover"));
+        Assert.assertNull(standard.negotiate("permessage-deflate; unknown_parameter"));
+        Assert.assertNull(PerMessageDeflate.DISABLED.negotiate("permessage-deflate"));
+    }
+}
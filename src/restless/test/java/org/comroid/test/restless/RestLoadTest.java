@@ -0,0 +1,206 @@
+package org.comroid.test.restless;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.comroid.api.ContextualProvider;
+import org.comroid.restless.HTTPStatusCodes;
+import org.comroid.restless.HttpAdapter;
+import org.comroid.restless.REST;
+import org.comroid.restless.endpoint.AccessibleEndpoint;
+import org.comroid.restless.endpoint.EndpointScope;
+import org.comroid.restless.endpoint.ScopedEndpoint;
+import org.comroid.restless.metrics.LatencyHistogram;
+import org.comroid.restless.metrics.MemoryRestMetrics;
+import org.comroid.restless.metrics.RestMetrics;
+import org.comroid.restless.server.Ratelimiter;
+import org.comroid.restless.socket.Websocket;
+import org.comroid.restless.socket.WebsocketPacket;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.comroid.uniform.adapter.json.fastjson.FastJSONLib.fastJsonLib;
+
+@RunWith(Parameterized.class)
+public class RestLoadTest {
+    private static final int REQUESTS = 512;
+    private static final Logger logger = LogManager.getLogger();
+    private static StubServer server;
+    private final String adapterClass;
+    private HttpAdapter adapter;
+    private MemoryRestMetrics metrics;
+    private ScheduledExecutorService executor;
+
+    public RestLoadTest(String adapterClass) {
+        this.adapterClass = adapterClass;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> adapters() {
+        return Arrays.asList(new Object[][]{
+                {"org.comroid.restless.adapter.java.JavaHttpAdapter"},
+                {"org.comroid.restless.adapter.java.BlockingHttpAdapter"},
+                {"org.comroid.restless.adapter.okhttp.v4.OkHttp4Adapter"}
+        });
+    }
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        server = StubServer.start()
+                .route(REST.Method.GET, "/fast", StubServer.Route.OK)
+                .route(REST.Method.GET, "/slow", StubServer.Route.OK.withLatency(20, 30).withPayloadSize(64 * 1024))
+                .route(REST.Method.GET, "/limited", StubServer.Route.OK.withRateLimit(50, 49, 1))
+                .route(REST.Method.GET, "/unavailable", StubServer.Route.OK.withStatus(HTTPStatusCodes.SERVICE_UNAVAILABLE))
+                .route(REST.Method.GET, "/socket", StubServer.Route.OK.withLatency(1, 0));
+    }
+
+    @AfterClass
+    public static void stopServer() throws Exception {
+        server.close();
+    }
+
+    @Before
+    public void setup() {
+        try {
+            adapter = (HttpAdapter) Class.forName(adapterClass).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            Assume.assumeNoException("HttpAdapter is not available at runtime", e);
+        }
+        metrics = RestMetrics.memory();
+        executor = Executors.newScheduledThreadPool(8);
+        server.resetCounters();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        if (adapter instanceof AutoCloseable)
+            ((AutoCloseable) adapter).close();
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    @Test(timeout = 60_000)
+    public void testConcurrentRequests() throws Exception {
+        final REST rest = createRest(Ratelimiter.INSTANT);
+        final List<Integer> codes = runConcurrently(rest, endpoint("/slow", -1), REQUESTS);
+
+        Assert.assertEquals("responses", REQUESTS, codes.size());
+        Assert.assertTrue("all successful", codes.stream().allMatch(code -> code == HTTPStatusCodes.OK));
+        Assert.assertEquals("status counts", REQUESTS, metrics.getStatusCount(HTTPStatusCodes.OK));
+        Assert.assertTrue("server saw concurrent requests", server.getMaxConcurrency() > 1);
+        report("slow", RestMetrics.Stage.NETWORK);
+    }
+
+    @Test(timeout = 60_000)
+    public void testThroughput() throws Exception {
+        final REST rest = createRest(Ratelimiter.INSTANT);
+        final long start = System.nanoTime();
+        final List<Integer> codes = runConcurrently(rest, endpoint("/fast", -1), REQUESTS * 4);
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertEquals("responses", REQUESTS * 4, codes.size());
+        Assert.assertEquals("server requests", REQUESTS * 4, server.getRequestCount());
+        logger.info("{}: {} requests in {}ms ({} req/s)", adapterClass, codes.size(), millis, codes.size() * 1000L / Math.max(1, millis));
+        report("fast", RestMetrics.Stage.TOTAL);
+    }
+
+    @Test(timeout = 60_000)
+    public void testRatelimitedPool() throws Exception {
+        final AccessibleEndpoint limited = endpoint("/limited", 50);
+        final REST rest = createRest(Ratelimiter.ofPool(executor, limited));
+        final List<Integer> codes = runConcurrently(rest, limited, REQUESTS / 4);
+
+        Assert.assertEquals("responses", REQUESTS / 4, codes.size());
+        Assert.assertTrue("all successful", codes.stream().allMatch(code -> code == HTTPStatusCodes.OK));
+        Assert.assertEquals("queue samples", REQUESTS / 4, metrics.getHistogram(RestMetrics.Stage.QUEUED).getCount());
+        report("limited", RestMetrics.Stage.QUEUED);
+    }
+
+    @Test(timeout = 60_000)
+    public void testStatusCodes() throws Exception {
+        final REST rest = createRest(Ratelimiter.INSTANT);
+        final List<Integer> codes = runConcurrently(rest, endpoint("/unavailable", -1), 64);
+
+        Assert.assertTrue("all unavailable", codes.stream().allMatch(code -> code == HTTPStatusCodes.SERVICE_UNAVAILABLE));
+        Assert.assertEquals("status counts", 64, metrics.getStatusCount(HTTPStatusCodes.SERVICE_UNAVAILABLE));
+    }
+
+    @Test(timeout = 60_000)
+    public void testWebSocketEcho() throws Exception {
+        final Websocket socket = adapter.createWebSocket(executor, Throwable::printStackTrace, server.getWebSocketUri("/socket"), new REST.Header.List())
+                .get(10, TimeUnit.SECONDS);
+        socket.open().get(10, TimeUnit.SECONDS);
+
+        try {
+            for (int i = 0; i < 32; i++) {
+                final CompletableFuture<WebsocketPacket> next = socket.on(WebsocketPacket.Type.DATA).next();
+                final String message = "message #" + i;
+                socket.send(message);
+
+                Assert.assertEquals("echo", message, next.get(10, TimeUnit.SECONDS).getData().get());
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    private REST createRest(Ratelimiter ratelimiter) {
+        final ContextualProvider context = ContextualProvider.getRoot().plus("RestLoadTest", adapter, fastJsonLib);
+        // identical concurrent requests must each reach the server
+        return new REST(context, executor, ratelimiter)
+                .setMetrics(metrics)
+                .setCoalescingKey(null);
+    }
+
+    private AccessibleEndpoint endpoint(String path, int ratePerSecond) {
+        final EndpointScope scope = new EndpointScope() {
+            @Override
+            public String getUrlExtension() {
+                return path;
+            }
+
+            @Override
+            public String[] getRegExpGroups() {
+                return new String[0];
+            }
+        };
+
+        return new ScopedEndpoint(scope, server.getBaseUri().toString()) {
+            @Override
+            public int getRatePerSecond() {
+                return ratePerSecond;
+            }
+        };
+    }
+
+    private static List<Integer> runConcurrently(REST rest, AccessibleEndpoint endpoint, int count) throws Exception {
+        final List<CompletableFuture<Integer>> futures = IntStream.range(0, count)
+                .mapToObj(x -> rest.request()
+                        .method(REST.Method.GET)
+                        .endpoint(endpoint)
+                        .expect(false, HTTPStatusCodes.OK)
+                        .execute$statusCode())
+                .collect(Collectors.toList());
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(50, TimeUnit.SECONDS);
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    private void report(String name, RestMetrics.Stage stage) {
+        final LatencyHistogram histogram = metrics.getHistogram(stage);
+        logger.info("{} {} {}: p50={}ms p99={}ms p999={}ms max={}ms", adapterClass, name, stage,
+                TimeUnit.NANOSECONDS.toMillis(histogram.valueAtPercentile(0.5)),
+                TimeUnit.NANOSECONDS.toMillis(histogram.valueAtPercentile(0.99)),
+                TimeUnit.NANOSECONDS.toMillis(histogram.valueAtPercentile(0.999)),
+                TimeUnit.NANOSECONDS.toMillis(histogram.getMax()));
+    }
+}
@@ -0,0 +1,329 @@
+package org.comroid.test.restless;
+
+import org.comroid.restless.REST;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An embedded HTTP/1.1 and WebSocket server on the loopback interface, for load testing clients without real upstreams.
+ * <p>
+ * Every path is answered according to its {@link Route}, which scripts latency, status code, headers and payload size.
+ * Unknown paths are answered with {@code 404}.
+ * WebSocket upgrades are accepted on every path; text and binary messages are echoed back after the route's latency.
+ */
+public final class StubServer implements Closeable {
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private final ServerSocket serverSocket;
+    private final ExecutorService workers;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicInteger concurrency = new AtomicInteger(0);
+    private final AtomicInteger maxConcurrency = new AtomicInteger(0);
+
+    public URI getBaseUri() {
+        return URI.create("http://127.0.0.1:" + serverSocket.getLocalPort());
+    }
+
+    public URI getWebSocketUri(String path) {
+        return URI.create("ws://127.0.0.1:" + serverSocket.getLocalPort() + path);
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The highest amount of requests that were handled at the same time
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency.get();
+    }
+
+    private StubServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        this.workers = Executors.newCachedThreadPool(task -> {
+            final Thread thread = new Thread(task, "stub-server-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        workers.execute(this::acceptLoop);
+    }
+
+    public static StubServer start() throws IOException {
+        return new StubServer();
+    }
+
+    public StubServer route(REST.Method method, String path, Route route) {
+        routes.put(method.name() + ' ' + path, route);
+        return this;
+    }
+
+    public void resetCounters() {
+        requestCount.set(0);
+        maxConcurrency.set(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket connection : connections)
+            connection.close();
+        workers.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                workers.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed())
+                    e.printStackTrace();
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                OutputStream out = new BufferedOutputStream(socket.getOutputStream())
+        ) {
+            // keep-alive: serve requests until the client closes the connection
+            while (true) {
+                final String requestLine = readLine(in);
+                if (requestLine == null || requestLine.isEmpty())
+                    return;
+
+                final String[] parts = requestLine.split(" ");
+                final Map<String, String> headers = readHeaders(in);
+                final long contentLength = Long.parseLong(headers.getOrDefault("content-length", "0"));
+                for (long skipped = 0; skipped < contentLength; skipped++)
+                    if (in.read() == -1)
+                        return;
+
+                final String path = parts[1];
+                final Route route = routes.getOrDefault(parts[0] + ' ' + path, Route.NOT_FOUND);
+
+                if ("websocket".equalsIgnoreCase(headers.get("upgrade"))) {
+                    upgrade(headers, route, in, out);
+                    return;
+                }
+
+                respond(route, out);
+                if ("close".equalsIgnoreCase(headers.get("connection")))
+                    return;
+            }
+        } catch (SocketException ignored) {
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private void respond(Route route, OutputStream out) throws IOException, InterruptedException {
+        final int current = concurrency.incrementAndGet();
+        maxConcurrency.accumulateAndGet(current, Math::max);
+        requestCount.incrementAndGet();
+
+        try {
+            route.delay();
+
+            final byte[] body = route.payload();
+            final StringBuilder head = new StringBuilder()
+                    .append("HTTP/1.1 ").append(route.statusCode).append(" Stub\r\n")
+                    .append("Content-Type: application/json\r\n")
+                    .append("Content-Length: ").append(body.length).append("\r\n");
+            route.headers.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+            head.append("\r\n");
+
+            out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+            out.write(body);
+            out.flush();
+        } finally {
+            concurrency.decrementAndGet();
+        }
+    }
+
+    private void upgrade(Map<String, String> headers, Route route, InputStream in, OutputStream out) throws IOException, InterruptedException {
+        final String accept;
+        try {
+            final MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            accept = Base64.getEncoder().encodeToString(sha1.digest(
+                    (headers.get("sec-websocket-key") + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+
+        out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+
+        final DataInputStream data = new DataInputStream(in);
+        while (true) {
+            final int first = data.read();
+            if (first == -1)
+                return;
+            final int opcode = first & 0x0F;
+            final int second = data.readUnsignedByte();
+
+            long length = second & 0x7F;
+            if (length == 126)
+                length = data.readUnsignedShort();
+            else if (length == 127)
+                length = data.readLong();
+
+            final byte[] mask = new byte[4];
+            if ((second & 0x80) != 0)
+                data.readFully(mask);
+            final byte[] payload = new byte[(int) length];
+            data.readFully(payload);
+            for (int i = 0; i < payload.length; i++)
+                payload[i] ^= mask[i % 4];
+
+            switch (opcode) {
+                case 0x8:
+                    writeFrame(out, 0x8, payload);
+                    return;
+                case 0x9:
+                    writeFrame(out, 0xA, payload);
+                    break;
+                case 0xA:
+                    break;
+                default:
+                    requestCount.incrementAndGet();
+                    route.delay();
+                    writeFrame(out, first & 0x8F, payload);
+                    break;
+            }
+        }
+    }
+
+    private static void writeFrame(OutputStream out, int head, byte[] payload) throws IOException {
+        out.write((head & 0x80) == 0 && (head & 0x0F) >= 0x8 ? head | 0x80 : head);
+        if (payload.length < 126)
+            out.write(payload.length);
+        else if (payload.length <= 0xFFFF) {
+            out.write(126);
+            out.write(payload.length >>> 8);
+            out.write(payload.length);
+        } else {
+            out.write(127);
+            new DataOutputStream(out).writeLong(payload.length);
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        final Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            final int colon = line.indexOf(':');
+            if (colon > 0)
+                headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+        return headers;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n')
+                break;
+            if (b != '\r')
+                line.write(b);
+        }
+        if (b == -1 && line.size() == 0)
+            return null;
+        return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Describes how requests to a path are answered.
+     * Instances are immutable; every {@code with}-method returns a modified copy.
+     */
+    public static final class Route {
+        public static final Route OK = new Route(200, 0, 0, 64, Collections.emptyMap());
+        public static final Route NOT_FOUND = new Route(404, 0, 0, 0, Collections.emptyMap());
+        private final int statusCode;
+        private final long latency;
+        private final long jitter;
+        private final int payloadSize;
+        private final Map<String, String> headers;
+
+        private Route(int statusCode, long latency, long jitter, int payloadSize, Map<String, String> headers) {
+            this.statusCode = statusCode;
+            this.latency = latency;
+            this.jitter = jitter;
+            this.payloadSize = payloadSize;
+            this.headers = headers;
+        }
+
+        public Route withStatus(int statusCode) {
+            return new Route(statusCode, latency, jitter, payloadSize, headers);
+        }
+
+        /**
+         * @param latency The base delay before answering, in milliseconds
+         * @param jitter  The maximum random delay added to the base delay, in milliseconds
+         */
+        public Route withLatency(long latency, long jitter) {
+            return new Route(statusCode, latency, jitter, payloadSize, headers);
+        }
+
+        /**
+         * @param payloadSize The approximate size of the JSON response body, in bytes
+         */
+        public Route withPayloadSize(int payloadSize) {
+            return new Route(statusCode, latency, jitter, payloadSize, headers);
+        }
+
+        public Route withHeader(String name, String value) {
+            final Map<String, String> headers = new LinkedHashMap<>(this.headers);
+            headers.put(name, value);
+            return new Route(statusCode, latency, jitter, payloadSize, Collections.unmodifiableMap(headers));
+        }
+
+        public Route withRateLimit(int limit, int remaining, long resetSeconds) {
+            return withHeader("X-RateLimit-Limit", String.valueOf(limit))
+                    .withHeader("X-RateLimit-Remaining", String.valueOf(remaining))
+                    .withHeader("X-RateLimit-Reset-After", String.valueOf(resetSeconds));
+        }
+
+        private void delay() throws InterruptedException {
+            final long millis = latency + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+            if (millis > 0)
+                Thread.sleep(millis);
+        }
+
+        private byte[] payload() {
+            if (payloadSize <= 0)
+                return new byte[0];
+
+            final StringBuilder sb = new StringBuilder(payloadSize + 16).append("{\"data\":\"");
+            while (sb.length() < payloadSize - 2)
+                sb.append('x');
+            return sb.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
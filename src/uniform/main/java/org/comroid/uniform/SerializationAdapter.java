@@ -5,6 +5,7 @@ import org.comroid.api.ContextualProvider;
 import org.comroid.api.Serializer;
 import org.comroid.api.ValueType;
 import org.comroid.api.io.FileHandle;
+import org.comroid.uniform.io.UniReader;
 import org.comroid.uniform.model.DataStructureType;
 import org.comroid.uniform.model.ValueAdapter;
 import org.comroid.uniform.node.UniArrayNode;
@@ -15,6 +16,9 @@ import org.comroid.util.StandardValueType;
 import org.jetbrains.annotations.ApiStatus.NonExtendable;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -77,6 +81,20 @@ public interface SerializationAdapter<BAS, OBJ extends BAS, ARR extends BAS> ext
     @Override
     UniNode parse(@Nullable String data) throws IllegalArgumentException;
 
+    /**
+     * Parses UTF-8 encoded data in lazy mode, where nested nodes are only decoded once they are accessed.
+     * <p>
+     * Adapters that do not support lazy parsing parse the whole document.
+     * Note that in lazy mode, malformed nested data might only be detected on access.
+     *
+     * @param data The data to parse
+     * @return The parsed node
+     * @throws IllegalArgumentException If the data could not be parsed
+     */
+    default UniNode parseLazy(byte[] data) throws IllegalArgumentException {
+        return parse(new String(data, StandardCharsets.UTF_8));
+    }
+
     @NonExtendable
     default UniObjectNode createObjectNode() {
         return createObjectNode(getObjectType().get());
@@ -104,4 +122,88 @@ public interface SerializationAdapter<BAS, OBJ extends BAS, ARR extends BAS> ext
     UniArrayNode createArrayNode(ARR node);
 
     ValueAdapter<Object, Object> createValueAdapter(Object nodeBase, final Predicate<Object> setter);
+
+    /**
+     * Creates a pull reader over UTF-8 encoded data.
+     *
+     * @param in The stream to read from
+     * @return A new reader
+     * @throws IOException If the reader could not be created
+     * @see #createReader(Reader)
+     */
+    default UniReader createReader(InputStream in) throws IOException {
+        return createReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a pull reader over the given data.
+     * <p>
+     * Adapters should override this to read tokens directly from the source;
+     * the default implementation parses the whole document and reads from the resulting node.
+     *
+     * @param in The reader to read from
+     * @return A new reader
+     * @throws IOException If the reader could not be created
+     */
+    default UniReader createReader(Reader in) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        final char[] buf = new char[8192];
+        int read;
+        while ((read = in.read(buf)) != -1)
+            sb.append(buf, 0, read);
+        return UniReader.of(parse(sb.toString()));
+    }
+
+    /**
+     * Writes the serialized form of {@code node} as UTF-8 into the given stream.
+     * The stream is flushed, but not closed.
+     * <p>
+     * Adapters should override this to encode directly from the base node;
+     * the default implementation streams {@link UniNode#toString()} through an encoder.
+     *
+     * @param node The node to serialize
+     * @param out  The stream to write to
+     * @throws IOException If writing to the stream fails
+     */
+    default void writeTo(UniNode node, OutputStream out) throws IOException {
+        final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(node.toString());
+        writer.flush();
+    }
+
+    /**
+     * Writes the serialized form of {@code node} as UTF-8 into the given buffer, starting at its current position.
+     *
+     * @param node   The node to serialize
+     * @param buffer The buffer to write to
+     * @return The amount of bytes written
+     * @throws IOException                       If serialization fails
+     * @throws java.nio.BufferOverflowException If the buffer has insufficient remaining capacity
+     */
+    @NonExtendable
+    default int writeTo(UniNode node, ByteBuffer buffer) throws IOException {
+        final int start = buffer.position();
+        writeTo(node, new Support.ByteBufferOutputStream(buffer));
+        return buffer.position() - start;
+    }
+
+    final class Support {
+        private static final class ByteBufferOutputStream extends OutputStream {
+            private final ByteBuffer buffer;
+
+            private ByteBufferOutputStream(ByteBuffer buffer) {
+                this.buffer = buffer;
+            }
+
+            @Override
+            public void write(int b) {
+                buffer.put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                buffer.put(b, off, len);
+            }
+        }
+    }
 }
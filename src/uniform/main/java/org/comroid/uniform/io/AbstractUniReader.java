@@ -0,0 +1,151 @@
+package org.comroid.uniform.io;
+
+import org.comroid.uniform.SerializationAdapter;
+import org.comroid.uniform.node.UniNode;
+import org.comroid.uniform.node.UniValueNode;
+import org.comroid.uniform.node.impl.UniValueNodeImpl;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public abstract class AbstractUniReader implements UniReader {
+    protected final SerializationAdapter<?, ?, ?> seriLib;
+    private boolean peeked = false;
+    private UniToken peekedToken;
+    private Object peekedValue;
+
+    @Override
+    public final SerializationAdapter<?, ?, ?> getSerializationAdapter() {
+        return seriLib;
+    }
+
+    protected AbstractUniReader(SerializationAdapter<?, ?, ?> seriLib) {
+        this.seriLib = seriLib;
+    }
+
+    /**
+     * Advances the underlying source by one token.
+     *
+     * @return The token that was read; {@link UniToken#END_DOCUMENT} when the source is exhausted
+     * @throws IOException If reading from the underlying source fails
+     */
+    protected abstract UniToken advance() throws IOException;
+
+    /**
+     * Returns the field name or scalar value of the token that was last returned by {@link #advance()}.
+     *
+     * @return The value of the token
+     * @throws IOException If reading from the underlying source fails
+     */
+    protected abstract @Nullable Object tokenValue() throws IOException;
+
+    /**
+     * Skips the children of a struct whose start token was just consumed, if the underlying source supports that natively.
+     *
+     * @return Whether the children have been skipped
+     * @throws IOException If reading from the underlying source fails
+     */
+    protected boolean skipChildren() throws IOException {
+        return false;
+    }
+
+    protected Map<String, Object> createObject() {
+        return new LinkedHashMap<>();
+    }
+
+    protected List<Object> createArray() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public final UniToken peek() throws IOException {
+        if (!peeked) {
+            peekedToken = advance();
+            peekedValue = peekedToken == UniToken.FIELD_NAME || peekedToken.isScalarValue() ? tokenValue() : null;
+            peeked = true;
+        }
+        return peekedToken;
+    }
+
+    @Override
+    public final UniToken next() throws IOException {
+        final UniToken token = peek();
+        peeked = false;
+        return token;
+    }
+
+    @Override
+    public String readFieldName() throws IOException {
+        final UniToken token = next();
+        if (token != UniToken.FIELD_NAME)
+            throw new IllegalStateException("Expected field name, but found " + token);
+        return String.valueOf(peekedValue);
+    }
+
+    @Override
+    public @Nullable Object readPrimitive() throws IOException {
+        final UniToken token = next();
+        if (!token.isScalarValue())
+            throw new IllegalStateException("Expected scalar value, but found " + token);
+        return peekedValue;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        UniToken token = next();
+        if (token == UniToken.FIELD_NAME)
+            token = next();
+        if (!token.isStructStart() || skipChildren())
+            return;
+
+        int depth = 1;
+        while (depth > 0) {
+            token = next();
+            if (token.isStructStart())
+                depth++;
+            else if (token.isStructEnd())
+                depth--;
+            else if (token == UniToken.END_DOCUMENT)
+                throw new IllegalStateException("Unexpected end of document");
+        }
+    }
+
+    @Override
+    public @Nullable Object readValue() throws IOException {
+        final UniToken token = next();
+        switch (token) {
+            case START_OBJECT:
+                final Map<String, Object> obj = createObject();
+                while (hasNext())
+                    obj.put(readFieldName(), readValue());
+                expect(UniToken.END_OBJECT);
+                return obj;
+            case START_ARRAY:
+                final List<Object> arr = createArray();
+                while (hasNext())
+                    arr.add(readValue());
+                expect(UniToken.END_ARRAY);
+                return arr;
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+            case VALUE_BOOLEAN:
+            case VALUE_NULL:
+                return peekedValue;
+        }
+        throw new IllegalStateException("Expected value, but found " + token);
+    }
+
+    @Override
+    public UniNode readNode() throws IOException {
+        final Object value = readValue();
+        if (value == null)
+            return UniValueNode.NULL;
+        if (value instanceof Map || value instanceof List)
+            return seriLib.createUniNode(value);
+        return new UniValueNodeImpl("unknown", seriLib, null, seriLib.createValueAdapter(value, any -> false));
+    }
+}
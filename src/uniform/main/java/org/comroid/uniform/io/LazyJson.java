@@ -0,0 +1,248 @@
+package org.comroid.uniform.io;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Lazily parses UTF-8 encoded JSON.
+ * <p>
+ * Objects and arrays only index the byte offsets of their direct children;
+ * a child is decoded from the original buffer when it is first accessed.
+ * Nested objects and arrays are lazy themselves, so parse cost scales with the values that are actually touched.
+ * Indexing and decoding are synchronized on the object or array, so parsed documents may be read by several threads;
+ * modifying them while they are iterated requires external synchronization, as with any other collection.
+ */
+public final class LazyJson {
+    private final byte[] buf;
+    private final Function<Map<String, Object>, Object> objectWrapper;
+    private final Function<List<Object>, Object> arrayWrapper;
+    private final boolean bigDecimals;
+
+    private LazyJson(
+            byte[] buf,
+            Function<Map<String, Object>, Object> objectWrapper,
+            Function<List<Object>, Object> arrayWrapper,
+            boolean bigDecimals
+    ) {
+        this.buf = buf;
+        this.objectWrapper = objectWrapper;
+        this.arrayWrapper = arrayWrapper;
+        this.bigDecimals = bigDecimals;
+    }
+
+    public static Object parse(byte[] data) {
+        return parse(data, map -> map, list -> list, false);
+    }
+
+    /**
+     * @param data          The UTF-8 encoded JSON document
+     * @param objectWrapper Wraps every lazy object map into the adapter's object type
+     * @param arrayWrapper  Wraps every lazy array list into the adapter's array type
+     * @param bigDecimals   Whether floating point numbers should be decoded as {@link BigDecimal} instead of {@link Double}
+     * @return The wrapped root object or array, or the decoded scalar value
+     */
+    public static Object parse(
+            byte[] data,
+            Function<Map<String, Object>, Object> objectWrapper,
+            Function<List<Object>, Object> arrayWrapper,
+            boolean bigDecimals
+    ) {
+        final LazyJson json = new LazyJson(data, objectWrapper, arrayWrapper, bigDecimals);
+        final int start = json.skipWhitespace(0);
+        final int end = json.skipValue(start);
+        if (json.skipWhitespace(end) != data.length)
+            throw json.error("Unexpected trailing data", end);
+        return json.decode(start, end);
+    }
+
+    Object decode(int start, int end) {
+        switch (buf[start]) {
+            case '{':
+                return objectWrapper.apply(new LazyJsonObject(this, start, end));
+            case '[':
+                return arrayWrapper.apply(new LazyJsonArray(this, start, end));
+            case '"':
+                return decodeString(start, end);
+            case 't':
+                expectLiteral("true", start, end);
+                return true;
+            case 'f':
+                expectLiteral("false", start, end);
+                return false;
+            case 'n':
+                expectLiteral("null", start, end);
+                return null;
+            default:
+                return decodeNumber(start, end);
+        }
+    }
+
+    byte byteAt(int index) {
+        return buf[index];
+    }
+
+    int skipWhitespace(int index) {
+        while (index < buf.length) {
+            switch (buf[index]) {
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                    index++;
+                    continue;
+            }
+            break;
+        }
+        return index;
+    }
+
+    int expect(char c, int index) {
+        index = skipWhitespace(index);
+        if (index >= buf.length || buf[index] != c)
+            throw error("Expected '" + c + "'", index);
+        return index + 1;
+    }
+
+    /**
+     * @param start The index of the first byte of a value
+     * @return The index after the last byte of the value
+     */
+    int skipValue(int start) {
+        if (start >= buf.length)
+            throw error("Unexpected end of data", start);
+
+        switch (buf[start]) {
+            case '"':
+                return skipString(start);
+            case '{':
+            case '[':
+                int depth = 0;
+                for (int i = start; i < buf.length; i++) {
+                    switch (buf[i]) {
+                        case '"':
+                            i = skipString(i) - 1;
+                            break;
+                        case '{':
+                        case '[':
+                            depth++;
+                            break;
+                        case '}':
+                        case ']':
+                            if (--depth == 0)
+                                return i + 1;
+                            break;
+                    }
+                }
+                throw error("Unterminated structure", start);
+            default:
+                int i = start;
+                while (i < buf.length) {
+                    final byte b = buf[i];
+                    if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\t' || b == '\n' || b == '\r')
+                        break;
+                    i++;
+                }
+                if (i == start)
+                    throw error("Expected value", start);
+                return i;
+        }
+    }
+
+    int skipString(int start) {
+        for (int i = start + 1; i < buf.length; i++) {
+            switch (buf[i]) {
+                case '\\':
+                    i++;
+                    break;
+                case '"':
+                    return i + 1;
+            }
+        }
+        throw error("Unterminated string", start);
+    }
+
+    String decodeString(int start, int end) {
+        boolean escaped = false;
+        for (int i = start + 1; i < end - 1; i++)
+            if (buf[i] == '\\') {
+                escaped = true;
+                break;
+            }
+        if (!escaped)
+            return new String(buf, start + 1, end - start - 2, StandardCharsets.UTF_8);
+
+        final String raw = new String(buf, start + 1, end - start - 2, StandardCharsets.UTF_8);
+        final StringBuilder sb = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            c = raw.charAt(++i);
+            switch (c) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private Number decodeNumber(int start, int end) {
+        final String str = new String(buf, start, end - start, StandardCharsets.US_ASCII);
+        try {
+            if (str.indexOf('.') != -1 || str.indexOf('e') != -1 || str.indexOf('E') != -1)
+                return bigDecimals ? new BigDecimal(str) : (Number) Double.parseDouble(str);
+            if (str.length() < 10)
+                return Integer.parseInt(str);
+            if (str.length() < 19)
+                return narrow(Long.parseLong(str));
+            final BigInteger big = new BigInteger(str);
+            return big.bitLength() < 64 ? narrow(big.longValue()) : big;
+        } catch (NumberFormatException e) {
+            throw error("Invalid value '" + str + "'", start);
+        }
+    }
+
+    private static Number narrow(long value) {
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+            return (int) value;
+        return value;
+    }
+
+    private void expectLiteral(String literal, int start, int end) {
+        if (end - start != literal.length())
+            throw error("Invalid value", start);
+        for (int i = 0; i < literal.length(); i++)
+            if (buf[start + i] != literal.charAt(i))
+                throw error("Invalid value", start);
+    }
+
+    IllegalArgumentException error(String message, int index) {
+        return new IllegalArgumentException(String.format("%s at byte offset %d", message, index));
+    }
+}
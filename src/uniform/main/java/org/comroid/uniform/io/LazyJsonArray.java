@@ -0,0 +1,83 @@
+package org.comroid.uniform.io;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+final class LazyJsonArray extends AbstractList<Object> implements RandomAccess {
+    private final LazyJson json;
+    private final int start;
+    private final int end;
+    private List<Object> values;
+
+    LazyJsonArray(LazyJson json, int start, int end) {
+        this.json = json;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public synchronized int size() {
+        return index().size();
+    }
+
+    @Override
+    public synchronized Object get(int index) {
+        final List<Object> values = index();
+        final Object value = values.get(index);
+        if (!(value instanceof LazyJsonObject.Slice))
+            return value;
+        final Object decoded = ((LazyJsonObject.Slice) value).decode(json);
+        values.set(index, decoded);
+        return decoded;
+    }
+
+    @Override
+    public synchronized Object set(int index, Object element) {
+        final Object prev = get(index);
+        index().set(index, element);
+        return prev;
+    }
+
+    @Override
+    public synchronized void add(int index, Object element) {
+        index().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public synchronized Object remove(int index) {
+        final Object prev = get(index);
+        index().remove(index);
+        modCount++;
+        return prev;
+    }
+
+    private synchronized List<Object> index() {
+        if (values != null)
+            return values;
+
+        final List<Object> values = new ArrayList<>();
+        int index = json.skipWhitespace(start + 1);
+        if (json.byteAt(index) != ']') {
+            while (true) {
+                final int valueStart = json.skipWhitespace(index);
+                final int valueEnd = json.skipValue(valueStart);
+                values.add(new LazyJsonObject.Slice(valueStart, valueEnd));
+
+                index = json.skipWhitespace(valueEnd);
+                if (json.byteAt(index) == ',') {
+                    index++;
+                    continue;
+                }
+                if (json.byteAt(index) == ']')
+                    break;
+                throw json.error("Expected ',' or ']'", index);
+            }
+        }
+        if (index != end - 1)
+            throw json.error("Unexpected data in array", index);
+        return this.values = values;
+    }
+}
@@ -0,0 +1,170 @@
+package org.comroid.uniform.io;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+final class LazyJsonObject extends AbstractMap<String, Object> {
+    private final LazyJson json;
+    private final int start;
+    private final int end;
+    private Map<String, Object> values;
+
+    LazyJsonObject(LazyJson json, int start, int end) {
+        this.json = json;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public synchronized int size() {
+        return index().size();
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return index().containsKey(key);
+    }
+
+    @Override
+    public synchronized Object get(Object key) {
+        final Map<String, Object> values = index();
+        final Object value = values.get(key);
+        if (!(value instanceof Slice))
+            return value;
+        final Object decoded = ((Slice) value).decode(json);
+        values.put((String) key, decoded);
+        return decoded;
+    }
+
+    @Override
+    public synchronized Object put(String key, Object value) {
+        final Object prev = index().put(key, value);
+        return prev instanceof Slice ? ((Slice) prev).decode(json) : prev;
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        final Object prev = index().remove(key);
+        return prev instanceof Slice ? ((Slice) prev).decode(json) : prev;
+    }
+
+    @Override
+    public synchronized void clear() {
+        index().clear();
+    }
+
+    @NotNull
+    @Override
+    public Set<String> keySet() {
+        return index().keySet();
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                final Iterator<Entry<String, Object>> entries = index().entrySet().iterator();
+
+                return new Iterator<Entry<String, Object>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        final Entry<String, Object> entry = entries.next();
+
+                        return new Entry<String, Object>() {
+                            @Override
+                            public String getKey() {
+                                return entry.getKey();
+                            }
+
+                            @Override
+                            public Object getValue() {
+                                synchronized (LazyJsonObject.this) {
+                                    final Object value = entry.getValue();
+                                    if (!(value instanceof Slice))
+                                        return value;
+                                    final Object decoded = ((Slice) value).decode(json);
+                                    entry.setValue(decoded);
+                                    return decoded;
+                                }
+                            }
+
+                            @Override
+                            public Object setValue(Object value) {
+                                synchronized (LazyJsonObject.this) {
+                                    final Object prev = getValue();
+                                    entry.setValue(value);
+                                    return prev;
+                                }
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        entries.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return index().size();
+            }
+        };
+    }
+
+    private synchronized Map<String, Object> index() {
+        if (values != null)
+            return values;
+
+        final Map<String, Object> values = new LinkedHashMap<>();
+        int index = json.skipWhitespace(start + 1);
+        if (json.byteAt(index) != '}') {
+            while (true) {
+                index = json.skipWhitespace(index);
+                if (json.byteAt(index) != '"')
+                    throw json.error("Expected field name", index);
+                final int keyEnd = json.skipString(index);
+                final String key = json.decodeString(index, keyEnd);
+
+                final int valueStart = json.skipWhitespace(json.expect(':', keyEnd));
+                final int valueEnd = json.skipValue(valueStart);
+                values.put(key, new Slice(valueStart, valueEnd));
+
+                index = json.skipWhitespace(valueEnd);
+                if (json.byteAt(index) == ',') {
+                    index++;
+                    continue;
+                }
+                if (json.byteAt(index) == '}')
+                    break;
+                throw json.error("Expected ',' or '}'", index);
+            }
+        }
+        if (index != end - 1)
+            throw json.error("Unexpected data in object", index);
+        return this.values = values;
+    }
+
+    static final class Slice {
+        private final int start;
+        private final int end;
+
+        Slice(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        Object decode(LazyJson json) {
+            return json.decode(start, end);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.comroid.uniform.io;
+
+import org.comroid.uniform.node.UniNode;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A {@link UniReader} over an already parsed node.
+ * Used for adapters that do not support reading tokens from their source directly.
+ */
+public final class UniNodeReader extends AbstractUniReader {
+    private final Deque<Iterator<?>> stack = new ArrayDeque<>();
+    private final UniNode root;
+    private boolean rootRead = false;
+    private boolean atRoot = true;
+    private boolean fieldPending = false;
+    private Object pending;
+    private Object value;
+
+    public UniNodeReader(UniNode root) {
+        super(root.getSerializationAdapter());
+
+        this.root = root;
+    }
+
+    @Override
+    protected UniToken advance() {
+        if (rootRead)
+            atRoot = false;
+        if (fieldPending) {
+            fieldPending = false;
+            return enter(pending);
+        }
+        if (stack.isEmpty()) {
+            if (rootRead)
+                return UniToken.END_DOCUMENT;
+            rootRead = true;
+            return enter(root);
+        }
+
+        final Iterator<?> top = stack.peek();
+        if (top instanceof ObjectIterator) {
+            if (top.hasNext()) {
+                final Map.Entry<?, ?> entry = ((ObjectIterator) top).next();
+                value = String.valueOf(entry.getKey());
+                pending = entry.getValue();
+                fieldPending = true;
+                return UniToken.FIELD_NAME;
+            }
+            stack.pop();
+            return UniToken.END_OBJECT;
+        }
+        if (top.hasNext())
+            return enter(top.next());
+        stack.pop();
+        return UniToken.END_ARRAY;
+    }
+
+    @Override
+    protected @Nullable Object tokenValue() {
+        return value;
+    }
+
+    @Override
+    public UniNode readNode() throws IOException {
+        if (!atRoot) {
+            if (!peek().isStructStart())
+                return super.readNode();
+            final Object struct = value;
+            skipValue();
+            return seriLib.createUniNode(struct);
+        }
+
+        if (rootRead)
+            next(); // consume peeked root token
+        close();
+        atRoot = false;
+        return root;
+    }
+
+    @Override
+    public void close() {
+        stack.clear();
+        rootRead = true;
+    }
+
+    private UniToken enter(Object it) {
+        if (it instanceof UniNode) {
+            final UniNode node = (UniNode) it;
+            it = node.isValueNode() ? node.asRaw(null) : node.getBaseNode();
+        }
+
+        value = it;
+        if (it == null)
+            return UniToken.VALUE_NULL;
+        if (it instanceof Map) {
+            stack.push(new ObjectIterator(((Map<?, ?>) it).entrySet().iterator()));
+            return UniToken.START_OBJECT;
+        }
+        if (it instanceof Iterable) {
+            stack.push(((Iterable<?>) it).iterator());
+            return UniToken.START_ARRAY;
+        }
+        if (it instanceof Number)
+            return UniToken.VALUE_NUMBER;
+        if (it instanceof Boolean)
+            return UniToken.VALUE_BOOLEAN;
+        value = String.valueOf(it);
+        return UniToken.VALUE_STRING;
+    }
+
+    private static final class ObjectIterator implements Iterator<Map.Entry<?, ?>> {
+        private final Iterator<? extends Map.Entry<?, ?>> entries;
+
+        private ObjectIterator(Iterator<? extends Map.Entry<?, ?>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public Map.Entry<?, ?> next() {
+            return entries.next();
+        }
+    }
+}
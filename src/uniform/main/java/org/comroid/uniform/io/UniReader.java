@@ -0,0 +1,125 @@
+package org.comroid.uniform.io;
+
+import org.comroid.uniform.SerializationAdapter;
+import org.comroid.uniform.node.UniNode;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A format-neutral pull reader over serialized data.
+ * <p>
+ * Reading an object typically looks like this:
+ * <pre>{@code
+ * reader.expect(UniToken.START_OBJECT);
+ * while (reader.hasNext()) {
+ *     String name = reader.readFieldName();
+ *     if (name.equals("id"))
+ *         id = reader.readLong();
+ *     else reader.skipValue();
+ * }
+ * reader.expect(UniToken.END_OBJECT);
+ * }</pre>
+ */
+public interface UniReader extends Closeable {
+    SerializationAdapter<?, ?, ?> getSerializationAdapter();
+
+    static UniReader of(UniNode node) {
+        return new UniNodeReader(node);
+    }
+
+    /**
+     * @return The next token, without consuming it
+     * @throws IOException If reading from the underlying source fails
+     */
+    UniToken peek() throws IOException;
+
+    /**
+     * Consumes the next token.
+     *
+     * @return The consumed token
+     * @throws IOException If reading from the underlying source fails
+     */
+    UniToken next() throws IOException;
+
+    /**
+     * @return Whether the current object or array has more entries
+     * @throws IOException If reading from the underlying source fails
+     */
+    default boolean hasNext() throws IOException {
+        final UniToken token = peek();
+        return !token.isStructEnd() && token != UniToken.END_DOCUMENT;
+    }
+
+    default void expect(UniToken token) throws IOException {
+        final UniToken next = next();
+        if (next != token)
+            throw new IllegalStateException(String.format("Expected token %s, but found %s", token, next));
+    }
+
+    /**
+     * Consumes the next token, which must be a {@linkplain UniToken#FIELD_NAME field name}.
+     *
+     * @return The field name
+     * @throws IOException If reading from the underlying source fails
+     */
+    String readFieldName() throws IOException;
+
+    /**
+     * Consumes the next token, which must be a scalar value.
+     *
+     * @return The value as {@link String}, {@link Number}, {@link Boolean} or {@code null}
+     * @throws IOException If reading from the underlying source fails
+     */
+    @Nullable Object readPrimitive() throws IOException;
+
+    default @Nullable String readString() throws IOException {
+        final Object value = readPrimitive();
+        return value == null ? null : String.valueOf(value);
+    }
+
+    default long readLong() throws IOException {
+        final Object value = readPrimitive();
+        return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    default int readInt() throws IOException {
+        final Object value = readPrimitive();
+        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(String.valueOf(value));
+    }
+
+    default double readDouble() throws IOException {
+        final Object value = readPrimitive();
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(String.valueOf(value));
+    }
+
+    default boolean readBoolean() throws IOException {
+        final Object value = readPrimitive();
+        return value instanceof Boolean ? (Boolean) value : Boolean.parseBoolean(String.valueOf(value));
+    }
+
+    /**
+     * Skips the next value, including all of its children.
+     * If the next token is a field name, the field name and its value are skipped.
+     *
+     * @throws IOException If reading from the underlying source fails
+     */
+    void skipValue() throws IOException;
+
+    /**
+     * Consumes the next value into plain java structures of {@link java.util.Map}, {@link java.util.List} and scalars.
+     *
+     * @return The value
+     * @throws IOException If reading from the underlying source fails
+     */
+    @Nullable Object readValue() throws IOException;
+
+    /**
+     * Consumes the next value and materializes it as a {@link UniNode} of this reader's adapter.
+     *
+     * @return The value as node
+     * @throws IOException If reading from the underlying source fails
+     */
+    UniNode readNode() throws IOException;
+}
@@ -0,0 +1,33 @@
+package org.comroid.uniform.io;
+
+import org.comroid.api.Named;
+
+public enum UniToken implements Named {
+    START_OBJECT,
+    END_OBJECT,
+    START_ARRAY,
+    END_ARRAY,
+    FIELD_NAME,
+    VALUE_STRING,
+    VALUE_NUMBER,
+    VALUE_BOOLEAN,
+    VALUE_NULL,
+    END_DOCUMENT;
+
+    public boolean isStructStart() {
+        return this == START_OBJECT || this == START_ARRAY;
+    }
+
+    public boolean isStructEnd() {
+        return this == END_OBJECT || this == END_ARRAY;
+    }
+
+    public boolean isScalarValue() {
+        return this == VALUE_STRING || this == VALUE_NUMBER || this == VALUE_BOOLEAN || this == VALUE_NULL;
+    }
+
+    @Override
+    public String getName() {
+        return name();
+    }
+}
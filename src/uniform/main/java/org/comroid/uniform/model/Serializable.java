@@ -5,6 +5,10 @@ import org.comroid.uniform.node.UniArrayNode;
 import org.comroid.uniform.node.UniNode;
 import org.comroid.uniform.node.UniObjectNode;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
 public interface Serializable extends StringSerializable {
     UniNode toUniNode();
 
@@ -20,4 +24,12 @@ public interface Serializable extends StringSerializable {
     default String toSerializedString() {
         return toUniNode().toString();
     }
+
+    default void writeTo(OutputStream out) throws IOException {
+        toUniNode().writeTo(out);
+    }
+
+    default int writeTo(ByteBuffer buffer) throws IOException {
+        return toUniNode().writeTo(buffer);
+    }
 }
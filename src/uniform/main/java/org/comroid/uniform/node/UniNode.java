@@ -2,6 +2,7 @@ package org.comroid.uniform.node;
 
 import org.comroid.api.*;
 import org.comroid.mutatio.ref.Reference;
+import org.comroid.uniform.SerializationAdapter;
 import org.comroid.uniform.model.NodeType;
 import org.comroid.uniform.model.Serializable;
 import org.comroid.uniform.model.SerializationAdapterHolder;
@@ -11,6 +12,10 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -70,6 +75,24 @@ public interface UniNode extends SerializationAdapterHolder, Iterable<UniNode>,
         return this;
     }
 
+    @Override
+    default void writeTo(OutputStream out) throws IOException {
+        final SerializationAdapter<?, ?, ?> adapter = getSerializationAdapter();
+        if (adapter == null)
+            out.write(toString().getBytes(StandardCharsets.UTF_8));
+        else adapter.writeTo(this, out);
+    }
+
+    @Override
+    default int writeTo(ByteBuffer buffer) throws IOException {
+        final SerializationAdapter<?, ?, ?> adapter = getSerializationAdapter();
+        if (adapter == null) {
+            final byte[] bytes = toString().getBytes(StandardCharsets.UTF_8);
+            buffer.put(bytes);
+            return bytes.length;
+        } else return adapter.writeTo(this, buffer);
+    }
+
     int size();
 
     void clear();
@@ -7,6 +7,8 @@ import com.alibaba.fastjson.JSONValidator;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 import org.comroid.annotations.Instance;
 import org.comroid.uniform.adapter.AbstractSerializationAdapter;
+import org.comroid.uniform.io.LazyJson;
+import org.comroid.uniform.io.UniReader;
 import org.comroid.uniform.model.DataStructureType;
 import org.comroid.uniform.model.ValueAdapter;
 import org.comroid.uniform.node.UniArrayNode;
@@ -15,9 +17,12 @@ import org.comroid.uniform.node.UniObjectNode;
 import org.comroid.uniform.node.UniValueNode;
 import org.comroid.uniform.node.impl.UniArrayNodeImpl;
 import org.comroid.uniform.node.impl.UniObjectNodeImpl;
+import org.comroid.uniform.node.impl.UniValueNodeImpl;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.util.function.Predicate;
 
 public final class FastJSONLib extends AbstractSerializationAdapter<JSON, JSONObject, JSONArray> {
@@ -72,6 +77,19 @@ public final class FastJSONLib extends AbstractSerializationAdapter<JSON, JSONOb
         throw new IllegalArgumentException("Cannot parse JSON Value");
     }
 
+    @Override
+    public UniNode parseLazy(byte[] data) {
+        final Object root = LazyJson.parse(data, JSONObject::new, JSONArray::new, true);
+
+        if (root instanceof JSONObject)
+            return createObjectNode((JSONObject) root);
+        if (root instanceof JSONArray)
+            return createArrayNode((JSONArray) root);
+        if (root == null)
+            return UniValueNode.NULL;
+        return new UniValueNodeImpl("unknown", this, null, createValueAdapter(root, any -> false));
+    }
+
     @Override
     public UniObjectNode createObjectNode(JSONObject node) {
         return new UniObjectNodeImpl(this, null, node) {
@@ -92,6 +110,18 @@ public final class FastJSONLib extends AbstractSerializationAdapter<JSON, JSONOb
         };
     }
 
+    @Override
+    public UniReader createReader(Reader in) {
+        return new FastJSONReader(this, in);
+    }
+
+    @Override
+    public void writeTo(UniNode node, OutputStream out) throws IOException {
+        final Object raw = node.isValueNode() ? node.asRaw(null) : node.getBaseNode();
+        JSON.writeJSONString(out, raw, SerializerFeature.WriteMapNullValue);
+        out.flush();
+    }
+
     @Override
     public ValueAdapter<Object, Object> createValueAdapter(Object nodeBase, final Predicate<Object> setter) {
         return new ValueAdapter<Object, Object>(nodeBase) {
@@ -0,0 +1,121 @@
+package org.comroid.uniform.adapter.json.fastjson;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.parser.Feature;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.JSONToken;
+import org.comroid.uniform.io.AbstractUniReader;
+import org.comroid.uniform.io.UniToken;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Reader;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+final class FastJSONReader extends AbstractUniReader {
+    private final JSONLexer lexer;
+    private final BitSet objectScopes = new BitSet();
+    private int depth = 0;
+    private boolean expectFieldName = false;
+    private Object value;
+
+    FastJSONReader(FastJSONLib adapter, Reader in) {
+        super(adapter);
+
+        this.lexer = new JSONReaderScanner(in);
+        lexer.nextToken();
+    }
+
+    @Override
+    protected UniToken advance() {
+        while (true) {
+            final int token = lexer.token();
+
+            switch (token) {
+                case JSONToken.COMMA:
+                    expectFieldName = inObject();
+                    lexer.nextToken();
+                    continue;
+                case JSONToken.LBRACE:
+                    objectScopes.set(++depth);
+                    expectFieldName = true;
+                    lexer.nextToken();
+                    return UniToken.START_OBJECT;
+                case JSONToken.LBRACKET:
+                    objectScopes.clear(++depth);
+                    expectFieldName = false;
+                    lexer.nextToken();
+                    return UniToken.START_ARRAY;
+                case JSONToken.RBRACE:
+                    depth--;
+                    lexer.nextToken();
+                    return UniToken.END_OBJECT;
+                case JSONToken.RBRACKET:
+                    depth--;
+                    lexer.nextToken();
+                    return UniToken.END_ARRAY;
+                case JSONToken.LITERAL_STRING:
+                case JSONToken.IDENTIFIER:
+                    value = lexer.stringVal();
+                    if (expectFieldName) {
+                        expectFieldName = false;
+                        lexer.nextToken();
+                        if (lexer.token() != JSONToken.COLON)
+                            throw new IllegalStateException("Expected ':' after field name " + value);
+                        lexer.nextToken();
+                        return UniToken.FIELD_NAME;
+                    }
+                    lexer.nextToken();
+                    return UniToken.VALUE_STRING;
+                case JSONToken.LITERAL_INT:
+                    value = lexer.integerValue();
+                    lexer.nextToken();
+                    return UniToken.VALUE_NUMBER;
+                case JSONToken.LITERAL_FLOAT:
+                    value = lexer.decimalValue(lexer.isEnabled(Feature.UseBigDecimal));
+                    lexer.nextToken();
+                    return UniToken.VALUE_NUMBER;
+                case JSONToken.TRUE:
+                case JSONToken.FALSE:
+                    value = token == JSONToken.TRUE;
+                    lexer.nextToken();
+                    return UniToken.VALUE_BOOLEAN;
+                case JSONToken.NULL:
+                    value = null;
+                    lexer.nextToken();
+                    return UniToken.VALUE_NULL;
+                case JSONToken.EOF:
+                    return UniToken.END_DOCUMENT;
+            }
+            throw new IllegalStateException(String.format("Unexpected JSON token %s at position %d",
+                    JSONToken.name(token), lexer.pos()));
+        }
+    }
+
+    @Override
+    protected @Nullable Object tokenValue() {
+        return value;
+    }
+
+    @Override
+    protected Map<String, Object> createObject() {
+        return new JSONObject(true);
+    }
+
+    @Override
+    protected List<Object> createArray() {
+        return new JSONArray();
+    }
+
+    @Override
+    public void close() {
+        lexer.close();
+    }
+
+    private boolean inObject() {
+        return depth > 0 && objectScopes.get(depth);
+    }
+}
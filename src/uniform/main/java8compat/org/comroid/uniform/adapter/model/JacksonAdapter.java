@@ -1,14 +1,20 @@
 package org.comroid.uniform.adapter.model;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.comroid.api.exception.AssertionException;
 import org.comroid.uniform.adapter.AbstractSerializationAdapter;
+import org.comroid.api.Polyfill;
+import org.comroid.uniform.io.LazyJson;
+import org.comroid.uniform.io.UniReader;
 import org.comroid.uniform.model.DataStructureType;
 import org.comroid.uniform.model.ValueAdapter;
 import org.comroid.uniform.node.UniArrayNode;
@@ -20,6 +26,10 @@ import org.comroid.uniform.node.impl.UniObjectNodeImpl;
 import org.comroid.uniform.node.impl.UniValueNodeImpl;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -27,11 +37,13 @@ import java.util.function.Predicate;
 
 public abstract class JacksonAdapter extends AbstractSerializationAdapter<JsonNode, ObjectNode, ArrayNode> {
     private final ObjectMapper objectMapper;
+    private final ObjectWriter streamWriter;
 
     public JacksonAdapter(String mimeType, ObjectMapper objectMapper) {
         super(mimeType, ObjectNode.class, JsonNodeFactory.instance::objectNode, ArrayNode.class, JsonNodeFactory.instance::arrayNode);
 
         this.objectMapper = objectMapper;
+        this.streamWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @Override
@@ -72,6 +84,22 @@ public abstract class JacksonAdapter extends AbstractSerializationAdapter<JsonNo
         throw new AssertionException();
     }
 
+    @Override
+    public UniNode parseLazy(byte[] data) {
+        if (!JsonFactory.FORMAT_NAME_JSON.equals(objectMapper.getFactory().getFormatName()))
+            return super.parseLazy(data);
+
+        final Object root = LazyJson.parse(data);
+
+        if (root instanceof Map)
+            return new UniObjectNodeImpl(this, null, Polyfill.uncheckedCast(root));
+        if (root instanceof List)
+            return new UniArrayNodeImpl(this, null, Polyfill.uncheckedCast(root));
+        if (root == null)
+            return UniValueNode.NULL;
+        return new UniValueNodeImpl("unknown", this, null, createValueAdapter(root, any -> false));
+    }
+
     @Override
     public UniObjectNode createObjectNode(ObjectNode node) {
         return new UniObjectNodeImpl(this, null, objectMapper.convertValue(node, new TypeReference<Map<String, Object>>() {
@@ -84,6 +112,23 @@ public abstract class JacksonAdapter extends AbstractSerializationAdapter<JsonNo
         }));
     }
 
+    @Override
+    public UniReader createReader(InputStream in) throws IOException {
+        return new JacksonReader(this, objectMapper, objectMapper.getFactory().createParser(in));
+    }
+
+    @Override
+    public UniReader createReader(Reader in) throws IOException {
+        return new JacksonReader(this, objectMapper, objectMapper.getFactory().createParser(in));
+    }
+
+    @Override
+    public void writeTo(UniNode node, OutputStream out) throws IOException {
+        final Object raw = node.isValueNode() ? node.asRaw(null) : node.getBaseNode();
+        streamWriter.writeValue(out, raw);
+        out.flush();
+    }
+
     @Override
     public ValueAdapter<Object, Object> createValueAdapter(Object nodeBase, final Predicate<Object> setter) {
         /*
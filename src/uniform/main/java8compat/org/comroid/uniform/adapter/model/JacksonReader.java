@@ -0,0 +1,100 @@
+package org.comroid.uniform.adapter.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.comroid.uniform.io.AbstractUniReader;
+import org.comroid.uniform.io.UniToken;
+import org.comroid.uniform.node.UniNode;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+final class JacksonReader extends AbstractUniReader {
+    private final JacksonAdapter adapter;
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+
+    JacksonReader(JacksonAdapter adapter, ObjectMapper objectMapper, JsonParser parser) {
+        super(adapter);
+
+        this.adapter = adapter;
+        this.objectMapper = objectMapper;
+        this.parser = parser;
+    }
+
+    @Override
+    protected UniToken advance() throws IOException {
+        final JsonToken token = parser.nextToken();
+        if (token == null)
+            return UniToken.END_DOCUMENT;
+
+        switch (token) {
+            case START_OBJECT:
+                return UniToken.START_OBJECT;
+            case END_OBJECT:
+                return UniToken.END_OBJECT;
+            case START_ARRAY:
+                return UniToken.START_ARRAY;
+            case END_ARRAY:
+                return UniToken.END_ARRAY;
+            case FIELD_NAME:
+                return UniToken.FIELD_NAME;
+            case VALUE_STRING:
+            case VALUE_EMBEDDED_OBJECT:
+                return UniToken.VALUE_STRING;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return UniToken.VALUE_NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return UniToken.VALUE_BOOLEAN;
+            case VALUE_NULL:
+                return UniToken.VALUE_NULL;
+        }
+        throw new IllegalStateException("Unexpected token: " + token);
+    }
+
+    @Override
+    protected @Nullable Object tokenValue() throws IOException {
+        switch (parser.currentToken()) {
+            case FIELD_NAME:
+                return parser.getCurrentName();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return parser.getBooleanValue();
+            case VALUE_NULL:
+                return null;
+        }
+        return parser.getText();
+    }
+
+    @Override
+    protected boolean skipChildren() throws IOException {
+        parser.skipChildren();
+        return true;
+    }
+
+    @Override
+    public UniNode readNode() throws IOException {
+        if (!peek().isStructStart())
+            return super.readNode();
+
+        next();
+        final JsonNode node = objectMapper.readTree(parser);
+        return node.isObject()
+                ? adapter.createObjectNode((ObjectNode) node)
+                : adapter.createArrayNode((ArrayNode) node);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,161 @@
+package org.comroid.uniform.adapter.properties;
+
+import org.comroid.api.Polyfill;
+import org.comroid.uniform.io.AbstractUniReader;
+import org.comroid.uniform.io.UniToken;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Reads a properties document line by line as one flat object with string values,
+ * following the format of {@link java.util.Properties#load(Reader)}.
+ */
+final class JavaPropertiesReader extends AbstractUniReader {
+    private final BufferedReader in;
+    private boolean started = false;
+    private boolean ended = false;
+    private String pendingValue;
+    private String value;
+
+    JavaPropertiesReader(JavaPropertiesSerializationAdapter adapter, Reader in) {
+        super(adapter);
+
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+    }
+
+    @Override
+    protected UniToken advance() throws IOException {
+        if (!started) {
+            started = true;
+            return UniToken.START_OBJECT;
+        }
+        if (pendingValue != null) {
+            value = pendingValue;
+            pendingValue = null;
+            return UniToken.VALUE_STRING;
+        }
+        if (ended)
+            return UniToken.END_DOCUMENT;
+
+        final String line = readLogicalLine();
+        if (line == null) {
+            ended = true;
+            return UniToken.END_OBJECT;
+        }
+
+        int keyEnd = 0;
+        while (keyEnd < line.length()) {
+            final char c = line.charAt(keyEnd);
+            if (c == '\\')
+                keyEnd++;
+            else if (c == '=' || c == ':' || Character.isWhitespace(c))
+                break;
+            keyEnd++;
+        }
+        keyEnd = Math.min(keyEnd, line.length());
+
+        int valueStart = skipWhitespace(line, keyEnd);
+        if (valueStart < line.length() && (line.charAt(valueStart) == '=' || line.charAt(valueStart) == ':'))
+            valueStart = skipWhitespace(line, valueStart + 1);
+
+        value = unescape(line, 0, keyEnd);
+        pendingValue = unescape(line, valueStart, line.length());
+        return UniToken.FIELD_NAME;
+    }
+
+    @Override
+    protected @Nullable Object tokenValue() {
+        return value;
+    }
+
+    @Override
+    protected Map<String, Object> createObject() {
+        return Polyfill.uncheckedCast(new Properties());
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private @Nullable String readLogicalLine() throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null)
+                return null;
+            line = line.substring(skipWhitespace(line, 0));
+        } while (line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == '!');
+
+        if (!isContinued(line))
+            return line;
+
+        final StringBuilder sb = new StringBuilder(line);
+        while (isContinued(sb)) {
+            sb.setLength(sb.length() - 1);
+            final String next = in.readLine();
+            if (next == null)
+                break;
+            sb.append(next, skipWhitespace(next, 0), next.length());
+        }
+        return sb.toString();
+    }
+
+    private static boolean isContinued(CharSequence line) {
+        int backslashes = 0;
+        for (int i = line.length() - 1; i >= 0 && line.charAt(i) == '\\'; i--)
+            backslashes++;
+        return backslashes % 2 == 1;
+    }
+
+    private static int skipWhitespace(String str, int index) {
+        while (index < str.length() && Character.isWhitespace(str.charAt(index)))
+            index++;
+        return index;
+    }
+
+    private static String unescape(String str, int start, int end) {
+        if (str.indexOf('\\', start) == -1 || str.indexOf('\\', start) >= end)
+            return str.substring(start, end);
+
+        final StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c != '\\' || i + 1 >= end) {
+                sb.append(c);
+                continue;
+            }
+
+            c = str.charAt(++i);
+            switch (c) {
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'u':
+                    if (i + 4 >= end)
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding");
+                    sb.append((char) Integer.parseInt(str.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+}
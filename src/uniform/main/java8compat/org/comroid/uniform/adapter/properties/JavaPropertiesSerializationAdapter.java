@@ -3,6 +3,7 @@ package org.comroid.uniform.adapter.properties;
 import org.comroid.annotations.Instance;
 import org.comroid.api.Polyfill;
 import org.comroid.uniform.adapter.AbstractSerializationAdapter;
+import org.comroid.uniform.io.UniReader;
 import org.comroid.uniform.model.DataStructureType;
 import org.comroid.uniform.model.ValueAdapter;
 import org.comroid.uniform.node.UniArrayNode;
@@ -13,8 +14,9 @@ import org.comroid.uniform.node.impl.UniObjectNodeImpl;
 import org.comroid.util.MapUtil;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
-import java.io.StringReader;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Properties;
 import java.util.function.Predicate;
 
@@ -47,7 +49,18 @@ public final class JavaPropertiesSerializationAdapter extends AbstractSerializat
 
     @Override
     public UniObjectNode createObjectNode(Properties node) {
-        return new UniObjectNodeImpl(this, null, MapUtil.hashtable(Polyfill.uncheckedCast(node)));
+        return new UniObjectNodeImpl(this, null, MapUtil.hashtable(Polyfill.uncheckedCast(node))) {
+            @Override
+            public String toString() {
+                final StringWriter out = new StringWriter();
+                try {
+                    store(this, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return out.toString();
+            }
+        };
     }
 
     @Override
@@ -55,6 +68,18 @@ public final class JavaPropertiesSerializationAdapter extends AbstractSerializat
         throw new UnsupportedOperationException("Cannot create ArrayNode for Properties");
     }
 
+    @Override
+    public UniReader createReader(Reader in) {
+        return new JavaPropertiesReader(this, in);
+    }
+
+    @Override
+    public void writeTo(UniNode node, OutputStream out) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        store(node, writer);
+        writer.flush();
+    }
+
     @Override
     public ValueAdapter<Object, Object> createValueAdapter(Object nodeBase, final Predicate<Object> setter) {
         return new ValueAdapter<Object, Object>(nodeBase) {
@@ -70,6 +95,57 @@ public final class JavaPropertiesSerializationAdapter extends AbstractSerializat
         };
     }
 
+    private static void store(UniNode node, Writer out) throws IOException {
+        if (!node.isObjectNode())
+            throw new UnsupportedOperationException("Only Object type is supported");
+
+        final Map<?, ?> map = (Map<?, ?>) node.getBaseNode();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getValue() == null)
+                continue;
+            escape(out, String.valueOf(entry.getKey()), true);
+            out.write('=');
+            escape(out, String.valueOf(entry.getValue()), false);
+            out.write('\n');
+        }
+    }
+
+    private static void escape(Writer out, String str, boolean key) throws IOException {
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            switch (c) {
+                case ' ':
+                    if (key || i == 0)
+                        out.write('\\');
+                    out.write(' ');
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\f':
+                    out.write("\\f");
+                    break;
+                case '\\':
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    out.write('\\');
+                    out.write(c);
+                    break;
+                default:
+                    out.write(c);
+                    break;
+            }
+        }
+    }
+
     private Properties ofString(String data) {
         try {
             final Properties prop = new Properties();
@@ -16,6 +16,9 @@ import org.jsoup.parser.Parser;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+/**
+ * @deprecated Use {@link org.comroid.uniform.adapter.xml.stax.StaxXmlAdapter}
+ */
 @Deprecated
 public class JsoupXmlParser extends AbstractSerializationAdapter<Element, Element, Element> {
     public static final JsoupXmlParser instance = new JsoupXmlParser();
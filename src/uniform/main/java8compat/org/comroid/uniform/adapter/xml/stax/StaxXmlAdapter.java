@@ -0,0 +1,198 @@
+package org.comroid.uniform.adapter.xml.stax;
+
+import org.comroid.annotations.Instance;
+import org.comroid.api.Polyfill;
+import org.comroid.uniform.adapter.AbstractSerializationAdapter;
+import org.comroid.uniform.io.UniReader;
+import org.comroid.uniform.model.DataStructureType;
+import org.comroid.uniform.model.ValueAdapter;
+import org.comroid.uniform.node.UniArrayNode;
+import org.comroid.uniform.node.UniNode;
+import org.comroid.uniform.node.UniObjectNode;
+import org.comroid.uniform.node.UniValueNode;
+import org.comroid.uniform.node.impl.UniArrayNodeImpl;
+import org.comroid.uniform.node.impl.UniObjectNodeImpl;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * XML adapter that reads and writes documents through StAX, without building a DOM.
+ * <p>
+ * Attributes map to fields prefixed with {@code @}, text next to child elements maps to field {@code #text}
+ * and repeated elements map to arrays.
+ */
+public final class StaxXmlAdapter extends AbstractSerializationAdapter<Object, Map<String, Object>, List<Object>> {
+    @Instance
+    public static final StaxXmlAdapter instance = new StaxXmlAdapter("data");
+    private static final String ARRAY_ITEM = "item";
+    private final String rootName;
+    private final XMLInputFactory inputFactory;
+    private final XMLOutputFactory outputFactory;
+
+    public String getRootName() {
+        return rootName;
+    }
+
+    /**
+     * @param rootName The name of the root element that is written for serialized nodes
+     */
+    public StaxXmlAdapter(String rootName) {
+        super("application/xml",
+                Polyfill.<Class<Map<String, Object>>>uncheckedCast(Map.class), LinkedHashMap::new,
+                Polyfill.<Class<List<Object>>>uncheckedCast(List.class), ArrayList::new);
+
+        this.rootName = rootName;
+        this.inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.outputFactory = XMLOutputFactory.newInstance();
+    }
+
+    @Override
+    public DataStructureType<Object, ? extends Object, ? extends UniNode> typeOfData(String data) {
+        return getObjectType();
+    }
+
+    @Override
+    public UniNode parse(@Nullable String data) {
+        if (data == null || data.isEmpty())
+            return UniValueNode.NULL;
+
+        try (UniReader reader = createReader(new StringReader(data))) {
+            return reader.readNode();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("String is not valid XML: " + data, e);
+        }
+    }
+
+    @Override
+    public UniObjectNode createObjectNode(Map<String, Object> node) {
+        return new UniObjectNodeImpl(this, null, node) {
+            @Override
+            public String toString() {
+                return serialize(this);
+            }
+        };
+    }
+
+    @Override
+    public UniArrayNode createArrayNode(List<Object> node) {
+        return new UniArrayNodeImpl(this, null, node) {
+            @Override
+            public String toString() {
+                return serialize(this);
+            }
+        };
+    }
+
+    @Override
+    public UniReader createReader(InputStream in) throws IOException {
+        try {
+            return new StaxXmlReader(this, inputFactory.createXMLStreamReader(in));
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not create XML reader", e);
+        }
+    }
+
+    @Override
+    public UniReader createReader(Reader in) throws IOException {
+        try {
+            return new StaxXmlReader(this, inputFactory.createXMLStreamReader(in));
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not create XML reader", e);
+        }
+    }
+
+    @Override
+    public void writeTo(UniNode node, OutputStream out) throws IOException {
+        final Object raw = node.isValueNode() ? node.asRaw(null) : node.getBaseNode();
+
+        try {
+            final XMLStreamWriter xml = outputFactory.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            if (raw instanceof List) {
+                xml.writeStartElement(rootName);
+                for (Object each : (List<?>) raw)
+                    writeElement(xml, ARRAY_ITEM, each);
+                xml.writeEndElement();
+            } else writeElement(xml, rootName, raw);
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write XML", e);
+        }
+        out.flush();
+    }
+
+    @Override
+    public ValueAdapter<Object, Object> createValueAdapter(Object nodeBase, final Predicate<Object> setter) {
+        return new ValueAdapter<Object, Object>(nodeBase) {
+            @Override
+            public Object asActualType() {
+                return base;
+            }
+
+            @Override
+            protected boolean doSet(Object newValue) {
+                return setter.test(newValue);
+            }
+        };
+    }
+
+    private String serialize(UniNode node) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeTo(node, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void writeElement(XMLStreamWriter xml, String name, Object value) throws XMLStreamException {
+        if (value instanceof UniNode) {
+            final UniNode node = (UniNode) value;
+            value = node.isValueNode() ? node.asRaw(null) : node.getBaseNode();
+        }
+
+        if (value == null) {
+            xml.writeEmptyElement(name);
+            return;
+        }
+        if (value instanceof List) {
+            // repeated elements
+            for (Object each : (List<?>) value)
+                writeElement(xml, name, each);
+            return;
+        }
+
+        xml.writeStartElement(name);
+        if (value instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                final String key = String.valueOf(entry.getKey());
+                if (key.startsWith(StaxXmlReader.ATTRIBUTE_PREFIX) && entry.getValue() != null)
+                    xml.writeAttribute(key.substring(1), String.valueOf(entry.getValue()));
+            }
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                final String key = String.valueOf(entry.getKey());
+                if (key.equals(StaxXmlReader.TEXT_FIELD)) {
+                    if (entry.getValue() != null)
+                        xml.writeCharacters(String.valueOf(entry.getValue()));
+                } else if (!key.startsWith(StaxXmlReader.ATTRIBUTE_PREFIX))
+                    writeElement(xml, key, entry.getValue());
+            }
+        } else xml.writeCharacters(String.valueOf(value));
+        xml.writeEndElement();
+    }
+}
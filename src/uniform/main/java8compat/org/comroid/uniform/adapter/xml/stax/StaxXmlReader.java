@@ -0,0 +1,182 @@
+package org.comroid.uniform.adapter.xml.stax;
+
+import org.comroid.uniform.io.AbstractUniReader;
+import org.comroid.uniform.io.UniToken;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Translates StAX events into tokens.
+ * <p>
+ * The root element becomes the document's object. Elements with only text become string fields,
+ * all other elements become objects. Attributes are read as fields prefixed with {@code @},
+ * and text next to child elements is read as field {@code #text}.
+ * Repeated elements are read as repeated field names and merged into arrays when materialized.
+ */
+final class StaxXmlReader extends AbstractUniReader {
+    static final String ATTRIBUTE_PREFIX = "@";
+    static final String TEXT_FIELD = "#text";
+    private final XMLStreamReader xml;
+    private final Deque<Event> pending = new ArrayDeque<>();
+    private boolean started = false;
+    private boolean finished = false;
+    private String value;
+
+    StaxXmlReader(StaxXmlAdapter adapter, XMLStreamReader xml) {
+        super(adapter);
+
+        this.xml = xml;
+    }
+
+    @Override
+    protected UniToken advance() throws IOException {
+        try {
+            while (pending.isEmpty()) {
+                if (finished)
+                    return UniToken.END_DOCUMENT;
+                if (!started) {
+                    started = true;
+                    if (moveToRoot())
+                        openElement(true);
+                    continue;
+                }
+                if (!xml.hasNext()) {
+                    finished = true;
+                    continue;
+                }
+
+                switch (xml.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        openElement(false);
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        pending.add(new Event(UniToken.END_OBJECT, null));
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (!xml.isWhiteSpace()) {
+                            pending.add(new Event(UniToken.FIELD_NAME, TEXT_FIELD));
+                            pending.add(new Event(UniToken.VALUE_STRING, xml.getText().trim()));
+                        }
+                        break;
+                    case XMLStreamConstants.END_DOCUMENT:
+                        finished = true;
+                        break;
+                }
+            }
+
+            final Event event = pending.poll();
+            value = event.value;
+            return event.token;
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not read XML", e);
+        }
+    }
+
+    @Override
+    protected @Nullable Object tokenValue() {
+        return value;
+    }
+
+    @Override
+    protected Map<String, Object> createObject() {
+        return new LinkedHashMap<String, Object>() {
+            @Override
+            public Object put(String key, Object value) {
+                final Object prev = get(key);
+                if (prev == null && !containsKey(key))
+                    return super.put(key, value);
+
+                final List<Object> list;
+                if (prev instanceof RepeatedElements)
+                    list = (RepeatedElements) prev;
+                else {
+                    list = new RepeatedElements();
+                    list.add(prev);
+                }
+                list.add(value);
+                return super.put(key, list);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not close XML reader", e);
+        }
+    }
+
+    private boolean moveToRoot() throws XMLStreamException {
+        while (xml.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            if (!xml.hasNext()) {
+                finished = true;
+                return false;
+            }
+            xml.next();
+        }
+        return true;
+    }
+
+    private void openElement(boolean root) throws XMLStreamException {
+        final String name = xml.getLocalName();
+        final int attributeCount = xml.getAttributeCount();
+        final String[] attributes = new String[attributeCount * 2];
+        for (int i = 0; i < attributeCount; i++) {
+            attributes[i * 2] = ATTRIBUTE_PREFIX + xml.getAttributeLocalName(i);
+            attributes[i * 2 + 1] = xml.getAttributeValue(i);
+        }
+
+        final StringBuilder text = new StringBuilder();
+        int event;
+        do {
+            event = xml.next();
+            if (event == XMLStreamConstants.CHARACTERS
+                    || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE)
+                text.append(xml.getText());
+        } while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT);
+
+        if (!root)
+            pending.add(new Event(UniToken.FIELD_NAME, name));
+        if (event == XMLStreamConstants.END_ELEMENT && attributeCount == 0) {
+            pending.add(new Event(UniToken.VALUE_STRING, text.toString()));
+            return;
+        }
+
+        pending.add(new Event(UniToken.START_OBJECT, null));
+        for (int i = 0; i < attributes.length; i += 2) {
+            pending.add(new Event(UniToken.FIELD_NAME, attributes[i]));
+            pending.add(new Event(UniToken.VALUE_STRING, attributes[i + 1]));
+        }
+        final String trimmed = text.toString().trim();
+        if (!trimmed.isEmpty()) {
+            pending.add(new Event(UniToken.FIELD_NAME, TEXT_FIELD));
+            pending.add(new Event(UniToken.VALUE_STRING, trimmed));
+        }
+
+        if (event == XMLStreamConstants.START_ELEMENT)
+            openElement(false);
+        else pending.add(new Event(UniToken.END_OBJECT, null));
+    }
+
+    private static final class RepeatedElements extends ArrayList<Object> {
+    }
+
+    private static final class Event {
+        private final UniToken token;
+        private final String value;
+
+        private Event(UniToken token, String value) {
+            this.token = token;
+            this.value = value;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package org.comroid.test.uniform;
 
 import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
+import org.comroid.uniform.adapter.xml.stax.StaxXmlAdapter;
+import org.comroid.uniform.io.UniReader;
+import org.comroid.uniform.io.UniToken;
 import org.comroid.uniform.node.UniArrayNode;
 import org.comroid.uniform.node.UniNode;
 import org.comroid.uniform.node.UniObjectNode;
@@ -11,9 +14,18 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -93,4 +105,83 @@ public class UniNodeTest {
                 .map(UniNode::asRaw)
                 .forEach(raw -> Assert.assertTrue("value missing: " + raw, array.contains(raw)));
     }
+
+    @Test
+    public void testWriteTo() throws IOException {
+        object.put("text", StandardValueType.STRING, "\u00e4\u00f6\u00fc \u20ac");
+        final byte[] expected = object.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        object.writeTo(out);
+        Assert.assertArrayEquals("stream output", expected, out.toByteArray());
+
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+        Assert.assertEquals("buffer output length", expected.length, object.writeTo(buffer));
+        Assert.assertArrayEquals("buffer output", expected, buffer.array());
+    }
+
+    @Test
+    public void testReader() throws IOException {
+        object.putArray("skipped").addObject().put("nested", StandardValueType.STRING, "value");
+        final Map<String, Integer> read = new HashMap<>();
+
+        try (UniReader reader = fastJsonLib.createReader(new StringReader(object.toString()))) {
+            reader.expect(UniToken.START_OBJECT);
+            while (reader.hasNext()) {
+                final String name = reader.readFieldName();
+                if (name.equals("skipped"))
+                    reader.skipValue();
+                else read.put(name, reader.readInt());
+            }
+            reader.expect(UniToken.END_OBJECT);
+            Assert.assertEquals("end of document", UniToken.END_DOCUMENT, reader.peek());
+        }
+
+        Assert.assertEquals("read values", randomMap, read);
+    }
+
+    @Test
+    public void testParseLazy() {
+        object.putObject("nested").put("text", StandardValueType.STRING, "lazy \\\"value\\\"");
+        final UniObjectNode lazy = fastJsonLib
+                .parseLazy(object.toString().getBytes(StandardCharsets.UTF_8))
+                .asObjectNode();
+
+        randomMap.forEach((key, value) -> Assert.assertEquals("lazy value, key: " + key, (int) value, lazy.get(key).asInt(0)));
+        Assert.assertEquals("lazy nested value", "lazy \\\"value\\\"", lazy.get("nested").get("text").asString());
+        Assert.assertEquals("lazy reserialized", object.toString(), lazy.toString());
+    }
+
+    @Test(timeout = 10_000)
+    public void testParseLazyConcurrently() throws Exception {
+        final UniObjectNode lazy = fastJsonLib
+                .parseLazy(object.toString().getBytes(StandardCharsets.UTF_8))
+                .asObjectNode();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            final List<Future<Boolean>> readers = IntStream.range(0, 4)
+                    .mapToObj(i -> executor.submit(() -> randomMap.entrySet().stream()
+                            .allMatch(entry -> lazy.get(entry.getKey()).asInt(0) == entry.getValue())))
+                    .collect(Collectors.toList());
+            for (Future<Boolean> reader : readers)
+                Assert.assertTrue("concurrently decoded values", reader.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStaxXml() {
+        final UniObjectNode xml = StaxXmlAdapter.instance
+                .parse("<data id=\"1\"><name>abc</name><tag>a</tag><tag>b</tag></data>")
+                .asObjectNode();
+
+        Assert.assertEquals("attribute", "1", xml.get("@id").asString());
+        Assert.assertEquals("element", "abc", xml.get("name").asString());
+        Assert.assertEquals("repeated elements", 2, xml.get("tag").asArrayNode().size());
+
+        final UniNode reparsed = StaxXmlAdapter.instance.parse(xml.toString());
+        Assert.assertEquals("reserialized", xml.getBaseNode(), reparsed.getBaseNode());
+    }
 }
@@ -15,8 +15,10 @@ import org.comroid.uniform.node.UniObjectNode;
 import org.comroid.varbind.bind.VarBind;
 import org.comroid.varbind.container.DataContainer;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.UUID;
 import java.util.function.BiFunction;
 
@@ -83,9 +85,9 @@ public class FileCache<K, V extends DataContainer<V>>
                 });
 
         try (
-                final FileWriter writer = new FileWriter(file, false)
+                final OutputStream out = new BufferedOutputStream(new FileOutputStream(file, false))
         ) {
-            writer.write(data.toString());
+            data.writeTo(out);
         }
 
         return data.size();
@@ -25,6 +25,7 @@ public final class GroupBind<T extends DataContainer<? super T>> implements Iter
     private final String groupName;
     private final List<GroupBind<? super T>> parents;
     private final @Nullable BiFunction<ContextualProvider, UniNode, T> resolver;
+    private volatile @Nullable GroupBindCodec<T> codec;
 
     public List<? extends VarBind<T, ?, ?, ?>> getDirectChildren() {
         return Collections.unmodifiableList(children);
@@ -57,6 +58,13 @@ public final class GroupBind<T extends DataContainer<? super T>> implements Iter
         return serializationAdapter;
     }
 
+    public GroupBindCodec<T> getCodec() {
+        GroupBindCodec<T> codec = this.codec;
+        if (codec == null)
+            this.codec = codec = new GroupBindCodec<>(this);
+        return codec;
+    }
+
     public <R> Optional<? extends VarBind<? super T, ?, ?, ?>> getIdentifier() {
         return streamAllChildren().filter(VarBind::identifier).findAny();
     }
@@ -224,7 +232,7 @@ public final class GroupBind<T extends DataContainer<? super T>> implements Iter
     }
 
     public boolean isValidData(UniObjectNode data) {
-        return streamAllChildren().allMatch(bind -> data.has(bind.getFieldName()) || !bind.isRequired());
+        return getCodec().isValidData(data);
     }
 
     public Stream<? extends VarBind<? super T, ?, ?, ?>> streamAllChildren() {
@@ -262,6 +270,7 @@ public final class GroupBind<T extends DataContainer<? super T>> implements Iter
     ) {
         final GroupBind<R> groupBind = new GroupBind<>(this, serializationAdapter, subGroupName, resolver);
         parent.subgroups.add(Polyfill.uncheckedCast(groupBind));
+        parent.invalidateCodec();
         return groupBind;
     }
 
@@ -272,6 +281,12 @@ public final class GroupBind<T extends DataContainer<? super T>> implements Iter
     @Internal
     public void addChild(VarBind<T, ?, ?, ?> child) {
         children.add(Polyfill.uncheckedCast(child));
+        invalidateCodec();
+    }
+
+    private void invalidateCodec() {
+        codec = null;
+        subgroups.forEach(GroupBind::invalidateCodec);
     }
 
     @NotNull
@@ -281,9 +296,6 @@ public final class GroupBind<T extends DataContainer<? super T>> implements Iter
     }
 
     public VarBind<? super T, ?, ?, ?> findChildByName(String name) {
-        return streamAllChildren()
-                .filter(bind -> bind.getFieldName().equals(name))
-                .findAny()
-                .orElse(null);
+        return getCodec().getBind(name);
     }
 }
@@ -0,0 +1,208 @@
+package org.comroid.varbind.bind;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.comroid.api.Polyfill;
+import org.comroid.api.ValueBox;
+import org.comroid.mutatio.ref.KeyedReference;
+import org.comroid.mutatio.ref.ReferenceList;
+import org.comroid.uniform.SerializationAdapter;
+import org.comroid.uniform.io.UniReader;
+import org.comroid.uniform.io.UniToken;
+import org.comroid.uniform.model.Serializable;
+import org.comroid.uniform.node.UniNode;
+import org.comroid.uniform.node.UniObjectNode;
+import org.comroid.varbind.container.DataContainer;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * A codec compiled from the binds of a {@link GroupBind}.
+ * <p>
+ * Decoding reads tokens from a {@link UniReader}, or the adapter's base structure of an object node,
+ * directly into the extraction slots of a container, so that only nested objects and arrays are wrapped into {@link UniNode}s.
+ * Values of unknown fields are skipped without being materialized.
+ * Encoding writes the extraction slots of a container directly into a base structure and hands it to the adapter.
+ *
+ * @param <T> The container type
+ */
+public final class GroupBindCodec<T extends DataContainer<? super T>> {
+    private static final Logger logger = LogManager.getLogger();
+    private final GroupBind<T> group;
+    private final Map<String, VarBind<? super T, ?, ?, ?>> binds;
+    private final String[] requiredNames;
+
+    public GroupBind<T> getGroup() {
+        return group;
+    }
+
+    public Collection<VarBind<? super T, ?, ?, ?>> getBinds() {
+        return binds.values();
+    }
+
+    GroupBindCodec(GroupBind<T> group) {
+        final Map<String, VarBind<? super T, ?, ?, ?>> binds = new LinkedHashMap<>();
+        group.streamAllChildren().forEach(bind -> binds.putIfAbsent(bind.getFieldName(), bind));
+
+        this.group = group;
+        this.binds = Collections.unmodifiableMap(binds);
+        this.requiredNames = binds.values()
+                .stream()
+                .filter(VarBind::isRequired)
+                .map(VarBind::getFieldName)
+                .toArray(String[]::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @Nullable Map<String, Object> baseMap(UniNode node) {
+        final Object base = node.getBaseNode();
+        return base instanceof Map ? (Map<String, Object>) base : null;
+    }
+
+    public @Nullable VarBind<? super T, ?, ?, ?> getBind(String fieldName) {
+        return binds.get(fieldName);
+    }
+
+    public boolean isValidData(UniObjectNode data) {
+        final Map<String, Object> base = baseMap(data);
+
+        for (String name : requiredNames)
+            if (base == null ? !data.has(name) : !base.containsKey(name))
+                return false;
+        return true;
+    }
+
+    public Set<VarBind<? extends T, Object, ?, Object>> decode(DataContainer<T> into, UniObjectNode data) {
+        final SerializationAdapter<Object, Object, Object> seriLib = Polyfill.uncheckedCast(data.getSerializationAdapter());
+        final Map<String, Object> base = baseMap(data);
+        final Map<String, Object> source = base == null ? data : base;
+        final Set<VarBind<? extends T, Object, ?, Object>> initialized = new HashSet<>();
+
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            final String key = entry.getKey();
+            final VarBind<? super T, ?, ?, ?> bind = binds.get(key);
+            if (bind == null) {
+                logger.warn("No bind found for key {}; skipping", key);
+                continue;
+            }
+
+            // values of lazily parsed nodes are only decoded here
+            final Object value = entry.getValue();
+            if (value == null)
+                continue;
+
+            if (store(into, key, bind, base == null ? value : wrapNested(seriLib, value)))
+                initialized.add(Polyfill.uncheckedCast(bind));
+        }
+
+        return Collections.unmodifiableSet(initialized);
+    }
+
+    public Set<VarBind<? extends T, Object, ?, Object>> decode(DataContainer<T> into, UniReader reader) throws IOException {
+        final Set<VarBind<? extends T, Object, ?, Object>> initialized = new HashSet<>();
+
+        reader.expect(UniToken.START_OBJECT);
+        while (reader.hasNext()) {
+            final String key = reader.readFieldName();
+            final VarBind<? super T, ?, ?, ?> bind = binds.get(key);
+
+            if (bind == null) {
+                logger.warn("No bind found for key {}; skipping", key);
+                reader.skipValue();
+                continue;
+            }
+
+            final UniToken token = reader.peek();
+            if (token == UniToken.VALUE_NULL) {
+                reader.skipValue();
+                continue;
+            }
+
+            final Object value = token.isScalarValue() ? reader.readPrimitive() : reader.readNode();
+            if (store(into, key, bind, value))
+                initialized.add(Polyfill.uncheckedCast(bind));
+        }
+        reader.expect(UniToken.END_OBJECT);
+
+        return Collections.unmodifiableSet(initialized);
+    }
+
+    public void writeTo(DataContainer<? extends T> container, OutputStream out) throws IOException {
+        final SerializationAdapter<?, ?, ?> seriLib = container.requireFromContext(SerializationAdapter.class);
+        final UniObjectNode node = seriLib.createObjectNode();
+        final Map<String, Object> base = baseMap(node);
+
+        if (base == null)
+            container.toObjectNode(node);
+        else encodeInto(container, base);
+        node.writeTo(out);
+    }
+
+    private void encodeInto(DataContainer<?> container, Map<String, Object> target) {
+        for (String name : binds.keySet()) {
+            final KeyedReference<String, ReferenceList> ref = container.getInputReference(name, false);
+            if (ref == null)
+                continue;
+
+            final ReferenceList<?> refs = ref.get();
+            if (refs == null || refs.size() == 0)
+                continue;
+
+            if (refs.size() == 1)
+                target.put(name, unwrap(refs.get(0)));
+            else {
+                final List<Object> list = new ArrayList<>(refs.size());
+                for (int i = 0; i < refs.size(); i++)
+                    list.add(unwrap(refs.get(i)));
+                target.put(name, list);
+            }
+        }
+    }
+
+    private static Object unwrap(Object value) {
+        if (value instanceof DataContainer) {
+            final DataContainer<?> container = (DataContainer<?>) value;
+            final Map<String, Object> map = new LinkedHashMap<>();
+            container.getRootBind().getCodec().encodeInto(container, map);
+            return map;
+        }
+        if (value instanceof Serializable) {
+            final UniNode node = ((Serializable) value).toUniNode();
+            return node.isValueNode() ? node.asRaw(null) : node.getBaseNode();
+        }
+        if (value instanceof ValueBox)
+            return ((ValueBox<?>) value).getValue();
+        return value;
+    }
+
+    private static Object wrapNested(SerializationAdapter<Object, Object, Object> seriLib, Object value) {
+        if (seriLib.getObjectType().test(value))
+            return seriLib.createObjectNode(value);
+        if (seriLib.getArrayType().test(value))
+            return seriLib.createArrayNode(value);
+        return value;
+    }
+
+    private boolean store(DataContainer<T> into, String key, VarBind<? super T, ?, ?, ?> bind, Object value) {
+        final KeyedReference<String, ReferenceList<Object>> eRef = into.getExtractionReference(key);
+        eRef.compute(refs -> {
+            if (refs == null)
+                refs = new ReferenceList<>();
+            else refs.clear();
+            refs.add(value);
+            return refs;
+        });
+
+        final KeyedReference<VarBind, Object> cRef = into.getComputedReference(Polyfill.<VarBind<?, ?, ?, Object>>uncheckedCast(bind));
+        Object prev;
+        try {
+            prev = cRef.get();
+        } catch (ClassCastException cce) {
+            throw new IllegalStateException(group.getName() + ": Data has invalid structure; failed at key " + key, cce);
+        }
+        return cRef.get() != prev;
+    }
+}
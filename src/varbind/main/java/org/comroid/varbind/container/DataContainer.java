@@ -9,6 +9,7 @@ import org.comroid.mutatio.ref.KeyedReference;
 import org.comroid.mutatio.ref.Reference;
 import org.comroid.mutatio.ref.ReferenceList;
 import org.comroid.uniform.SerializationAdapter;
+import org.comroid.uniform.io.UniReader;
 import org.comroid.uniform.model.Serializable;
 import org.comroid.uniform.node.UniObjectNode;
 import org.comroid.varbind.bind.GroupBind;
@@ -17,6 +18,8 @@ import org.jetbrains.annotations.ApiStatus.Internal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.util.List;
 import java.util.Optional;
@@ -87,6 +90,10 @@ public interface DataContainer<S extends DataContainer<? super S>>
 
     Set<VarBind<? extends S, Object, ?, Object>> updateFrom(UniObjectNode node);
 
+    default Set<VarBind<? extends S, Object, ?, Object>> updateFrom(UniReader reader) throws IOException {
+        return getRootBind().getCodec().decode(this, reader);
+    }
+
     void updateFrom(Connection db, String table);
 
     void updateInto(Connection db, String table);
@@ -125,6 +132,11 @@ public interface DataContainer<S extends DataContainer<? super S>>
         return toObjectNode(this);
     }
 
+    @Override
+    default void writeTo(OutputStream out) throws IOException {
+        getRootBind().getCodec().writeTo(this, out);
+    }
+
     default UniObjectNode toObjectNode(ContextualProvider context) {
         //noinspection unchecked
         return toObjectNode(context.requireFromContext(SerializationAdapter.class)
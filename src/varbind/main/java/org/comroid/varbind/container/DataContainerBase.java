@@ -128,34 +128,7 @@ public class DataContainerBase<S extends DataContainer<? super S>>
     public final Set<VarBind<? extends S, Object, ?, Object>> updateFrom(UniObjectNode node) {
         if (node == null)
             return Collections.emptySet();
-        final Set<VarBind<? extends S, Object, ?, Object>> initialized = new HashSet<>();
-        node.forEach((key, value) -> {
-            KeyedReference<String, ReferenceList<Object>> eRef = getExtractionReference(key);
-            VarBind<? extends S, ?, ?, Object> bind = getBindByName(key);
-
-            if (bind == null) {
-                logger.warn("No bind found for key {}; skipping", key);
-                return;
-            }
-
-            eRef.compute(refs -> {
-                if (refs == null)
-                    refs = new ReferenceList<>();
-                else refs.clear();
-                refs.add(value);
-                return refs;
-            });
-            KeyedReference<VarBind, Object> cRef = getComputedReference(bind);
-            Object prev;
-            try {
-                prev = cRef.get();
-            } catch (ClassCastException cce) {
-                throw new IllegalStateException(getRootBind().getName() + ": Data has invalid structure; failed at key " + key, cce);
-            }
-            if (cRef.get() != prev)
-                initialized.add(Polyfill.uncheckedCast(bind));
-        });
-        return Collections.unmodifiableSet(initialized);
+        return group.getCodec().decode(this, node);
     }
 
     @Override
@@ -95,7 +95,7 @@ public final class WebkitConfiguration implements ContextualProvider.Underlying
         if (!frames.containsKey(name))
             throw new NoSuchElementException("Could not find frame with name " + name);
         String resource = frames.get(name);
-        return WebkitResourceLoader.getResource(resource);
+        return WebkitResourceLoader.getCachedResource(resource);
     }
 
     public Stream<String> streamPartNames() {
@@ -106,7 +106,7 @@ public final class WebkitConfiguration implements ContextualProvider.Underlying
         if (!parts.containsKey(name))
             throw new NoSuchElementException("Could not find part with name " + name);
         String resource = parts.get(name);
-        return WebkitResourceLoader.getResource(resource);
+        return WebkitResourceLoader.getCachedResource(resource);
     }
 
     public Stream<String> streamPanelNames() {
@@ -117,6 +117,6 @@ public final class WebkitConfiguration implements ContextualProvider.Underlying
         if (!panels.containsKey(name))
             throw new NoSuchElementException("Could not find panel with name " + name);
         String resource = panels.get(name);
-        return WebkitResourceLoader.getResource(resource);
+        return WebkitResourceLoader.getCachedResource(resource);
     }
 }
@@ -3,13 +3,22 @@ package org.comroid.webkit.config;
 import org.comroid.api.ResourceLoader;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class WebkitResourceLoader {
     public static final String RESOURCE_PREFIX = "org/comroid/webkit/";
     public static final String INTERNAL_RESOURCE_PREFIX = "org/comroid/webkit/internal/";
     public static ResourceLoader LOADER = null;
+    // read from cacheLoader; dropped once LOADER is replaced
+    private static final Map<String, byte[]> cache = new ConcurrentHashMap<>();
+    private static ResourceLoader cacheLoader = null;
 
     public static @NotNull InputStream getInternalResource(String name) {
         return getResource(true, name);
@@ -38,6 +47,41 @@ public class WebkitResourceLoader {
         return resource;
     }
 
+    public static @NotNull InputStream getCachedInternalResource(String name) {
+        return getCachedResource(true, name);
+    }
+
+    public static @NotNull InputStream getCachedResource(String name) {
+        return getCachedResource(false, name);
+    }
+
+    /**
+     * Reads the resource once and serves later requests for it from memory, until the {@link #LOADER} is replaced.
+     */
+    public static @NotNull InputStream getCachedResource(boolean internal, String name) {
+        if (LOADER == null)
+            initialize();
+        synchronized (cache) {
+            if (cacheLoader != LOADER) {
+                cache.clear();
+                cacheLoader = LOADER;
+            }
+        }
+        final byte[] content = cache.computeIfAbsent((internal ? INTERNAL_RESOURCE_PREFIX : RESOURCE_PREFIX) + name, key -> {
+            try (InputStream resource = getResource(internal, name)) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = resource.read(buffer)) != -1)
+                    out.write(buffer, 0, read);
+                return out.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read resource " + key, e);
+            }
+        });
+        return new ByteArrayInputStream(content);
+    }
+
     public static ResourceLoader initialize() {
         return initialize(ResourceLoader.ofSystemClassLoader());
     }
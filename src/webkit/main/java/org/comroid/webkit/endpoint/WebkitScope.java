@@ -8,20 +8,17 @@ import org.comroid.restless.exception.RestEndpointException;
 import org.comroid.uniform.Context;
 import org.comroid.uniform.node.UniNode;
 import org.comroid.uniform.node.UniObjectNode;
-import org.comroid.util.ReaderUtil;
-import org.comroid.webkit.config.WebkitResourceLoader;
 import org.comroid.webkit.frame.FrameBuilder;
 import org.comroid.webkit.model.PagePropertiesProvider;
 import org.comroid.webkit.server.EndpointHandler;
 import org.comroid.webkit.server.WebkitServer;
 import org.intellij.lang.annotations.Language;
 
-import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Map;
 
-import static org.comroid.restless.HTTPStatusCodes.INTERNAL_SERVER_ERROR;
 import static org.comroid.restless.HTTPStatusCodes.OK;
 
 public enum WebkitScope implements EndpointScope, EndpointHandler {
@@ -52,23 +49,24 @@ public enum WebkitScope implements EndpointScope, EndpointHandler {
             return true;
         }
     },
+    /**
+     * The session data of the API; the API script itself is a static resource.
+     *
+     * @see WebkitServer#API_SCRIPT_PATH
+     */
     WEBKIT_API("/webkit/api") {
         @Override
         public REST.Response executeGET(Context context, URI requestURI, REST.Request<UniNode> request, String[] urlParams) throws RestEndpointException {
-            InputStream resource = WebkitResourceLoader.getInternalResource("api.js");
-            if (resource == null)
-                throw new RestEndpointException(INTERNAL_SERVER_ERROR, "Could not find API in resources");
             REST.Header.List headers = request.getHeaders();
             Map<String, Object> pageProperties = context
                     .requireFromContext(WebkitServer.class)
                     .findPageProperties(headers);
             UniObjectNode obj = context.createObjectNode();
             obj.putAll(pageProperties);
-            return new REST.Response(OK, "application/javascript", ReaderUtil.combine(
+            return new REST.Response(OK, "application/javascript", new StringReader(
                     String.format("isWindows = %s;\nsocketToken = '%s';\nsessionData = JSON.parse('%s');\n",
                             OS.isWindows, headers.tryFirst(CommonHeaderNames.AUTHORIZATION)
-                                    .orElseGet(() -> headers.getFirst(CommonHeaderNames.COOKIE)), obj.toSerializedString()),
-                    resource));
+                                    .orElseGet(() -> headers.getFirst(CommonHeaderNames.COOKIE)), obj.toSerializedString())));
         }
     };
 
@@ -8,11 +8,12 @@ import org.comroid.mutatio.ref.Reference;
 import org.comroid.restless.REST;
 import org.comroid.webkit.config.WebkitConfiguration;
 import org.comroid.webkit.model.PagePropertiesProvider;
+import org.comroid.webkit.server.WebkitServer;
 import org.jetbrains.annotations.Nullable;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
 
-import javax.script.*;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -20,8 +21,6 @@ import java.io.InputStreamReader;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Supplier;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -29,12 +28,12 @@ public final class FrameBuilder implements Builder<Document>, StringSerializable
     public static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\[([\\w\\d\\S.]+?)]");
     public static final Reference<ClassLoader> classLoader;
     private static final Logger logger;
-    private static final Reference<ScriptEngine> jsEngine;
+    private static final ScriptEvaluator scriptEvaluator;
 
     static {
         logger = LogManager.getLogger();
         classLoader = Reference.create(ClassLoader.getSystemClassLoader());
-        jsEngine = classLoader.map(loader -> new ScriptEngineManager(loader).getEngineByExtension("js"));
+        scriptEvaluator = ScriptEvaluator.javascript(classLoader::get);
     }
 
     public final String host;
@@ -105,10 +104,13 @@ public final class FrameBuilder implements Builder<Document>, StringSerializable
                 .map(entry -> String.format("%s -> %s", entry.getKey(), entry.getValue()))
                 .collect(Collectors.joining("\n")));
 
-        // add api script
+        // add api script after its session data; the script itself is static and revalidated by its ETag
         frame.head().appendElement("script")
                 .attr("type", "application/javascript")
                 .attr("src", String.format("http%s://%s/webkit/api", isSecure ? "s" : "", host));
+        frame.head().appendElement("script")
+                .attr("type", "application/javascript")
+                .attr("src", String.format("http%s://%s%s", isSecure ? "s" : "", host, WebkitServer.API_SCRIPT_PATH));
         frame.body().attr("onload", "initAPI()");
         frame.body().attr("onclose", "disconnectAPI()");
     }
@@ -185,25 +187,18 @@ public final class FrameBuilder implements Builder<Document>, StringSerializable
 
     private static void fabricate$applyWhenAttributes(Document frame, Map<String, Object> pageProperties) {
         // apply when-attributes
-        frame.getElementsByAttribute("when")
-                .forEach(dom -> {
-                    String script = dom.attr("when");
-                    boolean keep = jsEngine.peek(engine -> {
-                        Bindings bindings = engine.createBindings();
-                        bindings.putAll(pageProperties);
-                        engine.setBindings(bindings, ScriptContext.GLOBAL_SCOPE);
-                    }).map(engine -> {
-                        try {
-                            return engine.eval(script);
-                        } catch (ScriptException e) {
-                            logger.warn("Attribute evaluation failed; removing " + dom, e);
-                            return false;
-                        }
-                    }).flatMap(Boolean.class).orElse(false);
-                    if (!keep)
-                        dom.remove();
-                    dom.removeAttr("when");
-                });
+        final Elements conditional = frame.getElementsByAttribute("when");
+        if (conditional.isEmpty())
+            return;
+
+        try (ScriptEvaluator.Session scripts = scriptEvaluator.open(pageProperties)) {
+            conditional.forEach(dom -> {
+                String script = dom.attr("when");
+                if (!scripts.test(script))
+                    dom.remove();
+                dom.removeAttr("when");
+            });
+        }
     }
 
     private static void fabricate$applyPanels(Document frame) {
@@ -240,11 +235,7 @@ public final class FrameBuilder implements Builder<Document>, StringSerializable
     }
 
     private static String resolveValue(Map<String, Object> stage, String[] path, int index) {
-        Object it = stage.get(path[index]);
-        if (index + 1 >= path.length || it instanceof String)
-            return String.valueOf(it);
-        //noinspection unchecked
-        return resolveValue((Map<String, Object>) it, path, index + 1);
+        return Template.resolve(stage, path, index);
     }
 
     private static String findFrameData(String frame) {
@@ -273,21 +264,8 @@ public final class FrameBuilder implements Builder<Document>, StringSerializable
     }
 
     public static String postfabString(final Map<String, Object> pageProperties, String untreated) {
-        boolean isDebug = OS.isWindows; // fixme Wrong isDebug check
-
-        // fill in vars
-        Matcher matcher = VARIABLE_PATTERN.matcher(untreated);
-        while (matcher.find()) {
-            String vname = matcher.group(1);
-            String value = resolveValue(pageProperties, vname.split("\\."), 0);
-            MatchResult result = matcher.toMatchResult();
-            untreated = untreated.substring(0, result.start()) + value + untreated.substring(result.end());
-        }
-
-        // replace ~ with http
-        untreated = untreated.replace("~/", isDebug ? "http://" : "https://");
-
-        return untreated;
+        // fill in vars and replace ~ with http; the document differs per request, so the template is not cached
+        return Template.compile(untreated).render(pageProperties);
     }
 
     @Override
@@ -0,0 +1,185 @@
+package org.comroid.webkit.frame;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import javax.script.*;
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates script expressions against page properties from concurrent renders.
+ * <p>
+ * Script engines are not shared between threads; instead, up to {@code poolSize} engines are created on demand
+ * and lent to one render at a time.
+ * Every render evaluates in its own {@link ScriptContext}, so that no bindings leak between renders.
+ * Expressions are compiled once per engine and cached by their text, if the engine is {@link Compilable}.
+ */
+public final class ScriptEvaluator {
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_COMPILED_EXPRESSIONS = 1024;
+    private static final Logger logger = LogManager.getLogger();
+    private final Supplier<ScriptEngine> engineFactory;
+    private final int poolSize;
+    private final BlockingQueue<Slot> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger created = new AtomicInteger(0);
+    private volatile boolean unavailable = false;
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @param engineFactory Creates a new engine for the pool; may return {@code null} if no engine is available
+     * @param poolSize      The maximum amount of engines, and thereby of concurrent renders
+     */
+    public ScriptEvaluator(Supplier<ScriptEngine> engineFactory, int poolSize) {
+        if (poolSize < 1)
+            throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+
+        this.engineFactory = engineFactory;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * @param classLoader Supplies the class loader to look up the JavaScript engine with
+     */
+    public static ScriptEvaluator javascript(Supplier<ClassLoader> classLoader) {
+        return new ScriptEvaluator(() -> new ScriptEngineManager(classLoader.get()).getEngineByExtension("js"), DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Borrows an engine for one render. Blocks while all engines are in use.
+     *
+     * @param properties The variables available to the expressions of this render
+     */
+    public Session open(Map<String, Object> properties) {
+        final Slot slot = acquire();
+        if (slot == null)
+            return new Session(null, null);
+
+        try {
+            final Bindings bindings = slot.engine.createBindings();
+            bindings.putAll(properties);
+            final ScriptContext context = new SimpleScriptContext();
+            context.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+            return new Session(slot, context);
+        } catch (RuntimeException e) {
+            idle.add(slot);
+            throw e;
+        }
+    }
+
+    private @Nullable Slot acquire() {
+        if (unavailable)
+            return null;
+
+        Slot slot = idle.poll();
+        if (slot != null)
+            return slot;
+
+        if (created.incrementAndGet() <= poolSize) {
+            final ScriptEngine engine;
+            try {
+                engine = engineFactory.get();
+            } catch (Throwable t) {
+                created.decrementAndGet();
+                throw t;
+            }
+            if (engine != null)
+                return new Slot(engine);
+
+            logger.warn("No script engine available; expressions evaluate to false");
+            unavailable = true;
+            return null;
+        }
+        created.decrementAndGet();
+
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a script engine", e);
+        }
+    }
+
+    private static final class Slot {
+        private final ScriptEngine engine;
+        private final Map<String, CompiledScript> compiled = new LinkedHashMap<String, CompiledScript>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+                return size() > MAX_COMPILED_EXPRESSIONS;
+            }
+        };
+
+        private Slot(ScriptEngine engine) {
+            this.engine = engine;
+        }
+
+        private Object eval(String expression, ScriptContext context) throws ScriptException {
+            if (!(engine instanceof Compilable))
+                return engine.eval(expression, context);
+
+            CompiledScript script = compiled.get(expression);
+            if (script == null) {
+                script = ((Compilable) engine).compile(expression);
+                compiled.put(expression, script);
+            }
+            return script.eval(context);
+        }
+    }
+
+    /**
+     * The evaluation scope of one render. Sessions must be closed to return their engine to the pool,
+     * and must not be used by more than one thread at a time.
+     */
+    public final class Session implements Closeable {
+        private final @Nullable Slot slot;
+        private final @Nullable ScriptContext context;
+        private boolean closed = false;
+
+        private Session(@Nullable Slot slot, @Nullable ScriptContext context) {
+            this.slot = slot;
+            this.context = context;
+        }
+
+        /**
+         * @return The result of the expression, or {@code null} if no engine is available
+         * @throws ScriptException If the expression cannot be compiled or evaluated
+         */
+        public @Nullable Object eval(String expression) throws ScriptException {
+            if (closed)
+                throw new IllegalStateException("Session is closed");
+            if (slot == null)
+                return null;
+            return slot.eval(expression, context);
+        }
+
+        /**
+         * @return Whether the expression evaluates to {@code true}; {@code false} if it cannot be evaluated
+         */
+        public boolean test(String expression) {
+            try {
+                return Boolean.TRUE.equals(eval(expression));
+            } catch (ScriptException e) {
+                logger.warn("Evaluation of expression '{}' failed", expression, e);
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed)
+                return;
+            closed = true;
+            if (slot != null)
+                idle.add(slot);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.comroid.webkit.frame;
+
+import org.comroid.api.os.OS;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A document with {@code $[variable.path]} placeholders, split once into literal and variable segments.
+ * <p>
+ * Rendering resolves every variable against the page properties and writes all segments in a single pass,
+ * without scanning the document again.
+ * Links starting with {@code ~/} are completed with the scheme of the current environment.
+ *
+ * @see FrameBuilder#VARIABLE_PATTERN
+ */
+public final class Template {
+    private final List<Object> segments;
+    private final int literalLength;
+    private final int variableCount;
+
+    /**
+     * @return The amount of variables in this template
+     */
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    private Template(List<Object> segments, int literalLength, int variableCount) {
+        this.segments = segments;
+        this.literalLength = literalLength;
+        this.variableCount = variableCount;
+    }
+
+    /**
+     * Splits the source at every match of {@link FrameBuilder#VARIABLE_PATTERN}.
+     * The source is scanned directly instead of through the pattern, as this is considerably faster for large documents.
+     */
+    public static Template compile(String source) {
+        final List<Object> segments = new ArrayList<>();
+        int literalLength = 0, variableCount = 0, last = 0;
+
+        int start = source.indexOf("$[");
+        while (start != -1) {
+            final int end = findVariableEnd(source, start + 2);
+            if (end == -1) {
+                start = source.indexOf("$[", start + 1);
+                continue;
+            }
+
+            if (start > last) {
+                final String literal = completeLinks(source.substring(last, start));
+                segments.add(literal);
+                literalLength += literal.length();
+            }
+            segments.add(source.substring(start + 2, end).split("\\."));
+            variableCount++;
+            last = end + 1;
+            start = source.indexOf("$[", last);
+        }
+        if (last < source.length()) {
+            final String literal = completeLinks(source.substring(last));
+            segments.add(literal);
+            literalLength += literal.length();
+        }
+
+        return new Template(Collections.unmodifiableList(segments), literalLength, variableCount);
+    }
+
+    public String render(Map<String, Object> properties) {
+        final StringBuilder sb = new StringBuilder(literalLength + variableCount * 16);
+        try {
+            renderTo(properties, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException("StringBuilder cannot fail", e);
+        }
+        return sb.toString();
+    }
+
+    public void renderTo(Map<String, Object> properties, Appendable out) throws IOException {
+        for (Object segment : segments) {
+            if (segment instanceof String)
+                out.append((String) segment);
+            else out.append(completeLinks(resolve(properties, (String[]) segment, 0)));
+        }
+    }
+
+    static String resolve(Map<String, Object> stage, String[] path, int index) {
+        Object it = stage.get(path[index]);
+        if (index + 1 >= path.length || it instanceof String)
+            return String.valueOf(it);
+        //noinspection unchecked
+        return resolve((Map<String, Object>) it, path, index + 1);
+    }
+
+    /**
+     * @return The index of the closing bracket of a variable name starting at {@code from}, or {@code -1} if there is none
+     */
+    private static int findVariableEnd(String source, int from) {
+        // at least one character, up to the first closing bracket; whitespace ends the attempt
+        for (int i = from; i < source.length(); i++) {
+            final char c = source.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r')
+                return -1;
+            if (c == ']' && i > from)
+                return i;
+        }
+        return -1;
+    }
+
+    private static String completeLinks(String str) {
+        if (str.indexOf("~/") == -1)
+            return str;
+        boolean isDebug = OS.isWindows; // fixme Wrong isDebug check
+        return str.replace("~/", isDebug ? "http://" : "https://");
+    }
+}
@@ -0,0 +1,82 @@
+package org.comroid.webkit.server;
+
+/**
+ * Limits the outbound data of a {@link WebSocketConnection} that is not yet written to the client.
+ * <p>
+ * Once more than the high watermark is pending, the connection is congested and further messages are held back.
+ * Held back messages are written again once less than the low watermark is pending.
+ * The {@linkplain Policy policy} decides what happens to messages that exceed the high watermark while congested.
+ * Instances are immutable; every {@code with}-method returns a modified copy.
+ */
+public final class Backpressure {
+    public static final long DEFAULT_LOW_WATERMARK = 256 * 1024;
+    public static final long DEFAULT_HIGH_WATERMARK = 1024 * 1024;
+    public static final Backpressure UNBOUNDED = new Backpressure(Long.MAX_VALUE, Long.MAX_VALUE, Policy.DROP_OLDEST);
+    private final long lowWatermark;
+    private final long highWatermark;
+    private final Policy policy;
+
+    /**
+     * @return The amount of pending bytes below which held back messages are written again
+     */
+    public long getLowWatermark() {
+        return lowWatermark;
+    }
+
+    /**
+     * @return The maximum amount of pending and held back bytes
+     */
+    public long getHighWatermark() {
+        return highWatermark;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    private Backpressure(long lowWatermark, long highWatermark, Policy policy) {
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.policy = policy;
+    }
+
+    /**
+     * @return Backpressure with default watermarks, dropping the oldest messages
+     */
+    public static Backpressure standard() {
+        return new Backpressure(DEFAULT_LOW_WATERMARK, DEFAULT_HIGH_WATERMARK, Policy.DROP_OLDEST);
+    }
+
+    public Backpressure withWatermarks(long lowWatermark, long highWatermark) {
+        if (lowWatermark < 0 || lowWatermark > highWatermark)
+            throw new IllegalArgumentException(String.format("Invalid watermarks: low = %d, high = %d", lowWatermark, highWatermark));
+        return new Backpressure(lowWatermark, highWatermark, policy);
+    }
+
+    public Backpressure withPolicy(Policy policy) {
+        return new Backpressure(lowWatermark, highWatermark, policy);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Backpressure{low=%d, high=%d, policy=%s}", lowWatermark, highWatermark, policy);
+    }
+
+    public enum Policy {
+        /**
+         * Drops the oldest held back messages until the newest fits.
+         */
+        DROP_OLDEST,
+        /**
+         * Replaces a held back message with a newer one of the same key, keeping its position.
+         * Messages without a key are dropped like with {@link #DROP_OLDEST}.
+         *
+         * @see WebSocketConnection#sendText(String, String)
+         */
+        COALESCE,
+        /**
+         * Closes the connection once the high watermark is exceeded.
+         */
+        DISCONNECT
+    }
+}
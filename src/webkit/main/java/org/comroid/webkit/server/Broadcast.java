@@ -0,0 +1,120 @@
+package org.comroid.webkit.server;
+
+import org.comroid.api.StringSerializable;
+import org.java_websocket.WebSocket;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+/**
+ * A message for many connections, encoded and framed once.
+ * <p>
+ * The frame is an unmasked, final RFC 6455 frame in a read-only buffer that is shared by all receivers.
+ * Receivers that negotiated {@code permessage-deflate} without server context takeover share a compressed frame instead.
+ * Instances are immutable and may be sent any number of times.
+ *
+ * @see WebSocketServer#broadcast(Broadcast)
+ */
+public final class Broadcast {
+    private static final byte OPCODE_TEXT = 0x1;
+    private static final byte OPCODE_BINARY = 0x2;
+    private final @Nullable String text;
+    private final byte[] payload;
+    private final byte opcode;
+    private final ByteBuffer frame;
+    private volatile @Nullable ByteBuffer deflatedFrame = null;
+
+    /**
+     * @return The size of the framed message in bytes
+     */
+    public int getFrameLength() {
+        return frame.remaining();
+    }
+
+    private Broadcast(@Nullable String text, byte[] payload, byte opcode) {
+        this.text = text;
+        this.payload = payload;
+        this.opcode = opcode;
+        this.frame = frame((byte) (0x80 | opcode), payload);
+    }
+
+    public static Broadcast text(String text) {
+        return new Broadcast(text, text.getBytes(StandardCharsets.UTF_8), OPCODE_TEXT);
+    }
+
+    public static Broadcast text(StringSerializable serializable) {
+        return text(serializable.toSerializedString());
+    }
+
+    public static Broadcast binary(byte[] data) {
+        return new Broadcast(null, data.clone(), OPCODE_BINARY);
+    }
+
+    /**
+     * @return A view of the framed message with its own position
+     */
+    ByteBuffer frame() {
+        return frame.duplicate();
+    }
+
+    /**
+     * Compresses the message once, without context, for all connections that
+     * negotiated {@code permessage-deflate} with {@code server_no_context_takeover}.
+     *
+     * @return A view of the compressed frame with its own position
+     */
+    ByteBuffer deflatedFrame() {
+        ByteBuffer deflated = deflatedFrame;
+        if (deflated == null) {
+            final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                // RSV1 marks the message as compressed
+                deflated = frame((byte) (0x80 | 0x40 | opcode), PerMessageDeflateExtension.deflate(deflater, payload));
+            } finally {
+                deflater.end();
+            }
+            deflatedFrame = deflated;
+        }
+        return deflated.duplicate();
+    }
+
+    int getPayloadLength() {
+        return payload.length;
+    }
+
+    /**
+     * Sends the message through the regular API of the socket, which frames it again.
+     */
+    void sendTo(WebSocket socket) {
+        if (text != null)
+            socket.send(text);
+        else socket.send(payload);
+    }
+
+    private static ByteBuffer frame(byte head, byte[] payload) {
+        final int length = payload.length;
+        final int header = length < 126 ? 2 : length <= 0xFFFF ? 4 : 10;
+        final ByteBuffer buffer = ByteBuffer.allocate(header + length);
+
+        buffer.put(head);
+        if (length < 126)
+            buffer.put((byte) length);
+        else if (length <= 0xFFFF) {
+            buffer.put((byte) 126);
+            buffer.putShort((short) length);
+        } else {
+            buffer.put((byte) 127);
+            buffer.putLong(length);
+        }
+        buffer.put(payload);
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Broadcast{%s, %d bytes}", text != null ? "text" : "binary", payload.length);
+    }
+}
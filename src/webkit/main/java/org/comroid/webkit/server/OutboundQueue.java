@@ -0,0 +1,236 @@
+package org.comroid.webkit.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.framing.CloseFrame;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds back the outbound messages of a congested connection, according to its {@link Backpressure}.
+ * <p>
+ * Pending bytes are those queued in the socket but not yet written to the client.
+ * They are counted as messages are written to the socket, until its queue is seen empty,
+ * and only measured exactly before the connection becomes congested and while it drains.
+ * This only works for {@link WebSocketImpl} sockets; other sockets are written to directly.
+ */
+final class OutboundQueue {
+    static final long DRAIN_INTERVAL = 25; // milliseconds
+    private static final Logger logger = LogManager.getLogger();
+    private final WebSocketConnection connection;
+    private final WebSocket socket;
+    // insertion ordered; coalescing messages are keyed by their key, all others by their entry
+    private final Map<Object, Entry> held = new LinkedHashMap<>();
+    private long heldBytes = 0;
+    // written since the socket queue was last seen empty, or measured
+    private long queuedBytes = 0;
+    private long dropped = 0;
+    private boolean congested = false;
+    private boolean drainScheduled = false;
+
+    OutboundQueue(WebSocketConnection connection, WebSocket socket) {
+        this.connection = connection;
+        this.socket = socket;
+    }
+
+    /**
+     * @return The amount of messages pending in the socket or held back
+     */
+    synchronized int getDepth() {
+        final int pending = socket instanceof WebSocketImpl ? ((WebSocketImpl) socket).outQueue.size() : 0;
+        return pending + held.size();
+    }
+
+    /**
+     * @return The approximate amount of bytes pending in the socket or held back
+     */
+    synchronized long getBytes() {
+        return pendingBytes() + heldBytes;
+    }
+
+    synchronized long getDropped() {
+        return dropped;
+    }
+
+    synchronized boolean isCongested() {
+        return congested;
+    }
+
+    /**
+     * @param message A {@link String}, {@code byte[]} or {@link Broadcast}
+     * @param key     The key to coalesce the message by, or {@code null}
+     * @return Whether the message was written or held back
+     */
+    synchronized boolean send(Object message, @Nullable String key) {
+        final Entry entry = new Entry(message);
+        final Backpressure backpressure = connection.getBackpressure();
+        final WebSocketServer server = connection.server;
+
+        if (!congested) {
+            long pending = pendingBytes();
+            if (pending > 0 && entry.size > backpressure.getHighWatermark() - pending)
+                pending = measurePendingBytes();
+            if (server == null || pending == 0 || entry.size <= backpressure.getHighWatermark() - pending) {
+                write(entry);
+                return true;
+            }
+
+            logger.debug("Connection {} is congested with {} pending bytes", connection, pending);
+            congested = true;
+        }
+
+        if (!socket.isOpen()) {
+            dropped++;
+            return false;
+        }
+
+        switch (backpressure.getPolicy()) {
+            case DISCONNECT:
+                logger.warn("Closing connection {}; outbound limit of {} bytes exceeded", connection, backpressure.getHighWatermark());
+                dropped += held.size() + 1;
+                held.clear();
+                heldBytes = 0;
+                connection.close(CloseFrame.POLICY_VALIDATION, "Outbound limit exceeded");
+                return false;
+            case COALESCE:
+                // messages without a key fall through to dropping the oldest
+                if (key != null) {
+                    final Entry previous = held.put(key, entry);
+                    if (previous != null) {
+                        heldBytes -= previous.size;
+                        dropped++;
+                    }
+                    break;
+                }
+            default:
+                held.put(entry, entry);
+                break;
+        }
+        heldBytes += entry.size;
+
+        trim(backpressure.getHighWatermark() - pendingBytes());
+        scheduleDrain(server);
+        return held.containsValue(entry);
+    }
+
+    private void trim(long limit) {
+        final Iterator<Entry> iterator = held.values().iterator();
+        while (heldBytes > limit && held.size() > 1 && iterator.hasNext()) {
+            heldBytes -= iterator.next().size;
+            iterator.remove();
+            dropped++;
+        }
+    }
+
+    private void drain() {
+        synchronized (this) {
+            drainScheduled = false;
+            if (!socket.isOpen()) {
+                held.clear();
+                heldBytes = 0;
+                congested = false;
+                return;
+            }
+
+            final Backpressure backpressure = connection.getBackpressure();
+            long pending = measurePendingBytes();
+            if (pending <= backpressure.getLowWatermark()) {
+                final Iterator<Entry> iterator = held.values().iterator();
+                while (iterator.hasNext()) {
+                    final Entry entry = iterator.next();
+                    if (pending > 0 && entry.size > backpressure.getHighWatermark() - pending)
+                        break;
+                    iterator.remove();
+                    heldBytes -= entry.size;
+                    try {
+                        write(entry);
+                    } catch (WebsocketNotConnectedException e) {
+                        logger.debug("Connection {} closed while draining; discarding {} messages", connection, held.size());
+                        held.clear();
+                        heldBytes = 0;
+                        congested = false;
+                        return;
+                    }
+                    pending = queuedBytes;
+                }
+            }
+
+            if (held.isEmpty() && pending <= backpressure.getLowWatermark())
+                congested = false;
+            else scheduleDrain(connection.server);
+        }
+    }
+
+    private void scheduleDrain(@Nullable WebSocketServer server) {
+        if (drainScheduled || server == null)
+            return;
+        drainScheduled = true;
+        server.scheduleDrain(this::drain, DRAIN_INTERVAL);
+    }
+
+    private void write(Entry entry) {
+        queuedBytes += entry.size;
+        if (entry.message instanceof String)
+            socket.send((String) entry.message);
+        else if (entry.message instanceof byte[])
+            socket.send((byte[]) entry.message);
+        else if (connection.server != null)
+            connection.server.writeFrame(socket, (Broadcast) entry.message);
+        else ((Broadcast) entry.message).sendTo(socket);
+    }
+
+    /**
+     * @return The pending bytes as counted, without looking at the queued buffers
+     */
+    private long pendingBytes() {
+        if (!(socket instanceof WebSocketImpl) || ((WebSocketImpl) socket).outQueue.isEmpty())
+            queuedBytes = 0;
+        return queuedBytes;
+    }
+
+    private long measurePendingBytes() {
+        if (!(socket instanceof WebSocketImpl))
+            return queuedBytes = 0;
+        long bytes = 0;
+        for (ByteBuffer buffer : ((WebSocketImpl) socket).outQueue)
+            bytes += buffer.remaining();
+        return queuedBytes = bytes;
+    }
+
+    private static final class Entry {
+        private final Object message;
+        private final long size;
+
+        private Entry(Object message) {
+            this.message = message;
+            if (message instanceof String)
+                this.size = utf8Length((String) message);
+            else if (message instanceof byte[])
+                this.size = ((byte[]) message).length;
+            else this.size = ((Broadcast) message).getFrameLength();
+        }
+
+        private static long utf8Length(String str) {
+            long length = 0;
+            for (int i = 0; i < str.length(); i++) {
+                final char c = str.charAt(i);
+                if (c < 0x80)
+                    length++;
+                else if (c < 0x800)
+                    length += 2;
+                else if (Character.isHighSurrogate(c)) {
+                    length += 4;
+                    i++;
+                } else length += 3;
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.comroid.webkit.server;
+
+import org.comroid.restless.socket.PerMessageDeflate;
+import org.java_websocket.enums.Opcode;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.extensions.CompressionExtension;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.DataFrame;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.FramedataImpl1;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Server side of the {@code permessage-deflate} extension.
+ * <p>
+ * Every connection works on its own {@linkplain #copyInstance() copy}, holding the agreed parameters
+ * and the compression contexts of both directions.
+ * Outgoing messages are only compressed if they consist of a single frame and reach the threshold.
+ * Incoming messages that inflate beyond the {@linkplain PerMessageDeflate#getMaxMessageSize() size limit}
+ * close the connection with {@link CloseFrame#TOOBIG}.
+ */
+public final class PerMessageDeflateExtension extends CompressionExtension {
+    private static final byte[] TAIL = {0x00, 0x00, (byte) 0xFF, (byte) 0xFF};
+    private static final int BUFFER_SIZE = 8192;
+    private final PerMessageDeflate configuration;
+    private @Nullable PerMessageDeflate agreed = null;
+    private @Nullable Deflater deflater = null;
+    private @Nullable Inflater inflater = null;
+    private boolean inflating = false;
+    private long inflated = 0;
+
+    /**
+     * @return The parameters agreed on with the client, or {@code null} before the handshake or if the offer was declined
+     */
+    public @Nullable PerMessageDeflate getAgreed() {
+        return agreed;
+    }
+
+    public PerMessageDeflateExtension(PerMessageDeflate configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * @return Whether a message of the given length may be sent as a frame that was compressed without context
+     * @see Broadcast
+     */
+    boolean acceptsSharedDeflatedFrame(int length) {
+        return agreed != null && agreed.isServerNoContextTakeover() && length >= agreed.getThreshold();
+    }
+
+    @Override
+    public boolean acceptProvidedExtensionAsServer(String inputExtensionHeader) {
+        agreed = configuration.negotiate(inputExtensionHeader);
+        return agreed != null;
+    }
+
+    @Override
+    public boolean acceptProvidedExtensionAsClient(String inputExtensionHeader) {
+        return false;
+    }
+
+    @Override
+    public String getProvidedExtensionAsServer() {
+        return agreed == null ? "" : agreed.toHeaderValue();
+    }
+
+    @Override
+    public String getProvidedExtensionAsClient() {
+        return "";
+    }
+
+    @Override
+    public void encodeFrame(Framedata inputFrame) {
+        if (agreed == null || !(inputFrame instanceof DataFrame) || !inputFrame.isFin()
+                || inputFrame.getOpcode() == Opcode.CONTINUOUS)
+            return;
+
+        final ByteBuffer payload = inputFrame.getPayloadData();
+        if (payload.remaining() < agreed.getThreshold())
+            return;
+
+        if (deflater == null)
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        final byte[] data = new byte[payload.remaining()];
+        payload.duplicate().get(data);
+        final byte[] compressed = deflate(deflater, data);
+        if (agreed.isServerNoContextTakeover())
+            deflater.reset();
+
+        ((FramedataImpl1) inputFrame).setPayload(ByteBuffer.wrap(compressed));
+        ((FramedataImpl1) inputFrame).setRSV1(true);
+    }
+
+    @Override
+    public void decodeFrame(Framedata inputFrame) throws InvalidDataException {
+        if (!(inputFrame instanceof DataFrame))
+            return;
+        if (inputFrame.getOpcode() != Opcode.CONTINUOUS) {
+            inflating = inputFrame.isRSV1();
+            inflated = 0;
+        }
+        if (!inflating)
+            return;
+        if (agreed == null)
+            throw new InvalidDataException(CloseFrame.POLICY_VALIDATION, "Compressed frame without negotiated compression");
+
+        if (inflater == null)
+            inflater = new Inflater(true);
+        final ByteBuffer payload = inputFrame.getPayloadData();
+        final byte[] data = new byte[payload.remaining()];
+        payload.duplicate().get(data);
+
+        final long limit = agreed.getMaxMessageSize() - inflated;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(limit, Math.max(data.length * 4, 64)));
+        try {
+            inflate(inflater, data, out, limit);
+            if (inputFrame.isFin()) {
+                inflate(inflater, TAIL, out, limit);
+                if (agreed.isClientNoContextTakeover())
+                    inflater.reset();
+            }
+        } catch (DataFormatException e) {
+            throw new InvalidDataException(CloseFrame.POLICY_VALIDATION, "Invalid compressed message: " + e.getMessage());
+        }
+        inflated += out.size();
+
+        ((FramedataImpl1) inputFrame).setPayload(ByteBuffer.wrap(out.toByteArray()));
+        ((FramedataImpl1) inputFrame).setRSV1(false);
+    }
+
+    @Override
+    public IExtension copyInstance() {
+        return new PerMessageDeflateExtension(configuration);
+    }
+
+    @Override
+    public void reset() {
+        if (deflater != null)
+            deflater.end();
+        if (inflater != null)
+            inflater.end();
+        deflater = null;
+        inflater = null;
+        inflating = false;
+        inflated = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "PerMessageDeflateExtension{" + (agreed == null ? configuration : agreed) + '}';
+    }
+
+    /**
+     * Compresses one message, without the trailing empty block.
+     */
+    static byte[] deflate(Deflater deflater, byte[] data) {
+        deflater.setInput(data);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(data.length / 4, 64));
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        do {
+            count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+            out.write(buffer, 0, count);
+        } while (count == buffer.length);
+
+        final byte[] compressed = out.toByteArray();
+        final int length = endsWithTail(compressed) ? compressed.length - TAIL.length : compressed.length;
+        final byte[] result = new byte[length];
+        System.arraycopy(compressed, 0, result, 0, length);
+        return result;
+    }
+
+    private static void inflate(Inflater inflater, byte[] data, ByteArrayOutputStream out, long limit) throws DataFormatException, InvalidDataException {
+        inflater.setInput(data);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        do {
+            count = inflater.inflate(buffer);
+            if (out.size() + count > limit)
+                throw new InvalidDataException(CloseFrame.TOOBIG, "Inflated message exceeds the size limit");
+            out.write(buffer, 0, count);
+        } while (count > 0 || !(inflater.needsInput() || inflater.finished() || inflater.needsDictionary()));
+        if (inflater.needsDictionary())
+            throw new DataFormatException("Preset dictionaries are not supported");
+    }
+
+    private static boolean endsWithTail(byte[] data) {
+        if (data.length < TAIL.length)
+            return false;
+        for (int i = 0; i < TAIL.length; i++)
+            if (data[data.length - TAIL.length + i] != TAIL[i])
+                return false;
+        return true;
+    }
+}
@@ -1,6 +1,5 @@
 package org.comroid.webkit.server;
 
-import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
@@ -22,15 +21,22 @@ import org.comroid.uniform.model.Serializable;
 import org.comroid.uniform.node.UniNode;
 import org.comroid.uniform.node.UniObjectNode;
 import org.comroid.util.StandardValueType;
+import org.comroid.webkit.server.encoding.ResponseEncoding;
+import org.comroid.webkit.server.transport.BufferedResponseStream;
+import org.comroid.webkit.server.transport.ServerExchange;
+import org.comroid.webkit.server.transport.ServerTransport;
+import org.comroid.webkit.server.transport.SunHttpTransport;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.URI;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
@@ -40,12 +46,14 @@ import static org.comroid.restless.CommonHeaderNames.ACCEPTED_CONTENT_TYPE;
 import static org.comroid.restless.CommonHeaderNames.REQUEST_CONTENT_TYPE;
 import static org.comroid.restless.HTTPStatusCodes.*;
 
-public final class RestServer implements Startable, HttpHandler, Closeable, Context {
+public final class RestServer implements Startable, HttpHandler, ServerExchange.Handler, Closeable, Context {
     private static final Response dummyResponse = new Response(0);
     private static final Logger logger = LogManager.getLogger();
     private final Context context;
-    private final HttpServer server;
+    private final ServerTransport transport;
     private final REST.Header.List commonHeaders = new REST.Header.List();
+    private final List<StaticResourceHandler> staticResources = new CopyOnWriteArrayList<>();
+    private volatile ResponseEncoding encoding;
     private final StreamSupplier<? extends ServerEndpoint> endpoints;
     private final Ref<ServerEndpoint> defaultEndpoint;
 
@@ -65,8 +73,26 @@ public final class RestServer implements Startable, HttpHandler, Closeable, Cont
         return defaultEndpoint.stream();
     }
 
-    public HttpServer getServer() {
-        return server;
+    public ResponseEncoding getEncoding() {
+        return encoding;
+    }
+
+    public RestServer setEncoding(ResponseEncoding encoding) {
+        this.encoding = encoding;
+        return this;
+    }
+
+    public ServerTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * @return The underlying {@link HttpServer}, or {@code null} if another transport is used
+     * @deprecated Use {@link #getTransport()}
+     */
+    @Deprecated
+    public @Nullable HttpServer getServer() {
+        return transport instanceof SunHttpTransport ? ((SunHttpTransport) transport).getServer() : null;
     }
 
     @Deprecated
@@ -93,11 +119,10 @@ public final class RestServer implements Startable, HttpHandler, Closeable, Cont
         this.context = context.upgrade(Context.class);
         this.endpoints = endpoints;
         this.defaultEndpoint = Reference.create();
-        this.server = HttpServer.create(socketAddress, 0);
+        this.encoding = ResponseEncoding.standard();
+        this.transport = ServerTransport.sun().create(socketAddress, executor, this);
 
-        server.createContext("/", this);
-        server.setExecutor(executor);
-        server.start();
+        transport.start();
 
         logger.info("Rest Server available at http://{}:{} (http://{}:{})",
                 socketAddress.getAddress().getHostAddress(), socketAddress.getPort(), socketAddress.getHostName(), socketAddress.getPort());
@@ -114,17 +139,25 @@ public final class RestServer implements Startable, HttpHandler, Closeable, Cont
             ContextualProvider context,
             InetSocketAddress socketAddress,
             StreamSupplier<? extends ServerEndpoint> endpoints
+    ) throws IOException {
+        this(context, socketAddress, context.getFromContext(ServerTransport.Factory.class)
+                .orElseGet(ServerTransport::sun), endpoints);
+    }
+
+    public RestServer(
+            ContextualProvider context,
+            InetSocketAddress socketAddress,
+            ServerTransport.Factory transportFactory,
+            StreamSupplier<? extends ServerEndpoint> endpoints
     ) throws IOException {
         logger.info("Starting REST Server with {} endpoints", endpoints.stream().count());
         this.context = context.upgrade(Context.class);
         this.endpoints = endpoints;
         this.defaultEndpoint = Reference.create();
-        this.server = HttpServer.create(socketAddress, 0);
-
-        server.createContext("/", this);
-        context.getFromContext(Executor.class)
-                .or(ForkJoinPool::commonPool)
-                .consume(server::setExecutor);
+        this.encoding = context.getFromContext(ResponseEncoding.class)
+                .orElseGet(ResponseEncoding::standard);
+        this.transport = transportFactory.create(socketAddress, context.getFromContext(Executor.class)
+                .orElseGet(ForkJoinPool::commonPool), this);
         start(); // todo Remove
 
         logger.info("Rest Server available at http://{}:{} (http://{}:{})",
@@ -155,198 +188,227 @@ public final class RestServer implements Startable, HttpHandler, Closeable, Cont
     }
 
     public boolean removeCommonHeader(String name) {
-        return this.commonHeaders.removeIf(header -> header.getName().equals(name));
+        return this.commonHeaders.remove(name);
+    }
+
+    /**
+     * Requests below the URL prefix of the handler are answered by it, before any endpoint is considered.
+     * Compressible resources are encoded according to the {@linkplain #getEncoding() response encoding}.
+     */
+    public RestServer addStaticResources(StaticResourceHandler handler) {
+        this.staticResources.add(handler);
+        return this;
     }
 
     @Override
     public void close() {
         logger.info("Stopping HTTP Server");
-        server.stop(0);
+        transport.close();
     }
 
-    private void writeResponse(HttpExchange exchange, int statusCode) throws IOException {
+    private void writeResponse(ServerExchange exchange, int statusCode) throws IOException {
         writeResponse(exchange, statusCode, "");
     }
 
+    /**
+     * @deprecated Requests are received through the {@linkplain #getTransport() transport}
+     */
     @Override
+    @Deprecated
     public void handle(HttpExchange exchange) {
+        handle(SunHttpTransport.wrap(exchange));
+    }
+
+    /**
+     * Answers the exchange and closes it in any case; an exchange that was not answered is closed with {@code 500}.
+     */
+    @Override
+    public void handle(ServerExchange exchange) {
         logger.trace("Handling HttpExchange {}", exchange);
+        try {
+            if (!handleStatic(exchange))
+                handleEndpoint(exchange);
+        } catch (Throwable t) {
+            logger.fatal("An error occurred during handler; cannot continue", t);
+        } finally {
+            exchange.close();
+            logger.trace("Handler finished");
+        }
+    }
 
+    private void handleEndpoint(ServerExchange exchange) throws IOException {
+        final REST.Method requestMethod;
         try {
-            // get URI and extract query parameters
-            final URI uri = exchange.getRequestURI();
-            final String requestURI = uri.getPath();
-            String query = uri.getQuery();
-            final Map<String, Object> requestQueryParameters = URIQueryEditor.parseQuery(query);
-
-            // get headers
-            final REST.Method requestMethod = REST.Method.valueOf(exchange.getRequestMethod());
-            final String requestString = String.format("%s @ %s", requestMethod, requestURI);
-            final REST.Header.List requestHeaders = REST.Header.List.of(exchange.getRequestHeaders());
-
-            // response vars
-            String contentType = null;
-            ServerEndpoint endpoint;
-            boolean memberAccess = false;
-            String[] urlParams = null;
-            Response response = null;
+            requestMethod = REST.Method.valueOf(exchange.getRequestMethod());
+        } catch (IllegalArgumentException e) {
+            logger.debug("Unsupported request method {}", exchange.getRequestMethod());
+            writeResponse(exchange, NOT_IMPLEMENTED);
+            return;
+        }
+
+        // get URI and extract query parameters
+        final URI uri = exchange.getRequestURI();
+        final String requestURI = uri.getPath();
+        String query = uri.getQuery();
+        final Map<String, Object> requestQueryParameters = URIQueryEditor.parseQuery(query);
+
+        // get headers
+        final String requestString = String.format("%s @ %s", requestMethod, requestURI);
+        final REST.Header.List requestHeaders = exchange.getRequestHeaders();
 
+        // response vars
+        String contentType = null;
+        ServerEndpoint endpoint;
+        boolean memberAccess = false;
+        String[] urlParams = null;
+        Response response = null;
+
+        try {
+            // get serializer for this call
+            contentType = requestHeaders.getFirst(REQUEST_CONTENT_TYPE);
+            final SerializationAdapter serializer = MimeType.OCTET_STREAM.equals(contentType) ? null : findSerializer(contentType);
+            if (serializer == null)
+                throw new RestEndpointException(UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Type: " + contentType);
+
+            logger.debug("Receiving {} {}-Request to {} with {} headers", serializer.getMimeType(), requestMethod, requestURI, requestHeaders.size());
+            logger.trace("Request has headers:\n{}", requestHeaders.stream()
+                    .map(REST.Header::toString)
+                    .collect(Collectors.joining("\n")));
+
+            // get request body
+            String body = consumeBody(exchange);
+            logger.trace("Request body: {}", body);
+            UniNode requestData = null;
             try {
-                // get serializer for this call
-                contentType = requestHeaders.getFirst(REQUEST_CONTENT_TYPE);
-                final SerializationAdapter serializer = MimeType.OCTET_STREAM.equals(contentType) ? null : findSerializer(contentType);
-                if (serializer == null)
-                    throw new RestEndpointException(UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Type: " + contentType);
-
-                logger.debug("Receiving {} {}-Request to {} with {} headers", serializer.getMimeType(), requestMethod, requestURI, requestHeaders.size());
-                logger.trace("Request has headers:\n{}", requestHeaders.stream()
-                        .map(REST.Header::toString)
-                        .collect(Collectors.joining("\n")));
-
-                // get request body
-                String body = consumeBody(exchange);
-                logger.trace("Request body: {}", body);
-                UniNode requestData = null;
+                requestData = body.isEmpty() ? serializer.createObjectNode() : serializer.parse(body);
+            } catch (IllegalArgumentException e) {
+                logger.trace("Could not parse request body using selected serializer {}, attempting to parse as form data...", serializer);
+                logger.log(Level.ALL, e);
+                requestData = serializer.createObjectNode();
+
                 try {
-                    requestData = body.isEmpty() ? serializer.createObjectNode() : serializer.parse(body);
-                } catch (IllegalArgumentException e) {
-                    logger.trace("Could not parse request body using selected serializer {}, attempting to parse as form data...", serializer);
-                    logger.log(Level.ALL, e);
-                    requestData = serializer.createObjectNode();
-
-                    try {
-                        final UniObjectNode finalRequestData = requestData.asObjectNode();
-                        Stream.of(body.split("&"))
-                                .map(pair -> pair.split("="))
-                                .forEach(field -> finalRequestData.put(field[0].replace('+', ' '), field.length == 1
-                                        ? null
-                                        : StandardValueType.findGoodType(field[1].replace('+', ' '))));
-                        logger.trace("Parsing form data succeeded; body: {}", finalRequestData);
-                    } catch (Throwable formParseException) {
-                        logger.warn("Could not parse request body '{}'", body, formParseException);
-                    }
-                } finally {
-                    logger.trace("Adding {} Query parameters as request body fields", requestQueryParameters.size());
-                    if (requestData != null)
-                        requestData.asObjectNode().putAll(requestQueryParameters);
+                    final UniObjectNode finalRequestData = requestData.asObjectNode();
+                    Stream.of(body.split("&"))
+                            .map(pair -> pair.split("="))
+                            .forEach(field -> finalRequestData.put(field[0].replace('+', ' '), field.length == 1
+                                    ? null
+                                    : StandardValueType.findGoodType(field[1].replace('+', ' '))));
+                    logger.trace("Parsing form data succeeded; body: {}", finalRequestData);
+                } catch (Throwable formParseException) {
+                    logger.warn("Could not parse request body '{}'", body, formParseException);
                 }
+            } finally {
+                logger.trace("Adding {} Query parameters as request body fields", requestQueryParameters.size());
+                if (requestData != null)
+                    requestData.asObjectNode().putAll(requestQueryParameters);
+            }
 
-                // find endpoint for request
-                endpoint = findEndpoint(requestMethod, requestURI).orElseGet(defaultEndpoint);
-
-                // validate endpoint
-                if (endpoint == null)
-                    throw new RestEndpointException(NOT_FOUND, "No endpoint found for request URI: " + requestURI);
-                memberAccess = endpoint.isMemberAccess(requestURI);
-
-                // extract url parameters
-                urlParams = endpoint.extractArgs(requestURI);
-
-                REST.Request<UniNode> request = new REST.Request<>(
-                        requestHeaders,
-                        endpoint,
-                        requestMethod,
-                        requestData,
-                        () -> new StringReader(body)
-                );
-                // execute endpoint
-                logger.info("Executing Endpoint {}...", endpoint);
-                response = endpoint.executeMethod(context, Polyfill.uri(requestURI), request, urlParams);
-            } catch (Throwable t) {
-                if (t instanceof RestEndpointException
-                        && requestHeaders.contains(ACCEPTED_CONTENT_TYPE)
-                        && requestHeaders.getHeader(ACCEPTED_CONTENT_TYPE)
-                        .getValues()
-                        .stream()
-                        .anyMatch(str -> str.contains(MimeType.HTML.toString()) || str.contains(MimeType.ANY.toString()))) {
-                    RestEndpointException e = (RestEndpointException) t;
-                    logger.warn("A REST Endpoint exception was thrown: {}", e.getMessage(), e);
-                    try {
-                        Response alternate = tryRecoverFrom(e, requestURI, e.getStatusCode(), requestMethod, requestHeaders);
-
-                        if (alternate != null && alternate.getStatusCode() == OK && e.getStatusCode() != OK)
-                            response = alternate;
-                        else response = new Response(e.getStatusCode(), generateErrorNode(this, contentType, e));
-                    } catch (Throwable t2) {
-                        logger.debug("An error occurred during recovery", t2);
-                    }
-                } else {
-                    logger.error("An error occurred during request handling", t);
-                    RestEndpointException wrapped = new RestEndpointException(INTERNAL_SERVER_ERROR, t);
-                    response = new Response(wrapped.getStatusCode(), generateErrorNode(this, contentType, wrapped));
+            // find endpoint for request
+            endpoint = findEndpoint(requestMethod, requestURI).orElseGet(defaultEndpoint);
+
+            // validate endpoint
+            if (endpoint == null)
+                throw new RestEndpointException(NOT_FOUND, "No endpoint found for request URI: " + requestURI);
+            memberAccess = endpoint.isMemberAccess(requestURI);
+
+            // extract url parameters
+            urlParams = endpoint.extractArgs(requestURI);
+
+            REST.Request<UniNode> request = new REST.Request<>(
+                    requestHeaders,
+                    endpoint,
+                    requestMethod,
+                    requestData,
+                    () -> new StringReader(body)
+            );
+            // execute endpoint
+            logger.info("Executing Endpoint {}...", endpoint);
+            response = endpoint.executeMethod(context, Polyfill.uri(requestURI), request, urlParams);
+        } catch (Throwable t) {
+            if (t instanceof RestEndpointException
+                    && requestHeaders.contains(ACCEPTED_CONTENT_TYPE)
+                    && requestHeaders.getHeader(ACCEPTED_CONTENT_TYPE)
+                    .getValues()
+                    .stream()
+                    .anyMatch(str -> str.contains(MimeType.HTML.toString()) || str.contains(MimeType.ANY.toString()))) {
+                RestEndpointException e = (RestEndpointException) t;
+                logger.warn("A REST Endpoint exception was thrown: {}", e.getMessage(), e);
+                try {
+                    Response alternate = tryRecoverFrom(e, requestURI, e.getStatusCode(), requestMethod, requestHeaders);
+
+                    if (alternate != null && alternate.getStatusCode() == OK && e.getStatusCode() != OK)
+                        response = alternate;
+                    else response = new Response(e.getStatusCode(), generateErrorNode(this, contentType, e));
+                } catch (Throwable t2) {
+                    logger.debug("An error occurred during recovery", t2);
                 }
+            } else {
+                logger.error("An error occurred during request handling", t);
+                RestEndpointException wrapped = new RestEndpointException(INTERNAL_SERVER_ERROR, t);
+                response = new Response(wrapped.getStatusCode(), generateErrorNode(this, contentType, wrapped));
             }
-            // if response is null, send empty OK
-            if (response == null)
-                response = new Response(OK);
-
-            // copy response headers
-            final int statusCode = response.getStatusCode();
-            final Headers responseHeaders = exchange.getResponseHeaders();
-            response.getHeaders().forEach(responseHeaders::set);
-            commonHeaders.forEach(responseHeaders::set);
-            String accepted = context.getSupportedMimeTypes().collect(Collectors.joining(","));
-            responseHeaders.set(ACCEPTED_CONTENT_TYPE, accepted);
-            responseHeaders.set(REQUEST_CONTENT_TYPE, response.getMimeType().toString());
-            logger.trace("{} Headers applied to exchange", responseHeaders.size());
-
-            // send response
-            Reader responseData;
-            if (memberAccess && response.getBody().isNonNull()) {
-                logger.debug("Attempting to write member-accessing response data");
-                Reference<Serializable> body = response.getBody();
-                logger.log(Level.ALL, "urlParams are {}; responseBody is {}", urlParams, response.getBody().get());
-                UniObjectNode data = body.map(Serializable::toUniNode)
-                        .map(UniNode::asObjectNode)
-                        .orElseThrow(() -> new IllegalArgumentException("Invalid Data for member access: " + body.ifPresentMap(Object::toString)));
-                String targetField = urlParams[urlParams.length - 1];
-                logger.trace("Retrieving target field {} from data {}", targetField, data);
-                String yield = data.get(targetField).toSerializedString();
-                if (!yield.matches("\\d+"))
-                    yield = '"' + yield + '"';
-                responseData = new StringReader(yield);
-            } else responseData = response.getFullData();
-            logger.trace("Using response reader {}", responseData);
+        }
+        // if response is null, send empty OK
+        if (response == null)
+            response = new Response(OK);
+
+        // copy response headers
+        final int statusCode = response.getStatusCode();
+        final REST.Header.List responseHeaders = exchange.getResponseHeaders();
+        response.getHeaders().forEach(responseHeaders::set);
+        commonHeaders.forEach(responseHeaders::set);
+        String accepted = context.getSupportedMimeTypes().collect(Collectors.joining(","));
+        responseHeaders.set(ACCEPTED_CONTENT_TYPE, accepted);
+        responseHeaders.set(REQUEST_CONTENT_TYPE, response.getMimeType().toString());
+        logger.trace("{} Headers applied to exchange", responseHeaders.size());
+
+        // send response
+        String memberData = null;
+        if (memberAccess && response.getBody().isNonNull()) {
+            logger.debug("Attempting to write member-accessing response data");
+            Reference<Serializable> body = response.getBody();
+            logger.log(Level.ALL, "urlParams are {}; responseBody is {}", urlParams, response.getBody().get());
+            UniObjectNode data = body.map(Serializable::toUniNode)
+                    .map(UniNode::asObjectNode)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid Data for member access: " + body.ifPresentMap(Object::toString)));
+            String targetField = urlParams[urlParams.length - 1];
+            logger.trace("Retrieving target field {} from data {}", targetField, data);
+            memberData = data.get(targetField).toSerializedString();
+            if (!memberData.matches("\\d+"))
+                memberData = '"' + memberData + '"';
+        }
 
-            try {
-                StringBuilder sb = new StringBuilder();
-                char[] cbuf = new char[512];
-                int x;
-                while ((x = responseData.read(cbuf)) != -1) {
-                    char[] chars = x == cbuf.length ? cbuf : Arrays.copyOf(cbuf, x);
-                    sb.append(chars);
-                }
+        try {
+            logger.debug("Sending Response with code {}", statusCode);
+            logger.trace("Response has headers:\n{}", responseHeaders.stream()
+                    .map(REST.Header::toString)
+                    .collect(Collectors.joining("\n")));
+
+            // a failed write leaves the exchange unanswered if nothing was sent yet; closing it then answers with 500
+            final BufferedResponseStream stream = new BufferedResponseStream(exchange, statusCode);
+            final OutputStream out = statusCode < 200 || statusCode == NO_CONTENT || statusCode == NOT_MODIFIED
+                    ? stream
+                    : encoding.wrap(exchange, response.getMimeType(), stream);
+            if (memberData != null)
+                out.write(memberData.getBytes(StandardCharsets.UTF_8));
+            else writeBody(response, out);
+            out.close();
+            logger.debug("Sent Response with code {} and length {}{}", statusCode, stream.getLength(), stream.isChunked() ? " (chunked)" : "");
+        } catch (IOException e) {
+            logger.fatal("Error occurred while sending response; cannot continue", e);
+        }
+    }
 
-                final String body = sb.toString();
-                final int len = body.length();
-                logger.debug("Sending Response with code {} and length {}", statusCode, len);
-                logger.trace("Response has headers:\n{}", responseHeaders.entrySet()
-                        .stream()
-                        .map(header -> String.format("%s = %s", header.getKey(), String.join(";", header.getValue())))
-                        .collect(Collectors.joining("\n")));
-                logger.log(Level.ALL, "Response body:\n{}", body);
-                exchange.sendResponseHeaders(statusCode, len);
-
-                char[] wbuf = new char[512];
-                int r, w = 0;
-                try (
-                        Reader write = new StringReader(body);
-                        OutputStreamWriter osw = new OutputStreamWriter(exchange.getResponseBody())
-                ) {
-                    while ((r = write.read(wbuf)) != -1) {
-                        osw.write(wbuf, 0, r);
-                        w += r;
-                    }
-                }
+    private boolean handleStatic(ServerExchange exchange) {
+        for (StaticResourceHandler resources : staticResources)
+            try {
+                if (resources.handle(exchange, encoding))
+                    return true;
             } catch (IOException e) {
-                logger.fatal("Error occurred while sending response; cannot continue", e);
-            } finally {
-                exchange.close();
-                logger.trace("Handler finished");
+                logger.error("Could not serve static resource {}", exchange.getRequestURI(), e);
+                return true;
             }
-        } catch (Throwable t) {
-            logger.fatal("An error occurred during handler; cannot continue", t);
-        }
+        return false;
     }
 
     private Optional<ServerEndpoint> findEndpoint(final REST.Method method, String requestURI) {
@@ -370,18 +432,45 @@ public final class RestServer implements Startable, HttpHandler, Closeable, Cont
                 .map(ServerEndpoint.class::cast);
     }
 
-    private void writeResponse(HttpExchange exchange, int statusCode, String data) throws IOException {
-        exchange.sendResponseHeaders(statusCode, data.length());
+    private void writeResponse(ServerExchange exchange, int statusCode, String data) throws IOException {
+        final byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length == 0 ? -1 : bytes.length);
         final OutputStream osr = exchange.getResponseBody();
-        osr.write(data.getBytes());
+        osr.write(bytes);
         osr.flush();
     }
 
-    private String consumeBody(HttpExchange exchange) {
+    /**
+     * Writes the response body as UTF-8 without buffering it as a whole.
+     * Serializable bodies are written by their serializer; readers are encoded while they are read.
+     */
+    private static void writeBody(Response response, OutputStream out) throws IOException {
+        if (response.isStreaming()) {
+            response.writeTo(out);
+            return;
+        }
+
+        final Serializable body = response.getBody().get();
+        if (body != null && response.getData().isNull()) {
+            body.writeTo(out);
+            return;
+        }
+
+        final char[] buffer = new char[4096];
+        final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        try (Reader reader = response.getFullData()) {
+            int read;
+            while ((read = reader.read(buffer)) != -1)
+                writer.write(buffer, 0, read);
+        }
+        writer.flush();
+    }
+
+    private String consumeBody(ServerExchange exchange) {
         String str = null;
 
         try (
-                InputStreamReader isr = new InputStreamReader(exchange.getRequestBody());
+                InputStreamReader isr = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8);
                 BufferedReader br = new BufferedReader(isr)
         ) {
             str = br.lines().collect(Collectors.joining());
@@ -459,6 +548,6 @@ public final class RestServer implements Startable, HttpHandler, Closeable, Cont
 
     @Override
     public void start() {
-        server.start();
+        transport.start();
     }
 }
@@ -1,6 +1,7 @@
 package org.comroid.webkit.server;
 
 import org.comroid.restless.endpoint.AccessibleEndpoint;
+import org.comroid.restless.endpoint.UrlTemplate;
 import org.comroid.restless.exception.RestEndpointException;
 import org.jetbrains.annotations.Contract;
 
@@ -14,6 +15,11 @@ public interface ServerEndpoint extends AccessibleEndpoint, EndpointHandler {
         return getEndpointBase().getPattern();
     }
 
+    @Override
+    default UrlTemplate getTemplate() {
+        return getEndpointBase().getTemplate();
+    }
+
     @Override
     @Deprecated
     default String getUrlBase() {
@@ -52,6 +58,9 @@ public interface ServerEndpoint extends AccessibleEndpoint, EndpointHandler {
         @Override
         Pattern getPattern();
 
+        @Override
+        UrlTemplate getTemplate();
+
         @Override
         @Contract("-> this")
         default AccessibleEndpoint getEndpointBase() {
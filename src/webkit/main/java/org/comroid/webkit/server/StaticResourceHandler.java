@@ -0,0 +1,457 @@
+package org.comroid.webkit.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.comroid.api.ResourceLoader;
+import org.comroid.webkit.server.encoding.ContentEncoder;
+import org.comroid.webkit.server.encoding.ResponseEncoding;
+import org.comroid.webkit.server.transport.ServerExchange;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.comroid.restless.HTTPStatusCodes.*;
+
+/**
+ * Serves files and classpath resources below a URL prefix, bypassing endpoint dispatch and serialization.
+ * <p>
+ * Classpath resources and small files are loaded once into read-only direct buffers;
+ * larger files are transferred from their {@link FileChannel} on every request.
+ * Every resource carries a strong ETag, so that clients can revalidate using {@code If-None-Match},
+ * and single byte ranges are served using {@code Range}.
+ * Compressed variants of preloaded resources are created once per encoding and kept alongside the resource.
+ * Loaded resources are cached up to a total size, evicting the least recently used ones first.
+ *
+ * @see RestServer#addStaticResources(StaticResourceHandler)
+ */
+public final class StaticResourceHandler {
+    public static final int DEFAULT_PRELOAD_LIMIT = 512 * 1024;
+    public static final long DEFAULT_CACHE_LIMIT = 32 * 1024 * 1024;
+    private static final Map<String, String> mimeTypes = new HashMap<>();
+    private static final Logger logger = LogManager.getLogger();
+
+    static {
+        mimeTypes.put("html", "text/html; charset=utf-8");
+        mimeTypes.put("css", "text/css; charset=utf-8");
+        mimeTypes.put("js", "application/javascript; charset=utf-8");
+        mimeTypes.put("json", "application/json; charset=utf-8");
+        mimeTypes.put("txt", "text/plain; charset=utf-8");
+        mimeTypes.put("svg", "image/svg+xml");
+        mimeTypes.put("png", "image/png");
+        mimeTypes.put("jpg", "image/jpeg");
+        mimeTypes.put("jpeg", "image/jpeg");
+        mimeTypes.put("gif", "image/gif");
+        mimeTypes.put("ico", "image/x-icon");
+        mimeTypes.put("webp", "image/webp");
+        mimeTypes.put("woff", "font/woff");
+        mimeTypes.put("woff2", "font/woff2");
+    }
+
+    private final String urlPrefix;
+    private final List<Source> sources = new CopyOnWriteArrayList<>();
+    private final LinkedHashMap<String, Resource> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cacheSize = 0;
+    private long cacheLimit = DEFAULT_CACHE_LIMIT;
+    private int preloadLimit = DEFAULT_PRELOAD_LIMIT;
+    private String cacheControl = "no-cache";
+
+    public String getUrlPrefix() {
+        return urlPrefix;
+    }
+
+    /**
+     * @param urlPrefix The path below which resources are served, e.g. {@code /static/}
+     */
+    public StaticResourceHandler(String urlPrefix) {
+        this.urlPrefix = urlPrefix.endsWith("/") ? urlPrefix : urlPrefix + '/';
+    }
+
+    /**
+     * Serves the files below the given directory.
+     * Changes to files are picked up on the next request.
+     */
+    public StaticResourceHandler addDirectory(Path root) {
+        final Path normalized = root.toAbsolutePath().normalize();
+        sources.add(path -> {
+            final Path file = normalized.resolve(path).normalize();
+            if (!file.startsWith(normalized) || !Files.isRegularFile(file))
+                return null;
+            return loadFile(file);
+        });
+        return this;
+    }
+
+    /**
+     * Serves the resources below the given prefix of the loader. Resources are loaded once and kept in memory.
+     */
+    public StaticResourceHandler addResources(ResourceLoader loader, String resourcePrefix) {
+        sources.add(path -> {
+            final InputStream stream = loader.getResource(resourcePrefix + path);
+            if (stream == null)
+                return null;
+            try (InputStream in = stream) {
+                return Resource.preloaded(path, readFully(in), 0);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * @param preloadLimit Files up to this size in bytes are kept in memory
+     */
+    public StaticResourceHandler setPreloadLimit(int preloadLimit) {
+        this.preloadLimit = preloadLimit;
+        return this;
+    }
+
+    /**
+     * @param cacheLimit Cached resources are evicted once their preloaded content exceeds this size in bytes
+     */
+    public StaticResourceHandler setCacheLimit(long cacheLimit) {
+        synchronized (cache) {
+            this.cacheLimit = cacheLimit;
+            evict(null);
+        }
+        return this;
+    }
+
+    public StaticResourceHandler setCacheControl(String cacheControl) {
+        this.cacheControl = cacheControl;
+        return this;
+    }
+
+    /**
+     * Answers the exchange if its path is below the URL prefix of this handler, without encoding the resource.
+     * The exchange is not closed.
+     *
+     * @return Whether the exchange was answered
+     */
+    public boolean handle(ServerExchange exchange) throws IOException {
+        return handle(exchange, null);
+    }
+
+    /**
+     * Answers the exchange if its path is below the URL prefix of this handler.
+     * The exchange is not closed.
+     *
+     * @param encoding The encoding to negotiate compressed variants with, or {@code null} to always send the resource as is
+     * @return Whether the exchange was answered
+     */
+    public boolean handle(ServerExchange exchange, @Nullable ResponseEncoding encoding) throws IOException {
+        final String requestPath = exchange.getRequestURI().getPath();
+        if (requestPath == null || !requestPath.startsWith(urlPrefix))
+            return false;
+
+        final String method = exchange.getRequestMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(METHOD_NOT_ALLOWED, -1);
+            return true;
+        }
+
+        final String path = requestPath.substring(urlPrefix.length());
+        final Resource resource = path.isEmpty() || isTraversal(path) ? null : find(path);
+        if (resource == null) {
+            exchange.sendResponseHeaders(NOT_FOUND, -1);
+            return true;
+        }
+
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        final Variant variant = range == null ? resource.negotiate(exchange, encoding) : null;
+        final String etag = variant == null ? resource.etag : variant.etag;
+
+        final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        if (ifNoneMatch != null && matchesETag(ifNoneMatch, etag)) {
+            exchange.sendResponseHeaders(NOT_MODIFIED, -1);
+            return true;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", resource.mimeType);
+        if (variant != null) {
+            // ranges are only served from the unencoded resource
+            exchange.getResponseHeaders().set("Content-Encoding", variant.encoding);
+            exchange.sendResponseHeaders(OK, variant.content.remaining());
+            if (!method.equals("HEAD"))
+                exchange.sendBody(variant.content.duplicate());
+            return true;
+        }
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+
+        long start = 0, length = resource.length;
+        boolean partial = false;
+        final String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (range != null && (ifRange == null || ifRange.trim().equals(resource.etag))) {
+            final long[] bounds = parseRange(range, resource.length);
+            if (bounds == null) {
+                exchange.getResponseHeaders().set("Content-Range", "bytes */" + resource.length);
+                exchange.sendResponseHeaders(REQUESTED_RANGE_NOT_SATISFIABLE, -1);
+                return true;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                length = bounds[1] - bounds[0] + 1;
+                partial = true;
+                exchange.getResponseHeaders().set("Content-Range",
+                        String.format("bytes %d-%d/%d", bounds[0], bounds[1], resource.length));
+            }
+        }
+
+        exchange.sendResponseHeaders(partial ? PARTIAL_CONTENT : OK, length == 0 ? -1 : length);
+        if (length == 0 || method.equals("HEAD"))
+            return true;
+
+        if (resource.content != null) {
+            final ByteBuffer body = resource.content.duplicate();
+            body.position((int) start).limit((int) (start + length));
+            exchange.sendBody(body);
+        } else try (FileChannel channel = FileChannel.open(resource.file, StandardOpenOption.READ)) {
+            exchange.transferFrom(channel, start, length);
+        }
+        return true;
+    }
+
+    private @Nullable Resource find(String path) throws IOException {
+        final Resource cached;
+        synchronized (cache) {
+            cached = cache.get(path);
+        }
+        if (cached != null && cached.isCurrent())
+            return cached;
+
+        for (Source source : sources) {
+            final Resource resource = source.load(path);
+            if (resource == null)
+                continue;
+            synchronized (cache) {
+                final Resource prev = cache.put(path, resource);
+                if (prev != null)
+                    cacheSize -= prev.getWeight();
+                cacheSize += resource.getWeight();
+                evict(resource);
+            }
+            return resource;
+        }
+        synchronized (cache) {
+            final Resource prev = cache.remove(path);
+            if (prev != null)
+                cacheSize -= prev.getWeight();
+        }
+        return null;
+    }
+
+    /**
+     * Evicts the least recently used resources until the cache fits its limit, keeping the given one.
+     */
+    private void evict(@Nullable Resource keep) {
+        final Iterator<Resource> iterator = cache.values().iterator();
+        while (cacheSize > cacheLimit && iterator.hasNext()) {
+            final Resource eldest = iterator.next();
+            if (eldest == keep)
+                continue;
+            cacheSize -= eldest.getWeight();
+            iterator.remove();
+        }
+    }
+
+    private Resource loadFile(Path file) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        final long modified = attributes.lastModifiedTime().toMillis();
+
+        if (attributes.size() <= preloadLimit)
+            return Resource.preloaded(file.getFileName().toString(), Files.readAllBytes(file), modified, file);
+        return new Resource(file.getFileName().toString(), null, file, attributes.size(), modified,
+                String.format("\"%x-%x\"", attributes.size(), modified));
+    }
+
+    private static boolean isTraversal(String path) {
+        for (String segment : path.split("/"))
+            if (segment.equals("..") || segment.equals("."))
+                return true;
+        return path.startsWith("/") || path.indexOf('\\') != -1;
+    }
+
+    private static boolean matchesETag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*"))
+                return true;
+            // If-None-Match uses weak comparison
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals(etag))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code null} if the range cannot be satisfied; an empty array if the full resource is to be sent;
+     * otherwise the first and last byte position
+     */
+    private static @Nullable long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') != -1)
+            // multiple ranges are answered with the full resource
+            return new long[0];
+
+        final String spec = header.substring(6).trim();
+        final int dash = spec.indexOf('-');
+        if (dash == -1)
+            return new long[0];
+
+        try {
+            final long first, last;
+            if (dash == 0) {
+                final long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0)
+                    return null;
+                first = Math.max(0, length - suffix);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash));
+                last = dash == spec.length() - 1
+                        ? length - 1
+                        : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+            }
+            if (first >= length || first > last)
+                return null;
+            return new long[]{first, last};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+
+    private static final class Variant {
+        private final String encoding;
+        private final ByteBuffer content;
+        private final String etag;
+
+        private Variant(String encoding, ByteBuffer content, String etag) {
+            this.encoding = encoding;
+            this.content = content;
+            this.etag = etag;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        @Nullable Resource load(String path) throws IOException;
+    }
+
+    private static final class Resource {
+        private final String mimeType;
+        private final @Nullable ByteBuffer content;
+        private final @Nullable Path file;
+        private final long length;
+        private final long modified;
+        private final String etag;
+        private final Map<String, Optional<Variant>> variants = new ConcurrentHashMap<>();
+
+        private Resource(String name, @Nullable ByteBuffer content, @Nullable Path file, long length, long modified, String etag) {
+            final int dot = name.lastIndexOf('.');
+            final String mimeType = dot == -1 ? null : mimeTypes.get(name.substring(dot + 1).toLowerCase());
+
+            this.mimeType = mimeType != null ? mimeType : Optional.ofNullable(URLConnection.guessContentTypeFromName(name))
+                    .orElse("application/octet-stream");
+            this.content = content;
+            this.file = file;
+            this.length = length;
+            this.modified = modified;
+            this.etag = etag;
+        }
+
+        private static Resource preloaded(String name, byte[] data, long modified) {
+            return preloaded(name, data, modified, null);
+        }
+
+        private static Resource preloaded(String name, byte[] data, long modified, @Nullable Path file) {
+            final ByteBuffer content = ByteBuffer.allocateDirect(data.length);
+            content.put(data).flip();
+
+            final String etag;
+            try {
+                final byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+                etag = '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + '"';
+            } catch (NoSuchAlgorithmException e) {
+                throw new AssertionError("SHA-256 is not available", e);
+            }
+
+            return new Resource(name, content.asReadOnlyBuffer(), file, data.length, modified, etag);
+        }
+
+        /**
+         * Selects the compressed variant to send, creating it on first use.
+         * Announces {@code Vary} for every compressible resource, whether a variant is sent or not.
+         *
+         * @return The variant to send, or {@code null} if the resource is to be sent as is
+         */
+        private @Nullable Variant negotiate(ServerExchange exchange, @Nullable ResponseEncoding encoding) {
+            if (encoding == null || content == null || length < encoding.getThreshold() || !encoding.isCompressible(mimeType))
+                return null;
+
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            final ContentEncoder encoder = encoding.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            if (encoder == null)
+                return null;
+
+            return variants.computeIfAbsent(encoder.getName(), name -> {
+                final byte[] data = new byte[(int) length];
+                content.duplicate().get(data);
+                final byte[] encoded = encoder.encode(data, 0, data.length);
+                if (encoded.length >= data.length)
+                    return Optional.empty();
+
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length);
+                buffer.put(encoded).flip();
+                return Optional.of(new Variant(name, buffer.asReadOnlyBuffer(),
+                        etag.substring(0, etag.length() - 1) + '-' + name + '"'));
+            }).orElse(null);
+        }
+
+        /**
+         * @return The size of the preloaded content in bytes; compressed variants are not accounted for
+         */
+        private long getWeight() {
+            return content == null ? 0 : length;
+        }
+
+        /**
+         * @return Whether the resource is unchanged since it was loaded; always true for classpath resources
+         */
+        private boolean isCurrent() {
+            if (file == null)
+                return true;
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return attributes.size() == length && attributes.lastModifiedTime().toMillis() == modified;
+            } catch (IOException e) {
+                logger.debug("Could not check file {}", file, e);
+                return false;
+            }
+        }
+    }
+}
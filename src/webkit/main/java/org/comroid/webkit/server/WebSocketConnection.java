@@ -16,7 +16,11 @@ import org.comroid.restless.REST;
 import org.comroid.restless.socket.WebSocketClientSpec;
 import org.comroid.restless.socket.WebsocketPacket;
 import org.java_websocket.WebSocket;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
 public class WebSocketConnection implements
@@ -30,6 +34,10 @@ public class WebSocketConnection implements
     private final WebSocket socketBase;
     private final REST.Header.List headers;
     private final ContextualProvider context;
+    private final OutboundQueue outbound;
+    private volatile Backpressure backpressure;
+    final Set<String> topics = ConcurrentHashMap.newKeySet();
+    volatile @Nullable WebSocketServer server;
 
     @Override
     public final RefContainer<WebsocketPacket.Type, WebsocketPacket> getEventPipeline() {
@@ -45,6 +53,51 @@ public class WebSocketConnection implements
         return !(socketBase.isClosed() || socketBase.isClosing());
     }
 
+    /**
+     * @return The topics this connection is subscribed to
+     * @see WebSocketServer#subscribe(WebSocketConnection, String)
+     */
+    public final Set<String> getTopics() {
+        return Collections.unmodifiableSet(topics);
+    }
+
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    public WebSocketConnection setBackpressure(Backpressure backpressure) {
+        this.backpressure = backpressure;
+        return this;
+    }
+
+    /**
+     * @return The amount of outbound messages that are not yet written to the client
+     */
+    public final int getOutboundDepth() {
+        return outbound.getDepth();
+    }
+
+    /**
+     * @return The approximate amount of outbound bytes that are not yet written to the client
+     */
+    public final long getOutboundBytes() {
+        return outbound.getBytes();
+    }
+
+    /**
+     * @return The amount of outbound messages dropped because of {@linkplain #getBackpressure() backpressure}
+     */
+    public final long getDroppedMessages() {
+        return outbound.getDropped();
+    }
+
+    /**
+     * @return Whether outbound messages are currently held back
+     */
+    public final boolean isCongested() {
+        return outbound.isCongested();
+    }
+
     @Override
     public ContextualProvider getUnderlyingContextualProvider() {
         return context;
@@ -59,6 +112,9 @@ public class WebSocketConnection implements
         this.headers = headers;
         this.context = context;
         this.packetPipeline = new ReferencePipe<>(context.<Executor>requireFromContext(Executor.class));
+        this.backpressure = context.getFromContext(Backpressure.class)
+                .orElseGet(Backpressure::standard);
+        this.outbound = new OutboundQueue(this, socketBase);
     }
 
     @Override
@@ -80,12 +136,28 @@ public class WebSocketConnection implements
     }
 
     public final void sendText(final String payload) {
-        socketBase.send(payload);
+        outbound.send(payload, null);
+    }
+
+    /**
+     * Sends a message that may be replaced by a later message with the same key while the connection is congested.
+     *
+     * @see Backpressure.Policy#COALESCE
+     */
+    public final void sendText(final String payload, final String coalesceKey) {
+        outbound.send(payload, coalesceKey);
     }
 
     @Override
     public final void sendBinary(byte[] bytes) {
-        socketBase.send(bytes);
+        outbound.send(bytes, null);
+    }
+
+    /**
+     * @return Whether the message was sent or held back
+     */
+    public final boolean send(Broadcast message) {
+        return outbound.send(message, null);
     }
 
     public final void sendPing() {
@@ -8,10 +8,15 @@ import org.comroid.mutatio.model.RefContainer;
 import org.comroid.mutatio.model.RefMap;
 import org.comroid.mutatio.ref.ReferenceMap;
 import org.comroid.restless.REST;
+import org.comroid.restless.socket.PerMessageDeflate;
 import org.comroid.restless.socket.WebsocketPacket;
 import org.comroid.webkit.model.ConnectionFactory;
 import org.comroid.webkit.socket.ConnectionFactoryBase;
 import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.IExtension;
 import org.java_websocket.framing.CloseFrame;
 import org.java_websocket.handshake.ClientHandshake;
 import org.jetbrains.annotations.ApiStatus.Internal;
@@ -21,13 +26,12 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.concurrent.Executor;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public final class WebSocketServer extends org.java_websocket.server.WebSocketServer implements Closeable, ContextualProvider.Underlying {
     private static final Logger logger = LogManager.getLogger();
@@ -35,10 +39,20 @@ public final class WebSocketServer extends org.java_websocket.server.WebSocketSe
     private final ConnectionFactory<? extends WebSocketConnection> connectionFactory;
     private final RefMap<WebSocket, WebSocketConnection> activeConnections;
     private final Set<Consumer<WebSocketConnection>> connectionListeners;
+    private final Set<WebSocketConnection> connections;
+    private final Map<String, Set<WebSocketConnection>> topics;
+    private final ScheduledExecutorService drainScheduler;
 
     {
         this.activeConnections = new ReferenceMap<>();
         this.connectionListeners = new HashSet<>();
+        this.connections = ConcurrentHashMap.newKeySet();
+        this.topics = new ConcurrentHashMap<>();
+        this.drainScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "WebSocketServer Outbound Drain");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
@@ -79,7 +93,7 @@ public final class WebSocketServer extends org.java_websocket.server.WebSocketSe
             int port,
             ConnectionFactory<C> connectionFactory
     ) {
-        super(new InetSocketAddress(inetAddress, port));
+        super(new InetSocketAddress(inetAddress, port), drafts(context));
         logger.warn("Deprecated Constructor used");
 
         this.context = context;
@@ -116,7 +130,7 @@ public final class WebSocketServer extends org.java_websocket.server.WebSocketSe
             InetSocketAddress address,
             ConnectionFactory<? extends WebSocketConnection> connectionFactory
     ) {
-        super(address);
+        super(address, drafts(context));
 
         this.context = context;
         this.connectionFactory = connectionFactory;
@@ -126,12 +140,118 @@ public final class WebSocketServer extends org.java_websocket.server.WebSocketSe
                 address.getAddress().getHostAddress(), address.getPort(), address.getHostName(), address.getPort());
     }
 
+    /**
+     * Negotiates {@code permessage-deflate} as configured by a {@link PerMessageDeflate} in the context,
+     * or with {@linkplain PerMessageDeflate#standard() standard} parameters.
+     */
+    private static List<Draft> drafts(ContextualProvider context) {
+        final PerMessageDeflate compression = context.getFromContext(PerMessageDeflate.class)
+                .orElseGet(PerMessageDeflate::standard);
+        if (!compression.isEnabled())
+            return Collections.singletonList(new Draft_6455());
+        return Collections.singletonList(new Draft_6455(new PerMessageDeflateExtension(compression)));
+    }
+
     public BooleanSupplier onNewConnection(Consumer<WebSocketConnection> listener) {
         if (!connectionListeners.add(listener))
             throw new RuntimeException("Could not add Connection listener");
         return () -> connectionListeners.remove(listener);
     }
 
+    /**
+     * Adds the connection to the subscribers of a topic, until it is unsubscribed or closed.
+     */
+    public void subscribe(WebSocketConnection connection, String topic) {
+        topics.computeIfAbsent(topic, k -> ConcurrentHashMap.newKeySet()).add(connection);
+        connection.topics.add(topic);
+        if (!connection.isOpen()) // closed concurrently, after its subscriptions were dropped
+            unsubscribe(connection, topic);
+    }
+
+    public void unsubscribe(WebSocketConnection connection, String topic) {
+        connection.topics.remove(topic);
+        topics.computeIfPresent(topic, (k, subscribers) -> {
+            subscribers.remove(connection);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    public Set<WebSocketConnection> getSubscribers(String topic) {
+        return Collections.unmodifiableSet(topics.getOrDefault(topic, Collections.emptySet()));
+    }
+
+    /**
+     * Sends the message to all open connections.
+     *
+     * @return The amount of connections the message was sent to
+     */
+    public int broadcast(Broadcast message) {
+        return broadcast(connections, message, connection -> true);
+    }
+
+    /**
+     * Sends the message to all open connections that match the filter.
+     *
+     * @return The amount of connections the message was sent to
+     */
+    public int broadcast(Broadcast message, Predicate<? super WebSocketConnection> filter) {
+        return broadcast(connections, message, filter);
+    }
+
+    /**
+     * Sends the message to all open connections subscribed to the topic.
+     *
+     * @return The amount of connections the message was sent to
+     */
+    public int publish(String topic, Broadcast message) {
+        return publish(topic, message, connection -> true);
+    }
+
+    /**
+     * Sends the message to all open connections subscribed to the topic that match the filter.
+     *
+     * @return The amount of connections the message was sent to
+     */
+    public int publish(String topic, Broadcast message, Predicate<? super WebSocketConnection> filter) {
+        final Set<WebSocketConnection> subscribers = topics.get(topic);
+        if (subscribers == null)
+            return 0;
+        return broadcast(subscribers, message, filter);
+    }
+
+    private int broadcast(Iterable<WebSocketConnection> targets, Broadcast message, Predicate<? super WebSocketConnection> filter) {
+        int count = 0;
+        for (WebSocketConnection connection : targets)
+            if (connection.isOpen() && filter.test(connection) && connection.send(message))
+                count++;
+        logger.trace("Broadcast {} to {} connections", message, count);
+        return count;
+    }
+
+    /**
+     * Writes the frame of the message to the socket, or sends it regularly if the socket does not accept frames.
+     */
+    void writeFrame(WebSocket socket, Broadcast message) {
+        if (socket instanceof WebSocketImpl && socket.getDraft() instanceof Draft_6455) {
+            final IExtension extension = ((Draft_6455) socket.getDraft()).getExtension();
+            final ByteBuffer frame = extension instanceof PerMessageDeflateExtension
+                    && ((PerMessageDeflateExtension) extension).acceptsSharedDeflatedFrame(message.getPayloadLength())
+                    ? message.deflatedFrame()
+                    : message.frame();
+            // a complete frame as one buffer, so it cannot interleave with frames sent concurrently
+            ((WebSocketImpl) socket).outQueue.add(frame);
+            onWriteDemand(socket);
+        } else message.sendTo(socket);
+    }
+
+    void scheduleDrain(Runnable drain, long delay) {
+        try {
+            drainScheduler.schedule(drain, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.trace("Server is closing; not draining", e);
+        }
+    }
+
     @Override
     public final void close() throws IOException {
         logger.debug("Closing WebSocketServer");
@@ -139,6 +259,7 @@ public final class WebSocketServer extends org.java_websocket.server.WebSocketSe
             logger.trace("Closing {} active connections", activeConnections.size());
             for (WebSocketConnection connection : activeConnections.values())
                 connection.close();
+            drainScheduler.shutdownNow();
             logger.trace("Stopping underlying Server");
             super.stop();
         } catch (InterruptedException e) {
@@ -158,8 +279,10 @@ public final class WebSocketServer extends org.java_websocket.server.WebSocketSe
         }
 
         try {
-            WebSocketConnection connection = connectionFactory.apply(conn, headers);
+            WebSocketConnection connection = connectionFactory.apply(conn, headers.snapshot());
+            connection.server = this;
             activeConnections.put(conn, connection);
+            connections.add(connection);
             publishConnection(connection);
         } catch (Throwable t) {
             logger.fatal("Could not properly accept incoming connection; closing incoming connection", t);
@@ -175,6 +298,9 @@ public final class WebSocketServer extends org.java_websocket.server.WebSocketSe
         if (remote)
             connection.nowClosed(code, reason);
         activeConnections.remove(conn);
+        connections.remove(connection);
+        for (String topic : connection.getTopics())
+            unsubscribe(connection, topic);
     }
 
     @Override
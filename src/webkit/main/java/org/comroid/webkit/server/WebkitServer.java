@@ -32,6 +32,14 @@ import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 public final class WebkitServer implements ContextualProvider.Underlying, Closeable, PagePropertiesProvider, ResourceLoader, RestEndpointException.RecoverStage {
+    /**
+     * Internal resources below {@code org/comroid/webkit/internal/} are served at this path, with ETags.
+     */
+    public static final String STATIC_RESOURCE_PATH = "/webkit/internal/";
+    /**
+     * The API script of every frame; its session data is served by {@link WebkitScope#WEBKIT_API}.
+     */
+    public static final String API_SCRIPT_PATH = STATIC_RESOURCE_PATH + "api.js";
     private static final Logger logger = LogManager.getLogger();
     private final Context context;
     private final Executor executor;
@@ -122,6 +130,7 @@ public final class WebkitServer implements ContextualProvider.Underlying, Closea
                 new InetSocketAddress(inetAddress, port),
                 additionalEndpoints.append(endpoints));
         rest.setDefaultEndpoint(endpoints.defaultEndpoint);
+        rest.addStaticResources(internalResources());
         this.socket = new WebSocketServer(
                 this.context,
                 executor,
@@ -181,9 +190,21 @@ public final class WebkitServer implements ContextualProvider.Underlying, Closea
         this.endpoints = new WebkitEndpoints();
         this.rest = new RestServer(this, httpAddress, additionalEndpoints == null ? endpoints : endpoints.append(additionalEndpoints));
         this.rest.setDefaultEndpoint(endpoints.defaultEndpoint);
+        this.rest.addStaticResources(internalResources());
         this.socket = new WebSocketServer(this, wsAddress);
     }
 
+    /**
+     * Serves the internal resources through the loader of this server, falling back to the ones shipped with webkit.
+     */
+    private StaticResourceHandler internalResources() {
+        final StaticResourceHandler handler = new StaticResourceHandler(STATIC_RESOURCE_PATH)
+                .addResources(resourceLoader, WebkitResourceLoader.INTERNAL_RESOURCE_PREFIX);
+        if (resourceLoader != ResourceLoader.SYSTEM_CLASS_LOADER)
+            handler.addResources(ResourceLoader.SYSTEM_CLASS_LOADER, WebkitResourceLoader.INTERNAL_RESOURCE_PREFIX);
+        return handler;
+    }
+
     private static InetSocketAddress formAddress(ContextualProvider context, int port) {
         return context.getFromContext(InetAddress.class)
                 .or(() -> context.getFromContext(InetSocketAddress.class).ifPresentMap(InetSocketAddress::getAddress))
@@ -0,0 +1,87 @@
+package org.comroid.webkit.server.encoding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@code Content-Encoding} that response bodies can be compressed with.
+ * Further encodings can be provided by implementing this interface and adding it to a {@link ResponseEncoding}.
+ */
+public interface ContentEncoder {
+    ContentEncoder GZIP = new Support.Gzip();
+    ContentEncoder DEFLATE = new Support.Deflate();
+
+    /**
+     * @return The name of the encoding as used in {@code Accept-Encoding} and {@code Content-Encoding}
+     */
+    String getName();
+
+    /**
+     * @return A stream that encodes everything written to it into {@code out}; closing it closes {@code out}
+     */
+    OutputStream encode(OutputStream out) throws IOException;
+
+    default byte[] encode(byte[] data, int offset, int length) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, length / 4));
+        try (OutputStream encoder = encode(out)) {
+            encoder.write(data, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode data using " + getName(), e);
+        }
+        return out.toByteArray();
+    }
+
+    final class Support {
+        private static final int BUFFER_SIZE = 8192;
+
+        private static final class Gzip implements ContentEncoder {
+            @Override
+            public String getName() {
+                return "gzip";
+            }
+
+            @Override
+            public OutputStream encode(OutputStream out) throws IOException {
+                return new GZIPOutputStream(out, BUFFER_SIZE);
+            }
+
+            @Override
+            public String toString() {
+                return "ContentEncoder{gzip}";
+            }
+        }
+
+        private static final class Deflate implements ContentEncoder {
+            @Override
+            public String getName() {
+                return "deflate";
+            }
+
+            @Override
+            public OutputStream encode(OutputStream out) {
+                // the deflater is created here, so it must also be released here
+                final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+                return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            deflater.end();
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public String toString() {
+                return "ContentEncoder{deflate}";
+            }
+        }
+    }
+}
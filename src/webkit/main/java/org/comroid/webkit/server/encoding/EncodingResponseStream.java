@@ -0,0 +1,102 @@
+package org.comroid.webkit.server.encoding;
+
+import org.comroid.webkit.server.transport.ServerExchange;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Buffers the start of a response body to decide whether it is encoded.
+ * <p>
+ * Bodies below the threshold are sent unencoded.
+ * Cacheable bodies that fit into the cache limit are encoded as a whole, using the variant cache.
+ * All other bodies are encoded while they are written.
+ */
+final class EncodingResponseStream extends OutputStream {
+    private final ResponseEncoding encoding;
+    private final ServerExchange exchange;
+    private final ContentEncoder encoder;
+    private final OutputStream target;
+    private final boolean cacheable;
+    private final int limit;
+    private byte[] buffer;
+    private int count = 0;
+    private @Nullable OutputStream sink = null;
+    private boolean closed = false;
+
+    EncodingResponseStream(ResponseEncoding encoding, ServerExchange exchange, ContentEncoder encoder, OutputStream target, boolean cacheable) {
+        this.encoding = encoding;
+        this.exchange = exchange;
+        this.encoder = encoder;
+        this.target = target;
+        this.cacheable = cacheable;
+        this.limit = cacheable ? Math.max(encoding.getThreshold(), encoding.getCacheLimit()) : encoding.getThreshold();
+        this.buffer = new byte[Math.min(limit, 1024)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed)
+            throw new IOException("Stream is closed");
+        if (sink == null && count + len <= limit) {
+            if (count + len > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.min(limit, Math.max(count + len, buffer.length * 2)));
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+            return;
+        }
+        if (sink == null)
+            startEncoding();
+        sink.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (sink != null)
+            sink.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+
+        if (sink != null) {
+            sink.close();
+            return;
+        }
+
+        try {
+            if (count < encoding.getThreshold()) {
+                target.write(buffer, 0, count);
+                return;
+            }
+
+            final byte[] encoded = cacheable
+                    ? encoding.encode(encoder, buffer, 0, count)
+                    : encoder.encode(buffer, 0, count);
+            if (encoded.length < count) {
+                exchange.getResponseHeaders().set("Content-Encoding", encoder.getName());
+                target.write(encoded);
+            } else target.write(buffer, 0, count);
+        } finally {
+            target.close();
+        }
+    }
+
+    private void startEncoding() throws IOException {
+        exchange.getResponseHeaders().set("Content-Encoding", encoder.getName());
+        sink = encoder.encode(target);
+        sink.write(buffer, 0, count);
+        buffer = null;
+        count = 0;
+    }
+}
@@ -0,0 +1,183 @@
+package org.comroid.webkit.server.encoding;
+
+import org.comroid.restless.REST;
+import org.comroid.webkit.server.transport.ServerExchange;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Negotiates the {@code Content-Encoding} of responses.
+ * <p>
+ * Bodies of compressible content types are encoded with the encoder the client prefers,
+ * unless they are smaller than the threshold or already encoded.
+ * Encoded bodies of responses marked {@code Cache-Control: immutable} are kept in a shared cache keyed by their content,
+ * up to the cache limit, so that identical responses are only compressed once.
+ * Instances are immutable; every {@code with}-method returns a modified copy that shares the cache.
+ */
+public final class ResponseEncoding {
+    public static final int DEFAULT_THRESHOLD = 1024;
+    public static final int DEFAULT_CACHE_LIMIT = 64 * 1024;
+    public static final long DEFAULT_CACHE_CAPACITY = 8 * 1024 * 1024;
+    public static final ResponseEncoding NONE = new ResponseEncoding(Collections.emptyList(), Integer.MAX_VALUE, 0, null);
+    private final List<ContentEncoder> encoders;
+    private final int threshold;
+    private final int cacheLimit;
+    private final @Nullable VariantCache cache;
+
+    public List<ContentEncoder> getEncoders() {
+        return encoders;
+    }
+
+    /**
+     * @return The minimum size of a body in bytes for it to be encoded
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return The maximum size of an immutable body in bytes for its encoded variant to be cached
+     */
+    public int getCacheLimit() {
+        return cache == null ? 0 : cacheLimit;
+    }
+
+    private ResponseEncoding(List<ContentEncoder> encoders, int threshold, int cacheLimit, @Nullable VariantCache cache) {
+        this.encoders = encoders;
+        this.threshold = threshold;
+        this.cacheLimit = cacheLimit;
+        this.cache = cache;
+    }
+
+    /**
+     * @return An encoding supporting {@code gzip} and {@code deflate}, with default threshold and cache
+     */
+    public static ResponseEncoding standard() {
+        return new ResponseEncoding(
+                Collections.unmodifiableList(Arrays.asList(ContentEncoder.GZIP, ContentEncoder.DEFLATE)),
+                DEFAULT_THRESHOLD,
+                DEFAULT_CACHE_LIMIT,
+                new VariantCache(DEFAULT_CACHE_CAPACITY)
+        );
+    }
+
+    /**
+     * @param encoders The supported encoders, in order of preference
+     */
+    public ResponseEncoding withEncoders(ContentEncoder... encoders) {
+        return new ResponseEncoding(Collections.unmodifiableList(Arrays.asList(encoders)), threshold, cacheLimit, cache);
+    }
+
+    public ResponseEncoding withThreshold(int threshold) {
+        return new ResponseEncoding(encoders, threshold, cacheLimit, cache);
+    }
+
+    /**
+     * @param cacheLimit The maximum size of an immutable body in bytes for its encoded variant to be cached; {@code 0} disables caching
+     */
+    public ResponseEncoding withCacheLimit(int cacheLimit) {
+        return new ResponseEncoding(encoders, threshold, cacheLimit, cacheLimit <= 0 ? null
+                : cache == null ? new VariantCache(DEFAULT_CACHE_CAPACITY) : cache);
+    }
+
+    public boolean isCompressible(@Nullable CharSequence contentType) {
+        if (contentType == null)
+            return false;
+        final String type = contentType.toString().toLowerCase();
+        return type.startsWith("text/")
+                || type.contains("json")
+                || type.contains("javascript")
+                || type.contains("xml")
+                || type.contains("svg");
+    }
+
+    /**
+     * @param acceptEncoding The {@code Accept-Encoding} request header
+     * @return The supported encoder with the highest quality value, or {@code null} if the body is to be sent unencoded
+     */
+    public @Nullable ContentEncoder negotiate(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null || encoders.isEmpty())
+            return null;
+
+        final Map<String, Double> qualities = new HashMap<>();
+        for (String entry : acceptEncoding.split(",")) {
+            final String[] parts = entry.split(";");
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                final String param = parts[i].trim();
+                if (param.startsWith("q="))
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+            }
+            qualities.put(parts[0].trim().toLowerCase(), quality);
+        }
+
+        final double wildcard = qualities.getOrDefault("*", 0d);
+        ContentEncoder best = null;
+        double bestQuality = 0;
+        for (ContentEncoder encoder : encoders) {
+            final double quality = qualities.getOrDefault(encoder.getName(), wildcard);
+            if (quality > bestQuality) {
+                best = encoder;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Encodes the data, using the cached variant if the same data was encoded before.
+     */
+    public byte[] encode(ContentEncoder encoder, byte[] data, int offset, int length) {
+        if (cache == null || length > cacheLimit)
+            return encoder.encode(data, offset, length);
+
+        final VariantCache.Key key = new VariantCache.Key(encoder.getName(), Arrays.copyOfRange(data, offset, offset + length));
+        final byte[] cached = cache.get(key);
+        if (cached != null)
+            return cached;
+
+        final byte[] encoded = encoder.encode(data, offset, length);
+        cache.put(key, encoded);
+        return encoded;
+    }
+
+    /**
+     * Negotiates the encoding of the response body and returns the stream to write the body to.
+     * Closing the returned stream closes {@code body}.
+     * Only bodies of responses marked {@code Cache-Control: immutable} use the cache.
+     *
+     * @param contentType The content type of the response
+     * @param body        The stream the response body is written to; it must not have sent the response headers yet
+     */
+    public OutputStream wrap(ServerExchange exchange, @Nullable CharSequence contentType, OutputStream body) {
+        final REST.Header.List responseHeaders = exchange.getResponseHeaders();
+        if (encoders.isEmpty() || !isCompressible(contentType) || responseHeaders.getFirst("Content-Encoding") != null)
+            return body;
+
+        responseHeaders.add("Vary", "Accept-Encoding");
+        final ContentEncoder encoder = negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        if (encoder == null)
+            return body;
+        return new EncodingResponseStream(this, exchange, encoder, body, isImmutable(responseHeaders.getFirst("Cache-Control")));
+    }
+
+    private static boolean isImmutable(@Nullable String cacheControl) {
+        if (cacheControl == null)
+            return false;
+        for (String directive : cacheControl.split(","))
+            if (directive.trim().equalsIgnoreCase("immutable"))
+                return true;
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResponseEncoding{encoders=%s, threshold=%d, cacheLimit=%d}", encoders, threshold, getCacheLimit());
+    }
+}
@@ -0,0 +1,74 @@
+package org.comroid.webkit.server.encoding;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A least-recently-used cache of encoded bodies, bounded by the total size of original and encoded bytes.
+ */
+final class VariantCache {
+    private final long capacity;
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long size = 0;
+
+    VariantCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    synchronized @Nullable byte[] get(Key key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(Key key, byte[] encoded) {
+        final long entrySize = key.content.length + encoded.length;
+        if (entrySize > capacity)
+            return;
+
+        final byte[] previous = entries.put(key, encoded);
+        size += entrySize;
+        if (previous != null)
+            size -= key.content.length + previous.length;
+
+        final Iterator<Map.Entry<Key, byte[]>> iterator = entries.entrySet().iterator();
+        while (size > capacity && iterator.hasNext()) {
+            final Map.Entry<Key, byte[]> eldest = iterator.next();
+            size -= eldest.getKey().content.length + eldest.getValue().length;
+            iterator.remove();
+        }
+    }
+
+    static final class Key {
+        private final String encoding;
+        private final byte[] content;
+        private final int hash;
+
+        Key(String encoding, byte[] content) {
+            this.encoding = encoding;
+            this.content = content;
+
+            final CRC32 crc = new CRC32();
+            crc.update(content, 0, content.length);
+            this.hash = 31 * encoding.hashCode() + (int) crc.getValue();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof Key))
+                return false;
+            final Key key = (Key) other;
+            return hash == key.hash && encoding.equals(key.encoding) && Arrays.equals(content, key.content);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.comroid.webkit.server.transport;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Sends a response body whose length is not known in advance.
+ * <p>
+ * Bodies up to the threshold are buffered and sent with their exact length in bytes;
+ * larger bodies are sent with chunked transfer encoding while they are written.
+ * Closing this stream completes the body, but does not close the exchange.
+ */
+public final class BufferedResponseStream extends OutputStream {
+    public static final int DEFAULT_THRESHOLD = 8 * 1024;
+    private final ServerExchange exchange;
+    private final int statusCode;
+    private final byte[] buffer;
+    private int count = 0;
+    private long length = 0;
+    private @Nullable OutputStream body = null;
+    private boolean closed = false;
+
+    /**
+     * @return The amount of bytes written so far
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return Whether the response is sent with chunked transfer encoding
+     */
+    public boolean isChunked() {
+        return body != null;
+    }
+
+    public BufferedResponseStream(ServerExchange exchange, int statusCode) {
+        this(exchange, statusCode, DEFAULT_THRESHOLD);
+    }
+
+    public BufferedResponseStream(ServerExchange exchange, int statusCode, int threshold) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.buffer = new byte[threshold];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        length++;
+        if (body == null && count < buffer.length) {
+            buffer[count++] = (byte) b;
+            return;
+        }
+        spill().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        length += len;
+        if (body == null && count + len <= buffer.length) {
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+            return;
+        }
+        spill().write(b, off, len);
+    }
+
+    /**
+     * Flushes the body once it is sent in chunks; while the body is still buffered, this has no effect.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (body != null)
+            body.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+
+        if (body != null) {
+            body.flush();
+            return;
+        }
+
+        exchange.sendResponseHeaders(statusCode, count == 0 ? -1 : count);
+        if (count > 0) {
+            final OutputStream out = exchange.getResponseBody();
+            out.write(buffer, 0, count);
+            out.flush();
+        }
+    }
+
+    private OutputStream spill() throws IOException {
+        if (body != null)
+            return body;
+
+        exchange.sendResponseHeaders(statusCode, 0);
+        body = exchange.getResponseBody();
+        body.write(buffer, 0, count);
+        count = 0;
+        return body;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream is closed");
+    }
+}
@@ -0,0 +1,446 @@
+package org.comroid.webkit.server.transport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.comroid.restless.HTTPStatusCodes;
+import org.comroid.restless.REST;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A connection of a {@link NioHttpTransport}.
+ * Parsing and dispatching happens on the selector thread; output may be enqueued from any thread.
+ * <p>
+ * Request bodies are buffered as their bytes arrive. Reading pauses while the bodies of
+ * pipelined requests that are not yet answered exceed the transport's body size bound.
+ */
+final class NioConnection {
+    private static final int MAX_PIPELINED = 16;
+    private static final long MAX_QUEUED_BYTES = 256 * 1024;
+    private static final Logger logger = LogManager.getLogger();
+    private final NioHttpTransport transport;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final @Nullable InetSocketAddress remoteAddress;
+    private final ByteBuffer input;
+    private final Deque<NioExchange> pending = new ArrayDeque<>();
+    private final Deque<ByteBuffer> output = new ArrayDeque<>();
+    private long queuedBytes = 0;
+    private boolean writeScheduled = false;
+    private @Nullable NioExchange active = null;
+    private @Nullable RequestHead head = null;
+    private byte[] body;
+    private int bodyRead;
+    private long bufferedBodyBytes = 0;
+    private long lastActivity = System.currentTimeMillis();
+    private long partialSince = 0;
+    private boolean inputFinished = false;
+    private boolean closeAfterWrite = false;
+    private volatile boolean closed = false;
+
+    @Nullable InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    NioConnection(NioHttpTransport transport, SocketChannel channel, SelectionKey key) {
+        this.transport = transport;
+        this.channel = channel;
+        this.key = key;
+        this.input = ByteBuffer.allocateDirect(transport.getMaxHeaderSize());
+
+        InetSocketAddress remote;
+        try {
+            remote = (InetSocketAddress) channel.getRemoteAddress();
+        } catch (IOException e) {
+            remote = null;
+        }
+        this.remoteAddress = remote;
+    }
+
+    void onReadable() throws IOException {
+        final int read = channel.read(input);
+        if (read == -1) {
+            // the client will not send further requests, but may still await responses
+            inputFinished = true;
+            if (active == null && pending.isEmpty() && isOutputDrained())
+                close();
+            else setInterest(SelectionKey.OP_READ, false);
+            return;
+        }
+
+        lastActivity = System.currentTimeMillis();
+        process();
+    }
+
+    void onWritable() throws IOException {
+        final ByteBuffer[] buffers;
+        synchronized (this) {
+            buffers = output.toArray(new ByteBuffer[0]);
+        }
+
+        final long written = buffers.length == 0 ? 0 : channel.write(buffers);
+        if (written > 0)
+            lastActivity = System.currentTimeMillis();
+        final boolean drained;
+        synchronized (this) {
+            for (ByteBuffer buffer : buffers) {
+                if (buffer.hasRemaining())
+                    break;
+                transport.releaseBuffer(output.poll());
+            }
+            queuedBytes -= written;
+            notifyAll();
+
+            drained = output.isEmpty();
+            if (drained)
+                writeScheduled = false;
+        }
+
+        setInterest(SelectionKey.OP_WRITE, !drained);
+        if (drained && (closeAfterWrite || inputFinished) && active == null && pending.isEmpty())
+            close();
+    }
+
+    /**
+     * Queues the remaining bytes of the buffer for writing.
+     * Blocks while too many bytes are queued, unless called from the selector thread.
+     */
+    void enqueue(ByteBuffer buffer) throws IOException {
+        synchronized (this) {
+            try {
+                while (!closed && queuedBytes > MAX_QUEUED_BYTES && !transport.isSelectorThread())
+                    wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for connection to drain", e);
+            }
+            if (closed) {
+                transport.releaseBuffer(buffer);
+                throw new IOException("Connection is closed");
+            }
+
+            output.add(buffer);
+            queuedBytes += buffer.remaining();
+            if (writeScheduled)
+                return;
+            writeScheduled = true;
+        }
+
+        transport.execute(() -> {
+            try {
+                onWritable();
+            } catch (IOException e) {
+                logger.debug("Could not write to {}", this, e);
+                close();
+            }
+        });
+    }
+
+    /**
+     * Called once the response of an exchange is complete.
+     */
+    void complete(NioExchange exchange, boolean keepAlive) {
+        transport.execute(() -> {
+            if (active == exchange)
+                active = null;
+            bufferedBodyBytes -= exchange.getRequestBodySize();
+            if (!keepAlive) {
+                closeAfterWrite = true;
+                pending.clear();
+            }
+
+            if (closed)
+                return;
+            if ((closeAfterWrite || inputFinished) && active == null && pending.isEmpty()) {
+                if (isOutputDrained())
+                    close();
+                return;
+            }
+            process();
+        });
+    }
+
+    /**
+     * Called periodically on the selector thread.
+     * Answers requests that are not received completely within the read timeout with {@code 408},
+     * and closes connections that stayed idle for longer than the idle timeout.
+     */
+    void checkTimeouts(long now) {
+        if (closed)
+            return;
+
+        if (partialSince != 0 && now - partialSince > transport.getReadTimeout()) {
+            logger.debug("Request from {} was not received within {}ms", remoteAddress, transport.getReadTimeout());
+            partialSince = 0;
+            head = null;
+            body = null;
+            reject(HTTPStatusCodes.REQUEST_TIMEOUT);
+            input.clear();
+            setInterest(SelectionKey.OP_READ, false);
+            dispatchNext();
+        } else if (active == null && pending.isEmpty() && head == null && input.position() == 0
+                && now - lastActivity > transport.getIdleTimeout() && isOutputDrained()) {
+            logger.trace("Closing idle connection {}", this);
+            close();
+        }
+    }
+
+    void close() {
+        if (closed)
+            return;
+        closed = true;
+
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Could not close channel", e);
+        }
+
+        synchronized (this) {
+            output.forEach(transport::releaseBuffer);
+            output.clear();
+            notifyAll();
+        }
+    }
+
+    ByteBuffer acquireBuffer() {
+        return transport.acquireBuffer();
+    }
+
+    void releaseBuffer(ByteBuffer buffer) {
+        transport.releaseBuffer(buffer);
+    }
+
+    private synchronized boolean isOutputDrained() {
+        return output.isEmpty();
+    }
+
+    private void process() {
+        if (closed)
+            return;
+
+        input.flip();
+        try {
+            parse();
+        } finally {
+            input.compact();
+        }
+
+        final boolean reading = !inputFinished && !closeAfterWrite && acceptsRequests();
+        setInterest(SelectionKey.OP_READ, reading);
+        // only a client that is expected to send the rest of a request can time out
+        if (!reading || (head == null && input.position() == 0))
+            partialSince = 0;
+        else if (partialSince == 0)
+            partialSince = System.currentTimeMillis();
+        dispatchNext();
+    }
+
+    private boolean acceptsRequests() {
+        return pending.size() < MAX_PIPELINED && bufferedBodyBytes <= transport.getMaxBodySize();
+    }
+
+    private void parse() {
+        while (!closeAfterWrite && acceptsRequests()) {
+            if (head == null) {
+                final int end = findHeadEnd();
+                if (end == -1) {
+                    if (!input.hasRemaining() || input.remaining() < input.capacity())
+                        return;
+                    reject(HTTPStatusCodes.REQUEST_HEADER_FIELDS_TOO_LARGE);
+                    return;
+                }
+
+                try {
+                    head = RequestHead.parse(input, end, transport.getMaxBodySize());
+                } catch (RequestHead.InvalidRequest e) {
+                    logger.debug("Rejecting request from {}: {}", remoteAddress, e.getMessage());
+                    reject(e.statusCode);
+                    return;
+                }
+
+                // grown as the body arrives, so that an announced length alone does not allocate it
+                body = new byte[(int) Math.min(head.contentLength, NioHttpTransport.BUFFER_SIZE)];
+                bodyRead = 0;
+                if (head.expectContinue && head.contentLength > 0 && active == null && pending.isEmpty())
+                    enqueueRaw("HTTP/1.1 100 Continue\r\n\r\n");
+            }
+
+            final int n = (int) Math.min(input.remaining(), head.contentLength - bodyRead);
+            if (bodyRead + n > body.length)
+                body = Arrays.copyOf(body, (int) Math.min(head.contentLength, Math.max(body.length * 2L, bodyRead + n)));
+            input.get(body, bodyRead, n);
+            bodyRead += n;
+            if (bodyRead < head.contentLength)
+                return;
+            bufferedBodyBytes += body.length;
+
+            pending.add(new NioExchange(this, head.method, head.uri, head.headers, body, head.keepAlive, head.http10));
+            if (!head.keepAlive) {
+                // no further requests are read from this connection
+                closeAfterWrite = true;
+                input.position(input.limit());
+            }
+            head = null;
+            body = null;
+        }
+    }
+
+    private int findHeadEnd() {
+        // ignore empty lines in front of a request line
+        while (input.remaining() >= 2 && input.get(input.position()) == '\r' && input.get(input.position() + 1) == '\n')
+            input.position(input.position() + 2);
+
+        for (int i = input.position(); i + 3 < input.limit(); i++)
+            if (input.get(i) == '\r' && input.get(i + 1) == '\n' && input.get(i + 2) == '\r' && input.get(i + 3) == '\n')
+                return i + 4;
+        return -1;
+    }
+
+    private void reject(int statusCode) {
+        pending.add(NioExchange.error(this, statusCode));
+        closeAfterWrite = true;
+        input.position(input.limit());
+    }
+
+    private void enqueueRaw(String data) {
+        try {
+            enqueue(ByteBuffer.wrap(data.getBytes(StandardCharsets.ISO_8859_1)));
+        } catch (IOException e) {
+            logger.debug("Could not write to {}", this, e);
+        }
+    }
+
+    private void dispatchNext() {
+        if (closed || active != null || pending.isEmpty())
+            return;
+
+        final NioExchange exchange = pending.poll();
+        active = exchange;
+        if (exchange.isError()) {
+            exchange.close();
+            return;
+        }
+
+        try {
+            transport.getExecutor().execute(() -> {
+                try {
+                    transport.getHandler().handle(exchange);
+                } catch (Throwable t) {
+                    logger.error("Unhandled exception in exchange handler", t);
+                } finally {
+                    exchange.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Executor rejected exchange; closing connection", e);
+            exchange.closeWithError(HTTPStatusCodes.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private void setInterest(int op, boolean enabled) {
+        if (!key.isValid())
+            return;
+        final int ops = key.interestOps();
+        final int updated = enabled ? ops | op : ops & ~op;
+        if (ops != updated)
+            key.interestOps(updated);
+    }
+
+    @Override
+    public String toString() {
+        return "NioConnection{" + remoteAddress + '}';
+    }
+
+    private static final class RequestHead {
+        private final String method;
+        private final URI uri;
+        private final REST.Header.List headers;
+        private final long contentLength;
+        private final boolean keepAlive;
+        private final boolean http10;
+        private final boolean expectContinue;
+
+        private RequestHead(String method, URI uri, REST.Header.List headers, long contentLength, boolean keepAlive, boolean http10, boolean expectContinue) {
+            this.method = method;
+            this.uri = uri;
+            this.headers = headers;
+            this.contentLength = contentLength;
+            this.keepAlive = keepAlive;
+            this.http10 = http10;
+            this.expectContinue = expectContinue;
+        }
+
+        private static RequestHead parse(ByteBuffer input, int end, int maxBodySize) throws InvalidRequest {
+            final byte[] raw = new byte[end - input.position() - 4];
+            input.get(raw);
+            input.position(end);
+
+            final String[] lines = new String(raw, StandardCharsets.ISO_8859_1).split("\r\n");
+            final String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1."))
+                throw new InvalidRequest(HTTPStatusCodes.BAD_REQUEST, "Malformed request line: " + lines[0]);
+
+            final URI uri;
+            try {
+                uri = URI.create(requestLine[1]);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequest(HTTPStatusCodes.BAD_REQUEST, "Malformed request target: " + requestLine[1]);
+            }
+
+            final REST.Header.List headers = new REST.Header.List();
+            for (int i = 1; i < lines.length; i++) {
+                final int colon = lines[i].indexOf(':');
+                if (colon <= 0)
+                    throw new InvalidRequest(HTTPStatusCodes.BAD_REQUEST, "Malformed header: " + lines[i]);
+                headers.add(lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim());
+            }
+
+            if (headers.contains("Transfer-Encoding"))
+                throw new InvalidRequest(HTTPStatusCodes.NOT_IMPLEMENTED, "Transfer-Encoding is not supported for requests");
+
+            long contentLength = 0;
+            final String length = headers.getFirst("Content-Length");
+            if (length != null)
+                try {
+                    contentLength = Long.parseLong(length.trim());
+                } catch (NumberFormatException e) {
+                    throw new InvalidRequest(HTTPStatusCodes.BAD_REQUEST, "Invalid Content-Length: " + length);
+                }
+            if (contentLength < 0)
+                throw new InvalidRequest(HTTPStatusCodes.BAD_REQUEST, "Invalid Content-Length: " + length);
+            if (contentLength > maxBodySize)
+                throw new InvalidRequest(HTTPStatusCodes.REQUEST_ENTITY_TOO_LARGE, "Request body too large: " + contentLength);
+
+            final boolean http10 = requestLine[2].equals("HTTP/1.0");
+            final String connection = headers.getFirst("Connection");
+            final boolean keepAlive = http10
+                    ? "keep-alive".equalsIgnoreCase(connection)
+                    : !"close".equalsIgnoreCase(connection);
+            final boolean expectContinue = "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+
+            return new RequestHead(requestLine[0], uri, headers, contentLength, keepAlive, http10, expectContinue);
+        }
+
+        private static final class InvalidRequest extends Exception {
+            private final int statusCode;
+
+            private InvalidRequest(int statusCode, String message) {
+                super(message);
+                this.statusCode = statusCode;
+            }
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package org.comroid.webkit.server.transport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.comroid.restless.HTTPStatusCodes;
+import org.comroid.restless.REST;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class NioExchange implements ServerExchange {
+    private static final int CHUNK_PREFIX = 8;
+    private static final int CHUNK_SUFFIX = 2;
+    private static final long MAX_MAPPED_REGION = 4 * 1024 * 1024;
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+    private static final Map<Integer, String> reasonPhrases = new ConcurrentHashMap<>();
+    private static final Logger logger = LogManager.getLogger();
+    private final NioConnection connection;
+    private final String method;
+    private final URI uri;
+    private final REST.Header.List requestHeaders;
+    private final byte[] requestBody;
+    private final boolean http10;
+    private final int errorStatus;
+    private final REST.Header.List responseHeaders = new REST.Header.List();
+    private final ResponseStream responseBody = new ResponseStream();
+    private boolean keepAlive;
+    private boolean headersSent = false;
+    private boolean closed = false;
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return uri;
+    }
+
+    @Override
+    public REST.Header.List getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return new ByteArrayInputStream(requestBody);
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    @Override
+    public REST.Header.List getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendBody(ByteBuffer buffer) throws IOException {
+        responseBody.writeBuffer(buffer.asReadOnlyBuffer());
+    }
+
+    /**
+     * Maps the file region and queues it for writing, so that the file is sent without copying it through the heap.
+     * Large regions are mapped in parts, so that the connection's backpressure applies between them.
+     */
+    @Override
+    public void transferFrom(FileChannel channel, long position, long count) throws IOException {
+        while (count > 0) {
+            final long size = Math.min(count, MAX_MAPPED_REGION);
+            responseBody.writeBuffer(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+            position += size;
+            count -= size;
+        }
+    }
+
+    boolean isError() {
+        return errorStatus != 0;
+    }
+
+    int getRequestBodySize() {
+        return requestBody.length;
+    }
+
+    NioExchange(NioConnection connection, String method, URI uri, REST.Header.List requestHeaders, byte[] requestBody, boolean keepAlive, boolean http10) {
+        this(connection, method, uri, requestHeaders, requestBody, keepAlive, http10, 0);
+    }
+
+    private NioExchange(NioConnection connection, String method, URI uri, REST.Header.List requestHeaders, byte[] requestBody, boolean keepAlive, boolean http10, int errorStatus) {
+        this.connection = connection;
+        this.method = method;
+        this.uri = uri;
+        this.requestHeaders = requestHeaders;
+        this.requestBody = requestBody;
+        this.keepAlive = keepAlive;
+        this.http10 = http10;
+        this.errorStatus = errorStatus;
+    }
+
+    /**
+     * @return An exchange that is answered with the given status by the transport itself, and closes the connection
+     */
+    static NioExchange error(NioConnection connection, int statusCode) {
+        return new NioExchange(connection, "GET", URI.create("/"), new REST.Header.List(), new byte[0], false, false, statusCode);
+    }
+
+    private static String reasonPhrase(int statusCode) {
+        return reasonPhrases.computeIfAbsent(statusCode, code -> {
+            final String name = HTTPStatusCodes.toString(code);
+            if (name == null)
+                return "";
+
+            final StringBuilder sb = new StringBuilder();
+            for (String word : name.substring(0, name.indexOf('(')).split("_"))
+                sb.append(sb.length() == 0 ? "" : " ")
+                        .append(word.charAt(0))
+                        .append(word.substring(1).toLowerCase());
+            return sb.toString();
+        });
+    }
+
+    @Override
+    public void sendResponseHeaders(int statusCode, long length) throws IOException {
+        if (headersSent)
+            throw new IOException("Response headers were already sent");
+        headersSent = true;
+
+        final boolean noBody = method.equals("HEAD") || statusCode < 200
+                || statusCode == HTTPStatusCodes.NO_CONTENT || statusCode == HTTPStatusCodes.NOT_MODIFIED;
+        responseHeaders.remove("Content-Length");
+        responseHeaders.remove("Transfer-Encoding");
+        responseHeaders.remove("Connection");
+
+        final StringBuilder head = new StringBuilder(256)
+                .append("HTTP/1.1 ").append(statusCode).append(' ').append(reasonPhrase(statusCode)).append("\r\n");
+        responseHeaders.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+
+        if (length > 0) {
+            head.append("Content-Length: ").append(length).append("\r\n");
+            responseBody.expected = length;
+        } else if (length == 0 && !noBody) {
+            if (http10)
+                // the body is delimited by closing the connection
+                keepAlive = false;
+            else {
+                head.append("Transfer-Encoding: chunked\r\n");
+                responseBody.chunked = true;
+            }
+        } else if (statusCode >= 200 && statusCode != HTTPStatusCodes.NO_CONTENT && statusCode != HTTPStatusCodes.NOT_MODIFIED) {
+            head.append("Content-Length: 0\r\n");
+            responseBody.expected = 0;
+        }
+
+        if (!keepAlive)
+            head.append("Connection: close\r\n");
+        else if (http10)
+            head.append("Connection: keep-alive\r\n");
+        head.append("\r\n");
+
+        responseBody.noBody = noBody;
+        responseBody.head = ByteBuffer.wrap(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+
+        try {
+            if (!headersSent) {
+                keepAlive = false;
+                sendResponseHeaders(isError() ? errorStatus : HTTPStatusCodes.INTERNAL_SERVER_ERROR, -1);
+            }
+            responseBody.finish();
+        } catch (IOException e) {
+            logger.debug("Could not complete response for {} {}", method, uri, e);
+            keepAlive = false;
+        }
+
+        connection.complete(this, keepAlive);
+    }
+
+    void closeWithError(int statusCode) {
+        if (!headersSent) {
+            keepAlive = false;
+            try {
+                sendResponseHeaders(statusCode, -1);
+            } catch (IOException ignored) {
+            }
+        }
+        close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NioExchange{%s %s}", method, uri);
+    }
+
+    /**
+     * Writes the body into pooled direct buffers.
+     * For chunked transfer, each buffer reserves space for the chunk size in front and the line break behind its data,
+     * so that every chunk is written without copying.
+     */
+    private final class ResponseStream extends OutputStream {
+        private @Nullable ByteBuffer head;
+        private @Nullable ByteBuffer buffer;
+        private boolean chunked = false;
+        private boolean noBody = false;
+        private long expected = -1;
+        private long written = 0;
+        private boolean finished = false;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (prepareWrite(1))
+                return;
+            buffer().put((byte) b);
+            if (space() == 0)
+                flushBuffer();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (prepareWrite(len))
+                return;
+
+            while (len > 0) {
+                final ByteBuffer buffer = buffer();
+                final int n = Math.min(len, space());
+                buffer.put(b, off, n);
+                off += n;
+                len -= n;
+                if (space() == 0)
+                    flushBuffer();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!finished)
+                flushBuffer();
+        }
+
+        @Override
+        public void close() {
+            NioExchange.this.close();
+        }
+
+        /**
+         * @return Whether the bytes are to be discarded
+         */
+        private boolean prepareWrite(int len) throws IOException {
+            if (finished)
+                throw new IOException("Response is already complete");
+            if (!headersSent)
+                throw new IOException("Response headers were not sent");
+            if (noBody)
+                return true;
+            if (expected >= 0 && written + len > expected)
+                throw new IOException(String.format("Response body exceeds Content-Length of %d bytes", expected));
+            written += len;
+            return false;
+        }
+
+        /**
+         * Queues the buffer itself for writing, after any buffered body bytes.
+         */
+        private void writeBuffer(ByteBuffer data) throws IOException {
+            final int len = data.remaining();
+            if (prepareWrite(len) || len == 0)
+                return;
+
+            flushBuffer();
+            if (chunked)
+                connection.enqueue(ByteBuffer.wrap((Integer.toHexString(len) + "\r\n").getBytes(StandardCharsets.ISO_8859_1)));
+            connection.enqueue(data);
+            if (chunked)
+                connection.enqueue(ByteBuffer.wrap(CRLF));
+        }
+
+        private ByteBuffer buffer() {
+            if (buffer == null) {
+                buffer = connection.acquireBuffer();
+                if (chunked) {
+                    buffer.position(CHUNK_PREFIX);
+                    buffer.limit(buffer.capacity() - CHUNK_SUFFIX);
+                }
+            }
+            return buffer;
+        }
+
+        private int space() {
+            return buffer == null ? Integer.MAX_VALUE : buffer.remaining();
+        }
+
+        private void flushHead() throws IOException {
+            if (head == null)
+                return;
+            connection.enqueue(head);
+            head = null;
+        }
+
+        private void flushBuffer() throws IOException {
+            flushHead();
+            if (buffer == null)
+                return;
+
+            final ByteBuffer buffer = this.buffer;
+            if (chunked) {
+                final int size = buffer.position() - CHUNK_PREFIX;
+                if (size == 0)
+                    return;
+
+                final String sizeLine = Integer.toHexString(size) + "\r\n";
+                final int start = CHUNK_PREFIX - sizeLine.length();
+                for (int i = 0; i < sizeLine.length(); i++)
+                    buffer.put(start + i, (byte) sizeLine.charAt(i));
+                buffer.limit(buffer.capacity());
+                buffer.put((byte) '\r').put((byte) '\n');
+                buffer.limit(buffer.position());
+                buffer.position(start);
+            } else {
+                if (buffer.position() == 0)
+                    return;
+                buffer.flip();
+            }
+
+            this.buffer = null;
+            connection.enqueue(buffer);
+        }
+
+        private void finish() throws IOException {
+            if (finished)
+                return;
+            finished = true;
+
+            flushBuffer();
+            if (buffer != null) {
+                // an empty chunk buffer is left over
+                connection.releaseBuffer(buffer);
+                buffer = null;
+            }
+            if (chunked)
+                connection.enqueue(ByteBuffer.wrap(LAST_CHUNK));
+            // bodies of HEAD requests are discarded, but their Content-Length is declared nonetheless
+            if (!noBody && expected >= 0 && written < expected) {
+                logger.warn("Response body of {} is shorter than its Content-Length; closing connection", NioExchange.this);
+                keepAlive = false;
+            }
+        }
+    }
+}
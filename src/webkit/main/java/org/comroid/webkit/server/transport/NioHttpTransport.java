@@ -0,0 +1,267 @@
+package org.comroid.webkit.server.transport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A selector based HTTP/1.1 transport.
+ * <p>
+ * A single thread accepts connections, reads and parses requests and writes responses;
+ * handlers run on the executor.
+ * Connections are kept alive, and pipelined requests are answered in order.
+ * Request heads and bodies are buffered up to fixed bounds,
+ * and responses are written from pooled direct buffers using gathering writes.
+ * Requests that are not received within the read timeout are answered with {@code 408},
+ * and connections without requests are closed after the idle timeout.
+ */
+public final class NioHttpTransport implements ServerTransport {
+    public static final int DEFAULT_MAX_HEADER_SIZE = 16 * 1024;
+    public static final int DEFAULT_MAX_BODY_SIZE = 8 * 1024 * 1024;
+    public static final long DEFAULT_READ_TIMEOUT = 30_000; // milliseconds
+    public static final long DEFAULT_IDLE_TIMEOUT = 60_000; // milliseconds
+    static final int BUFFER_SIZE = 16 * 1024;
+    private static final long TIMEOUT_INTERVAL = 1_000; // milliseconds
+    private static final int MAX_POOLED_BUFFERS = 256;
+    private static final Logger logger = LogManager.getLogger();
+    private final Executor executor;
+    private final ServerExchange.Handler handler;
+    private final int maxHeaderSize;
+    private final int maxBodySize;
+    private final long readTimeout;
+    private final long idleTimeout;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread selectorThread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Queue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger(0);
+    private volatile boolean running = false;
+
+    @Override
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException("Transport is closed", e);
+        }
+    }
+
+    public int getMaxHeaderSize() {
+        return maxHeaderSize;
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * @return The time in milliseconds a client may take to send a request, once it started sending it
+     */
+    public long getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * @return The time in milliseconds a connection is kept open without requests
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    ServerExchange.Handler getHandler() {
+        return handler;
+    }
+
+    boolean isSelectorThread() {
+        return Thread.currentThread() == selectorThread;
+    }
+
+    public NioHttpTransport(InetSocketAddress address, Executor executor, ServerExchange.Handler handler) throws IOException {
+        this(address, executor, handler, DEFAULT_MAX_HEADER_SIZE, DEFAULT_MAX_BODY_SIZE);
+    }
+
+    public NioHttpTransport(
+            InetSocketAddress address,
+            Executor executor,
+            ServerExchange.Handler handler,
+            int maxHeaderSize,
+            int maxBodySize
+    ) throws IOException {
+        this(address, executor, handler, maxHeaderSize, maxBodySize, DEFAULT_READ_TIMEOUT, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public NioHttpTransport(
+            InetSocketAddress address,
+            Executor executor,
+            ServerExchange.Handler handler,
+            int maxHeaderSize,
+            int maxBodySize,
+            long readTimeout,
+            long idleTimeout
+    ) throws IOException {
+        if (maxHeaderSize < 64)
+            throw new IllegalArgumentException("Header size bound too small: " + maxHeaderSize);
+        if (maxBodySize < 0)
+            throw new IllegalArgumentException("Invalid body size bound: " + maxBodySize);
+        if (readTimeout <= 0 || idleTimeout <= 0)
+            throw new IllegalArgumentException(String.format("Invalid timeouts: read=%d idle=%d", readTimeout, idleTimeout));
+
+        this.executor = executor;
+        this.handler = handler;
+        this.maxHeaderSize = maxHeaderSize;
+        this.maxBodySize = maxBodySize;
+        this.readTimeout = readTimeout;
+        this.idleTimeout = idleTimeout;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        this.selectorThread = new Thread(this::selectLoop, "nio-http-" + getAddress().getPort());
+        selectorThread.setDaemon(true);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running)
+            return;
+        running = true;
+        selectorThread.start();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            logger.debug("Could not close server channel", e);
+        }
+    }
+
+    /**
+     * Runs the task on the selector thread.
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    ByteBuffer acquireBuffer() {
+        final ByteBuffer buffer = bufferPool.poll();
+        if (buffer == null)
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    void releaseBuffer(ByteBuffer buffer) {
+        // read-only buffers are shared resources or mapped files, and never part of the pool
+        if (!buffer.isDirect() || buffer.isReadOnly() || buffer.capacity() != BUFFER_SIZE)
+            return;
+        if (pooled.incrementAndGet() > MAX_POOLED_BUFFERS) {
+            pooled.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        bufferPool.add(buffer);
+    }
+
+    private void selectLoop() {
+        logger.info("NIO HTTP transport listening on {}", getAddress());
+
+        long nextTimeoutCheck = System.currentTimeMillis() + TIMEOUT_INTERVAL;
+        try {
+            while (running) {
+                selector.select(TIMEOUT_INTERVAL);
+
+                Runnable task;
+                while ((task = tasks.poll()) != null)
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        logger.error("Error in transport task", t);
+                    }
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable()) {
+                        try {
+                            accept();
+                        } catch (IOException e) {
+                            logger.warn("Could not accept connection", e);
+                        }
+                        continue;
+                    }
+
+                    final NioConnection connection = (NioConnection) key.attachment();
+                    try {
+                        if (key.isReadable())
+                            connection.onReadable();
+                        if (key.isValid() && key.isWritable())
+                            connection.onWritable();
+                    } catch (IOException e) {
+                        logger.debug("Connection {} failed", connection, e);
+                        connection.close();
+                    }
+                }
+
+                final long now = System.currentTimeMillis();
+                if (now >= nextTimeoutCheck) {
+                    nextTimeoutCheck = now + TIMEOUT_INTERVAL;
+                    for (SelectionKey key : selector.keys())
+                        if (key.isValid() && key.attachment() instanceof NioConnection)
+                            ((NioConnection) key.attachment()).checkTimeouts(now);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("NIO HTTP transport failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys())
+                if (key.attachment() instanceof NioConnection)
+                    ((NioConnection) key.attachment()).close();
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.debug("Could not close selector", e);
+            }
+            logger.info("NIO HTTP transport stopped");
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+
+            final SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new NioConnection(this, channel, key));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.comroid.webkit.server.transport;
+
+import org.comroid.restless.REST;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A single HTTP request and its response, as provided by a {@link ServerTransport}.
+ * <p>
+ * The response is sent by first calling {@link #sendResponseHeaders(int, long)},
+ * then writing the body to {@link #getResponseBody()}, and finally {@linkplain #close() closing} the exchange.
+ */
+public interface ServerExchange extends Closeable {
+    String getRequestMethod();
+
+    URI getRequestURI();
+
+    REST.Header.List getRequestHeaders();
+
+    InputStream getRequestBody();
+
+    InetSocketAddress getRemoteAddress();
+
+    /**
+     * @return The headers to send; modifications are only effective before {@link #sendResponseHeaders(int, long)} is called
+     */
+    REST.Header.List getResponseHeaders();
+
+    /**
+     * @param statusCode The response status code
+     * @param length     The length of the response body in bytes;
+     *                   {@code 0} if unknown, in which case the body is sent with chunked transfer encoding;
+     *                   {@code -1} if there is no body
+     * @throws IOException If the headers could not be sent
+     */
+    void sendResponseHeaders(int statusCode, long length) throws IOException;
+
+    OutputStream getResponseBody();
+
+    /**
+     * Writes the remaining bytes of the buffer to the response body. The position of the buffer is not changed.
+     */
+    default void sendBody(ByteBuffer buffer) throws IOException {
+        final OutputStream out = getResponseBody();
+        if (buffer.hasArray())
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        else Channels.newChannel(out).write(buffer.duplicate());
+    }
+
+    /**
+     * Writes a region of the file to the response body.
+     * Transports may send the region without copying it through the heap.
+     */
+    default void transferFrom(FileChannel channel, long position, long count) throws IOException {
+        final WritableByteChannel target = Channels.newChannel(getResponseBody());
+        while (count > 0) {
+            final long transferred = channel.transferTo(position, count, target);
+            if (transferred <= 0)
+                throw new EOFException("File ended before " + count + " more bytes could be sent");
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
+    /**
+     * Completes the response.
+     * If no response headers were sent, the exchange is answered with {@code 500 Internal Server Error}.
+     */
+    @Override
+    void close();
+
+    @FunctionalInterface
+    interface Handler {
+        void handle(ServerExchange exchange);
+    }
+}
@@ -0,0 +1,54 @@
+package org.comroid.webkit.server.transport;
+
+import org.comroid.api.Startable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+
+/**
+ * Accepts HTTP connections and hands every request to a {@link ServerExchange.Handler}.
+ * <p>
+ * A {@link Factory} can be provided in the context of a {@link org.comroid.webkit.server.RestServer} to choose its transport;
+ * by default, the {@code com.sun.net.httpserver} implementation is used.
+ */
+public interface ServerTransport extends Startable, Closeable {
+    InetSocketAddress getAddress();
+
+    @Override
+    void close();
+
+    static Factory sun() {
+        return SunHttpTransport::new;
+    }
+
+    static Factory nio() {
+        return NioHttpTransport::new;
+    }
+
+    /**
+     * @param maxHeaderSize The maximum size of a request line and its headers, in bytes
+     * @param maxBodySize   The maximum size of a request body, in bytes
+     * @return A factory for selector based transports with the given buffer bounds
+     */
+    static Factory nio(int maxHeaderSize, int maxBodySize) {
+        return (address, executor, handler) -> new NioHttpTransport(address, executor, handler, maxHeaderSize, maxBodySize);
+    }
+
+    /**
+     * @param maxHeaderSize The maximum size of a request line and its headers, in bytes
+     * @param maxBodySize   The maximum size of a request body, in bytes
+     * @param readTimeout   The time a client may take to send a request once it started, in milliseconds
+     * @param idleTimeout   The time a connection is kept open without requests, in milliseconds
+     * @return A factory for selector based transports with the given bounds
+     */
+    static Factory nio(int maxHeaderSize, int maxBodySize, long readTimeout, long idleTimeout) {
+        return (address, executor, handler) -> new NioHttpTransport(address, executor, handler, maxHeaderSize, maxBodySize, readTimeout, idleTimeout);
+    }
+
+    @FunctionalInterface
+    interface Factory {
+        ServerTransport create(InetSocketAddress address, Executor executor, ServerExchange.Handler handler) throws IOException;
+    }
+}
@@ -0,0 +1,113 @@
+package org.comroid.webkit.server.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.comroid.restless.REST;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.Executor;
+
+/**
+ * A transport based on the {@code com.sun.net.httpserver} implementation of the JDK.
+ */
+public final class SunHttpTransport implements ServerTransport {
+    private final HttpServer server;
+
+    public HttpServer getServer() {
+        return server;
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public SunHttpTransport(InetSocketAddress address, Executor executor, ServerExchange.Handler handler) throws IOException {
+        this.server = HttpServer.create(address, 0);
+
+        server.createContext("/", exchange -> handler.handle(wrap(exchange)));
+        server.setExecutor(executor);
+    }
+
+    public static ServerExchange wrap(HttpExchange exchange) {
+        return new Exchange(exchange);
+    }
+
+    @Override
+    public void start() {
+        server.start();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static final class Exchange implements ServerExchange {
+        private final HttpExchange exchange;
+        private final REST.Header.List requestHeaders;
+        private final REST.Header.List responseHeaders = new REST.Header.List();
+        private boolean sent = false;
+
+        @Override
+        public String getRequestMethod() {
+            return exchange.getRequestMethod();
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return exchange.getRequestURI();
+        }
+
+        @Override
+        public REST.Header.List getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return exchange.getRequestBody();
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return exchange.getRemoteAddress();
+        }
+
+        @Override
+        public REST.Header.List getResponseHeaders() {
+            return responseHeaders;
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return exchange.getResponseBody();
+        }
+
+        private Exchange(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.requestHeaders = REST.Header.List.of(exchange.getRequestHeaders());
+        }
+
+        @Override
+        public void sendResponseHeaders(int statusCode, long length) throws IOException {
+            responseHeaders.forEach(exchange.getResponseHeaders()::add);
+            exchange.sendResponseHeaders(statusCode, length);
+            sent = true;
+        }
+
+        @Override
+        public void close() {
+            if (!sent)
+                try {
+                    sendResponseHeaders(500, -1);
+                } catch (IOException ignored) {
+                }
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.comroid.webkit.socket;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.comroid.api.ResourceLoader;
+import org.comroid.api.Serializer;
+import org.comroid.uniform.node.UniNode;
+import org.comroid.uniform.node.UniObjectNode;
+import org.comroid.webkit.config.WebkitConfiguration;
+import org.comroid.webkit.config.WebkitResourceLoader;
+import org.comroid.webkit.frame.FrameBuilder;
+import org.jetbrains.annotations.Nullable;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Caches panels for {@code changePanel} commands.
+ * <p>
+ * Every panel is parsed once; renders work on a copy of the parsed fragment.
+ * The serialized command of a render is cached by panel, frame, host and a snapshot of the page properties,
+ * so that the same panel change sent to many connections is only rendered once.
+ * Both are discarded once the {@link WebkitResourceLoader#LOADER} is replaced.
+ */
+public final class PanelCache {
+    public static final int DEFAULT_CAPACITY = 256;
+    private static final Logger logger = LogManager.getLogger();
+    private static final PanelCache instance = new PanelCache(DEFAULT_CAPACITY);
+    private final Map<String, Document> fragments = new ConcurrentHashMap<>();
+    private final Map<PayloadKey, String> payloads;
+    private volatile @Nullable ResourceLoader loader = null;
+
+    public PanelCache(int capacity) {
+        this.payloads = Collections.synchronizedMap(new LinkedHashMap<PayloadKey, String>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PayloadKey, String> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    public static PanelCache get() {
+        return instance;
+    }
+
+    /**
+     * Renders the target panel into a serialized {@code changePanel} command.
+     * Puts the frame of the target into the page properties.
+     *
+     * @param target The target panel, optionally prefixed with its frame as in {@code frame/panel}
+     * @return The serialized command, or {@code null} if the panel could not be rendered
+     */
+    public @Nullable String changePanelPayload(
+            Serializer<UniNode> serializer,
+            String host,
+            String target,
+            Map<String, Object> pageProperties
+    ) {
+        // parse frame and panel from target
+        final int sep = target.lastIndexOf('/');
+        final String panel = target.substring(sep + 1);
+        final String frame = sep == -1 ? "main" : target.substring(0, target.indexOf('/'));
+
+        pageProperties.put("frame", frame);
+
+        final ResourceLoader current = WebkitResourceLoader.LOADER;
+        if (loader != current)
+            synchronized (this) {
+                if (loader != current) {
+                    clear();
+                    loader = current;
+                }
+            }
+
+        final PayloadKey key = new PayloadKey(panel, host, pageProperties);
+        final String cached = payloads.get(key);
+        if (cached != null)
+            return cached;
+
+        try {
+            final Document doc = fragments.computeIfAbsent(panel, PanelCache::parse).clone();
+            final String docString = FrameBuilder.fabricateDocumentToString(doc, host, pageProperties);
+
+            final UniObjectNode response = serializer.createObjectNode().asObjectNode();
+            response.put("type", "changePanel");
+            response.put("data", docString);
+            final String payload = response.toSerializedString();
+
+            payloads.put(key, payload);
+            return payload;
+        } catch (Throwable e) {
+            logger.error("Could not read target panel " + target, e);
+            return null;
+        }
+    }
+
+    /**
+     * Discards all parsed panels and rendered commands, e.g. after panel resources have changed.
+     */
+    public void clear() {
+        fragments.clear();
+        payloads.clear();
+    }
+
+    private static Document parse(String panel) {
+        try (
+                InputStream is = WebkitConfiguration.get().getPanel(panel);
+                InputStreamReader isr = new InputStreamReader(is, StandardCharsets.UTF_8);
+                BufferedReader br = new BufferedReader(isr)
+        ) {
+            return Jsoup.parse(br.lines().collect(Collectors.joining("\n")));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read panel " + panel, e);
+        }
+    }
+
+    /**
+     * Writes the properties as they are rendered, walking nested maps in key order and collections in order.
+     * Every name and value is prefixed with its length, so that distinct properties never share a signature.
+     */
+    private static void appendSignature(StringBuilder sb, @Nullable Object value) {
+        if (value instanceof Map) {
+            final Map<String, Object> entries = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> entries.put(String.valueOf(k), v));
+            sb.append('{');
+            entries.forEach((k, v) -> {
+                sb.append(k.length()).append(':').append(k);
+                appendSignature(sb, v);
+            });
+            sb.append('}');
+        } else if (value instanceof Collection) {
+            sb.append('[');
+            for (Object each : (Collection<?>) value)
+                appendSignature(sb, each);
+            sb.append(']');
+        } else if (value instanceof Object[]) {
+            appendSignature(sb, Arrays.asList((Object[]) value));
+        } else {
+            final String str = String.valueOf(value);
+            sb.append(str.length()).append(':').append(str);
+        }
+    }
+
+    private static final class PayloadKey {
+        private final String panel;
+        private final String host;
+        private final String properties;
+        private final int hash;
+
+        private PayloadKey(String panel, @Nullable String host, Map<String, Object> properties) {
+            final StringBuilder signature = new StringBuilder(256);
+            appendSignature(signature, properties);
+
+            this.panel = panel;
+            this.host = String.valueOf(host);
+            this.properties = signature.toString();
+            this.hash = Objects.hash(panel, this.host, this.properties);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof PayloadKey))
+                return false;
+            final PayloadKey key = (PayloadKey) other;
+            return hash == key.hash
+                    && panel.equals(key.panel)
+                    && host.equals(key.host)
+                    && properties.equals(key.properties);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
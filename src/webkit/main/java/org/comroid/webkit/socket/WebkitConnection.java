@@ -17,30 +17,34 @@ import org.comroid.uniform.Context;
 import org.comroid.uniform.node.UniNode;
 import org.comroid.uniform.node.UniObjectNode;
 import org.comroid.uniform.node.UniValueNode;
-import org.comroid.webkit.config.WebkitConfiguration;
-import org.comroid.webkit.frame.FrameBuilder;
 import org.comroid.webkit.model.PagePropertiesProvider;
 import org.comroid.webkit.server.RestServer;
 import org.comroid.webkit.server.WebSocketConnection;
 import org.java_websocket.WebSocket;
 import org.jetbrains.annotations.ApiStatus.OverrideOnly;
 import org.jetbrains.annotations.Nullable;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public abstract class WebkitConnection extends WebSocketConnection {
     private static final String CLIENT_HELLO_PREFIX = "hello server; i'm ";
     private static final Logger logger = LogManager.getLogger();
+    private static final Map<String, CommandHandler> webkitCommands;
     public final String host;
     private final Ref<Map<String, Object>> properties = Reference.provided(() ->
             requireFromContext(PagePropertiesProvider.class).findPageProperties(getHeaders()));
 
+    static {
+        Map<String, CommandHandler> commands = new HashMap<>();
+        commands.put("webkit/changePanel", (connection, data, pageProperties, response) -> PanelCache.get()
+                .changePanelPayload(connection.findSerializer(), connection.host, data.get("target").asString(), pageProperties));
+        commands.put("webkit/refresh", (connection, data, pageProperties, response)
+                -> connection.intoRefreshCommand(response, pageProperties));
+        webkitCommands = Collections.unmodifiableMap(commands);
+    }
+
     public Map<String, Object> getPageProperties() {
         return properties.assertion();
     }
@@ -88,16 +92,16 @@ public abstract class WebkitConnection extends WebSocketConnection {
     }
 
     protected void sendToPanel(String targetPanel) {
-        UniObjectNode response = findSerializer().createObjectNode().asObjectNode();
-        Map<String, Object> pageProperties = getPageProperties();
-        intoChangePanelCommand(response, targetPanel, pageProperties);
-        sendText(response);
+        final String payload = PanelCache.get().changePanelPayload(findSerializer(), host, targetPanel, getPageProperties());
+        if (payload != null)
+            sendText(payload);
     }
 
     private void handleCommand(UniNode command) {
         UniObjectNode response = findSerializer().createObjectNode().asObjectNode();
+        String payload = null;
         try {
-            dispatchCommand(command, response);
+            payload = dispatchCommand(command, response);
         } catch (Exception e) {
             logger.error("Error occurred in command handler", e);
             response.put("type", "error");
@@ -105,72 +109,46 @@ public abstract class WebkitConnection extends WebSocketConnection {
             UniObjectNode errorNode = RestServer.generateErrorNode(upgrade(Context.class), MimeType.JSON, u);
             response.put("data", errorNode);
         } finally {
-            sendText(response);
+            if (payload != null)
+                sendText(payload);
+            else sendText(response);
         }
     }
 
-    private void dispatchCommand(UniNode command, UniObjectNode response) {
+    private @Nullable String dispatchCommand(UniNode command, UniObjectNode response) {
         logger.trace("Incoming command: {}", command);
         String commandStr = command.get("type").asString();
-        String[] split = commandStr.split("/");
-        String commandCategory = split[0];
-        String commandName = split[1];
-
         UniNode data = command.wrap("data").orElse(UniValueNode.NULL);
         Map<String, Object> pageProperties = getPageProperties();
 
-        switch (commandCategory) {
-            case "webkit":
-                switch (commandName) {
-                    case "changePanel":
-                        intoChangePanelCommand(response, data.get("target").asString(), pageProperties);
-                        break;
-                    case "refresh":
-                        intoRefreshCommand(response, pageProperties);
-                        break;
-                    default:
-                        logger.error("Unknown action: {}", commandName);
-                }
-                break;
-            default:
-                logger.debug("Not a Webkit command; using handler method.");
-                response.put("type", commandName);
-                UniObjectNode responseData = response.putObject("data");
-                handleCommand(pageProperties, commandCategory, commandName, data, responseData);
-                logger.debug("Data after Handler: {}", responseData);
-                break;
-        }
-    }
+        CommandHandler handler = webkitCommands.get(commandStr);
+        if (handler != null)
+            return handler.handle(this, data, pageProperties, response);
+
+        int sep = commandStr.indexOf('/');
+        if (sep == -1)
+            throw new IllegalArgumentException("Malformed command type: " + commandStr);
+        String commandCategory = commandStr.substring(0, sep);
+        String commandName = commandStr.substring(sep + 1);
 
-    private void intoChangePanelCommand(UniObjectNode response, String target, Map<String, Object> pageProperties) {
-        // parse frame and panel from target
-        String[] tSplit = target.split("/");
-        String frame = tSplit.length > 1 ? tSplit[0] : "main";
-        String panel = tSplit[tSplit.length - 1];
-
-        pageProperties.put("frame", frame);
-
-        try (
-                InputStream is = WebkitConfiguration.get().getPanel(panel);
-                InputStreamReader isr = new InputStreamReader(is);
-                BufferedReader br = new BufferedReader(isr)
-        ) {
-            String panelData = br.lines().collect(Collectors.joining("\n"));
-            Document doc = Jsoup.parse(panelData);
-            String docString = FrameBuilder.fabricateDocumentToString(doc, host, pageProperties);
-
-            response.put("type", "changePanel");
-            response.put("data", docString);
-            return;
-        } catch (Throwable e) {
-            logger.error("Could not read target panel " + target, e);
+        if (commandCategory.equals("webkit")) {
+            logger.error("Unknown action: {}", commandName);
+            return null;
         }
+
+        logger.debug("Not a Webkit command; using handler method.");
+        response.put("type", commandName);
+        UniObjectNode responseData = response.putObject("data");
+        handleCommand(pageProperties, commandCategory, commandName, data, responseData);
+        logger.debug("Data after Handler: {}", responseData);
+        return null;
     }
 
-    private void intoRefreshCommand(UniObjectNode response, Map<String, Object> pageProperties) {
+    private @Nullable String intoRefreshCommand(UniObjectNode response, Map<String, Object> pageProperties) {
         response.put("type", "inject");
         UniObjectNode eventData = response.putObject("data");
         eventData.putAll(pageProperties);
+        return null;
     }
 
     protected final Serializer<UniNode> findSerializer() {
@@ -189,4 +167,12 @@ public abstract class WebkitConnection extends WebSocketConnection {
             UniNode data,
             UniObjectNode response
     );
+
+    @FunctionalInterface
+    private interface CommandHandler {
+        /**
+         * @return A pre-serialized payload to send instead of {@code response}, or {@code null}
+         */
+        @Nullable String handle(WebkitConnection connection, UniNode data, Map<String, Object> pageProperties, UniObjectNode response);
+    }
 }
@@ -8,6 +8,7 @@ import org.comroid.restless.CommonHeaderNames;
 import org.comroid.restless.HTTPStatusCodes;
 import org.comroid.restless.REST;
 import org.comroid.restless.body.URIQueryEditor;
+import org.comroid.restless.endpoint.UrlTemplate;
 import org.comroid.restless.exception.RestEndpointException;
 import org.comroid.uniform.Context;
 import org.comroid.uniform.model.Serializable;
@@ -232,6 +233,7 @@ public enum OAuthEndpoint implements ServerEndpoint.This {
     private static final Logger logger = LogManager.getLogger();
     private final String extension;
     private final String[] regExp;
+    private final UrlTemplate template;
     private final Pattern pattern;
 
     @Override
@@ -254,10 +256,16 @@ public enum OAuthEndpoint implements ServerEndpoint.This {
         return pattern;
     }
 
+    @Override
+    public UrlTemplate getTemplate() {
+        return template;
+    }
+
     OAuthEndpoint(String extension, @Language("RegExp") String... regExp) {
         this.extension = extension;
         this.regExp = regExp;
-        this.pattern = buildUrlPattern();
+        this.template = buildUrlTemplate();
+        this.pattern = template.getPattern();
     }
 
     private static String completeAuthorization(Client client, AuthenticationRequest request, Context context, Resource resource, String userAgent) {
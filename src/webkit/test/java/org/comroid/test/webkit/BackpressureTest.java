@@ -0,0 +1,150 @@
+package org.comroid.test.webkit;
+
+import org.comroid.api.ContextualProvider;
+import org.comroid.restless.socket.PerMessageDeflate;
+import org.comroid.webkit.model.ConnectionFactory;
+import org.comroid.webkit.server.Backpressure;
+import org.comroid.webkit.server.WebSocketConnection;
+import org.comroid.webkit.server.WebSocketServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class BackpressureTest {
+    private static final long LOW_WATERMARK = 16 * 1024;
+    private static final long HIGH_WATERMARK = 64 * 1024;
+    private static final int MESSAGE_SIZE = 16 * 1024;
+    private static final int MESSAGES = 1024; // more than the socket buffers of a client that does not read
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private WebSocketServer server;
+    private Socket client;
+
+    @After
+    public void teardown() throws IOException {
+        if (client != null)
+            client.close();
+        if (server != null)
+            server.close();
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 30_000)
+    public void testDropOldest() throws Exception {
+        final WebSocketConnection connection = open(Backpressure.Policy.DROP_OLDEST);
+        for (int i = 0; i < MESSAGES; i++)
+            connection.sendText(message(i));
+
+        Assert.assertTrue("congested", connection.isCongested());
+        Assert.assertTrue("dropped", connection.getDroppedMessages() > 0);
+        Assert.assertTrue("outbound bytes bounded", connection.getOutboundBytes() < HIGH_WATERMARK + 2 * MESSAGE_SIZE);
+
+        final int[] received = receive(MESSAGES - (int) connection.getDroppedMessages());
+        for (int i = 1; i < received.length; i++)
+            Assert.assertTrue("in order", received[i - 1] < received[i]);
+        Assert.assertEquals("newest kept", MESSAGES - 1, received[received.length - 1]);
+    }
+
+    @Test(timeout = 30_000)
+    public void testCoalesce() throws Exception {
+        final WebSocketConnection connection = open(Backpressure.Policy.COALESCE);
+        for (int i = 0; i < MESSAGES; i++)
+            connection.sendText(message(i), i % 2 == 0 ? "even" : "odd");
+
+        Assert.assertTrue("congested", connection.isCongested());
+        Assert.assertTrue("replaced", connection.getDroppedMessages() > 0);
+        Assert.assertTrue("held back once per key", connection.getOutboundBytes() < HIGH_WATERMARK + 2 * MESSAGE_SIZE);
+
+        final int[] received = receive(MESSAGES - (int) connection.getDroppedMessages());
+        Assert.assertEquals("newest of every key",
+                new HashSet<>(Arrays.asList(MESSAGES - 2, MESSAGES - 1)),
+                new HashSet<>(Arrays.asList(received[received.length - 2], received[received.length - 1])));
+    }
+
+    @Test(timeout = 30_000)
+    public void testDisconnect() throws Exception {
+        final WebSocketConnection connection = open(Backpressure.Policy.DISCONNECT);
+        for (int i = 0; i < MESSAGES && connection.isOpen(); i++)
+            connection.sendText(message(i));
+
+        Assert.assertFalse("closed", connection.isOpen());
+        Assert.assertTrue("dropped", connection.getDroppedMessages() > 0);
+    }
+
+    private WebSocketConnection open(Backpressure.Policy policy) throws Exception {
+        final Backpressure backpressure = Backpressure.standard()
+                .withWatermarks(LOW_WATERMARK, HIGH_WATERMARK)
+                .withPolicy(policy);
+        final ContextualProvider context = ContextualProvider.getRoot()
+                .plus("BackpressureTest", executor, backpressure, PerMessageDeflate.DISABLED);
+        server = new WebSocketServer(context, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                ConnectionFactory.standard(context));
+        final CompletableFuture<WebSocketConnection> connection = new CompletableFuture<>();
+        server.onNewConnection(connection::complete);
+        while (server.getPort() <= 0) // not bound yet
+            Thread.sleep(10);
+
+        client = new Socket();
+        client.setReceiveBufferSize(4096);
+        client.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+        client.getOutputStream().write(("GET / HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+                + "Sec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        client.getOutputStream().flush();
+
+        // skip the handshake response, then stop reading until the test receives
+        final InputStream in = client.getInputStream();
+        for (int matched = 0; matched < 4; ) {
+            final int b = in.read();
+            Assert.assertNotEquals("handshake", -1, b);
+            matched = b == (matched % 2 == 0 ? '\r' : '\n') ? matched + 1 : b == '\r' ? 1 : 0;
+        }
+        return connection.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return The indices of the next text messages
+     */
+    private int[] receive(int count) throws IOException {
+        final DataInputStream in = new DataInputStream(client.getInputStream());
+        final int[] indices = new int[count];
+        for (int i = 0; i < count; ) {
+            final int opcode = in.readUnsignedByte() & 0x0F;
+            long length = in.readUnsignedByte() & 0x7F;
+            if (length == 126)
+                length = in.readUnsignedShort();
+            else if (length == 127)
+                length = in.readLong();
+            final byte[] payload = new byte[(int) length];
+            in.readFully(payload);
+
+            if (opcode == 0x1)
+                indices[i++] = Integer.parseInt(new String(payload, 0, 8, StandardCharsets.US_ASCII));
+        }
+        return indices;
+    }
+
+    private static String message(int index) {
+        final char[] message = new char[MESSAGE_SIZE];
+        Arrays.fill(message, 'x');
+        final String prefix = String.format("%08d", index);
+        prefix.getChars(0, prefix.length(), message, 0);
+        return new String(message);
+    }
+}
@@ -0,0 +1,212 @@
+package org.comroid.test.webkit;
+
+import org.comroid.webkit.server.transport.NioHttpTransport;
+import org.comroid.webkit.server.transport.ServerExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class NioHttpTransportTest {
+    private static final int MAX_HEADER_SIZE = 1024;
+    private static final int MAX_BODY_SIZE = 4096;
+    private static final long READ_TIMEOUT = 500;
+    private ExecutorService executor;
+    private NioHttpTransport transport;
+
+    @Before
+    public void setup() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        transport = new NioHttpTransport(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), executor,
+                NioHttpTransportTest::echo, MAX_HEADER_SIZE, MAX_BODY_SIZE, READ_TIMEOUT, 60_000);
+        transport.start();
+    }
+
+    @After
+    public void teardown() {
+        transport.close();
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 10_000)
+    public void testKeepAlive() throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, "GET /first HTTP/1.1\r\nHost: test\r\n\r\n");
+            Assert.assertEquals("first", "200 GET /first 0", readResponse(socket.getInputStream()).toString());
+
+            send(socket, "POST /second HTTP/1.1\r\nHost: test\r\nContent-Length: 5\r\n\r\nhello");
+            final Response second = readResponse(socket.getInputStream());
+            Assert.assertEquals("second", "200 POST /second 5", second.toString());
+            Assert.assertNull("kept alive", second.headers.get("connection"));
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testPipelining() throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, "GET /a HTTP/1.1\r\n\r\n"
+                    + "POST /b HTTP/1.1\r\nContent-Length: 3\r\n\r\nabc"
+                    + "GET /c HTTP/1.1\r\nConnection: close\r\n\r\n");
+
+            final InputStream in = socket.getInputStream();
+            Assert.assertEquals("200 GET /a 0", readResponse(in).toString());
+            Assert.assertEquals("200 POST /b 3", readResponse(in).toString());
+            final Response last = readResponse(in);
+            Assert.assertEquals("200 GET /c 0", last.toString());
+            Assert.assertEquals("close", last.headers.get("connection"));
+            Assert.assertEquals("closed after last response", -1, in.read());
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testHead() throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, "HEAD /head HTTP/1.1\r\n\r\n"
+                    + "GET /after HTTP/1.1\r\n\r\n");
+
+            final InputStream in = socket.getInputStream();
+            final Response head = readResponse(in, true);
+            Assert.assertEquals("status", 200, head.statusCode);
+            Assert.assertEquals("length of the omitted body", String.valueOf("HEAD /head 0".length()), head.headers.get("content-length"));
+            Assert.assertNull("kept alive", head.headers.get("connection"));
+            Assert.assertEquals("200 GET /after 0", readResponse(in).toString());
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testBodyTooLarge() throws IOException {
+        assertRejected("POST / HTTP/1.1\r\nContent-Length: " + (MAX_BODY_SIZE + 1) + "\r\n\r\n", 413);
+    }
+
+    @Test(timeout = 10_000)
+    public void testHeadersTooLarge() throws IOException {
+        final char[] path = new char[MAX_HEADER_SIZE];
+        Arrays.fill(path, 'x');
+        assertRejected("GET /" + new String(path) + " HTTP/1.1\r\n\r\n", 431);
+    }
+
+    @Test(timeout = 10_000)
+    public void testTransferEncodingNotImplemented() throws IOException {
+        assertRejected("POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n", 501);
+    }
+
+    @Test(timeout = 10_000)
+    public void testReadTimeout() throws IOException {
+        assertRejected("GET / HTTP/1.1\r\nHost: te", 408);
+    }
+
+    @Test(timeout = 10_000)
+    public void testUnansweredExchange() throws IOException {
+        assertRejected("GET /unanswered HTTP/1.1\r\n\r\n", 500);
+    }
+
+    private void assertRejected(String request, int statusCode) throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, request);
+            final InputStream in = socket.getInputStream();
+            final Response response = readResponse(in);
+
+            Assert.assertEquals("status", statusCode, response.statusCode);
+            Assert.assertEquals("close", response.headers.get("connection"));
+            Assert.assertEquals("closed after response", -1, in.read());
+        }
+    }
+
+    private Socket connect() throws IOException {
+        final Socket socket = new Socket(InetAddress.getLoopbackAddress(), transport.getAddress().getPort());
+        socket.setSoTimeout(5_000);
+        return socket;
+    }
+
+    private static void send(Socket socket, String data) throws IOException {
+        socket.getOutputStream().write(data.getBytes(StandardCharsets.ISO_8859_1));
+        socket.getOutputStream().flush();
+    }
+
+    /**
+     * Answers with the method, path and request body size; {@code /unanswered} is left to be closed by the transport.
+     */
+    private static void echo(ServerExchange exchange) {
+        try {
+            int size = 0;
+            final InputStream in = exchange.getRequestBody();
+            while (in.read() != -1)
+                size++;
+
+            if (exchange.getRequestURI().getPath().equals("/unanswered"))
+                return;
+            final byte[] body = String.format("%s %s %d", exchange.getRequestMethod(), exchange.getRequestURI().getPath(), size)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Response readResponse(InputStream in) throws IOException {
+        return readResponse(in, false);
+    }
+
+    private static Response readResponse(InputStream in, boolean head) throws IOException {
+        final String statusLine = readLine(in);
+        Assert.assertNotNull("response", statusLine);
+
+        final Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            final int colon = line.indexOf(':');
+            headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+
+        final byte[] body = new byte[head ? 0 : Integer.parseInt(headers.getOrDefault("content-length", "0"))];
+        for (int read = 0; read < body.length; ) {
+            final int n = in.read(body, read, body.length - read);
+            Assert.assertNotEquals("truncated body", -1, n);
+            read += n;
+        }
+        return new Response(Integer.parseInt(statusLine.split(" ")[1]), headers, new String(body, StandardCharsets.UTF_8));
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n')
+            if (b != '\r')
+                line.write(b);
+        if (b == -1 && line.size() == 0)
+            return null;
+        return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static final class Response {
+        private final int statusCode;
+        private final Map<String, String> headers;
+        private final String body;
+
+        private Response(int statusCode, Map<String, String> headers, String body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public String toString() {
+            return statusCode + " " + body;
+        }
+    }
+}
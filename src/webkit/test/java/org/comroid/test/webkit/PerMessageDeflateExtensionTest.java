@@ -0,0 +1,235 @@
+package org.comroid.test.webkit;
+
+import org.comroid.api.ContextualProvider;
+import org.comroid.restless.socket.PerMessageDeflate;
+import org.comroid.webkit.model.ConnectionFactory;
+import org.comroid.webkit.server.Broadcast;
+import org.comroid.webkit.server.PerMessageDeflateExtension;
+import org.comroid.webkit.server.WebSocketConnection;
+import org.comroid.webkit.server.WebSocketServer;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.ContinuousFrame;
+import org.java_websocket.framing.DataFrame;
+import org.java_websocket.framing.TextFrame;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public class PerMessageDeflateExtensionTest {
+    private static final byte[] TAIL = {0x00, 0x00, (byte) 0xFF, (byte) 0xFF};
+    private static final String MESSAGE = message(4096);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private WebSocketServer server;
+    private Socket client;
+
+    @After
+    public void teardown() throws IOException {
+        if (client != null)
+            client.close();
+        if (server != null)
+            server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRoundTripWithContextTakeover() throws InvalidDataException {
+        final PerMessageDeflateExtension encoder = agreed(PerMessageDeflate.standard(), "permessage-deflate");
+        final PerMessageDeflateExtension decoder = agreed(PerMessageDeflate.standard(), "permessage-deflate");
+
+        final TextFrame first = compress(encoder, MESSAGE);
+        final TextFrame second = compress(encoder, MESSAGE);
+        Assert.assertTrue("compressed", first.isRSV1());
+        Assert.assertFalse("tail is stripped", endsWithTail(first.getPayloadData()));
+        Assert.assertTrue("second message refers to the first", second.getPayloadData().remaining() < first.getPayloadData().remaining());
+
+        Assert.assertEquals("first message", MESSAGE, decompress(decoder, first));
+        Assert.assertEquals("second message", MESSAGE, decompress(decoder, second));
+    }
+
+    @Test
+    public void testRoundTripWithoutContextTakeover() throws InvalidDataException {
+        final String offer = "permessage-deflate; server_no_context_takeover; client_no_context_takeover";
+        final PerMessageDeflateExtension encoder = agreed(PerMessageDeflate.standard(), offer);
+        final PerMessageDeflateExtension decoder = agreed(PerMessageDeflate.standard(), offer);
+
+        final TextFrame first = compress(encoder, MESSAGE);
+        final TextFrame second = compress(encoder, MESSAGE);
+        Assert.assertFalse("tail is stripped", endsWithTail(first.getPayloadData()));
+        Assert.assertEquals("messages are compressed alike", first.getPayloadData(), second.getPayloadData());
+
+        Assert.assertEquals("first message", MESSAGE, decompress(decoder, first));
+        Assert.assertEquals("second message", MESSAGE, decompress(decoder, second));
+    }
+
+    @Test
+    public void testFragmentedMessage() throws InvalidDataException {
+        final PerMessageDeflateExtension encoder = agreed(PerMessageDeflate.standard(), "permessage-deflate");
+        final PerMessageDeflateExtension decoder = agreed(PerMessageDeflate.standard(), "permessage-deflate");
+        final ByteBuffer compressed = compress(encoder, MESSAGE).getPayloadData();
+        final int split = compressed.remaining() / 2;
+
+        final TextFrame head = new TextFrame();
+        head.setPayload(slice(compressed, 0, split));
+        head.setRSV1(true);
+        head.setFin(false);
+        final ContinuousFrame rest = new ContinuousFrame();
+        rest.setPayload(slice(compressed, split, compressed.remaining()));
+        rest.setFin(true);
+
+        decoder.decodeFrame(head);
+        decoder.decodeFrame(rest);
+        Assert.assertEquals("reassembled message", MESSAGE, utf8(head.getPayloadData()) + utf8(rest.getPayloadData()));
+    }
+
+    @Test
+    public void testMaxMessageSize() {
+        final PerMessageDeflateExtension encoder = agreed(PerMessageDeflate.standard(), "permessage-deflate");
+        final PerMessageDeflateExtension decoder = agreed(PerMessageDeflate.standard().withMaxMessageSize(1024), "permessage-deflate");
+
+        try {
+            decompress(decoder, compress(encoder, MESSAGE));
+            Assert.fail("message exceeding the size limit was inflated");
+        } catch (InvalidDataException e) {
+            Assert.assertEquals("close code", CloseFrame.TOOBIG, e.getCloseCode());
+        }
+    }
+
+    @Test(timeout = 30_000)
+    public void testBroadcastDeflatedFrame() throws Exception {
+        final ContextualProvider context = ContextualProvider.getRoot()
+                .plus("PerMessageDeflateExtensionTest", executor, PerMessageDeflate.standard());
+        server = new WebSocketServer(context, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                ConnectionFactory.standard(context));
+        final CompletableFuture<WebSocketConnection> connection = new CompletableFuture<>();
+        server.onNewConnection(connection::complete);
+        while (server.getPort() <= 0) // not bound yet
+            Thread.sleep(10);
+
+        client = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        client.getOutputStream().write(("GET / HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+                + "Sec-WebSocket-Version: 13\r\n"
+                + "Sec-WebSocket-Extensions: permessage-deflate; server_no_context_takeover\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        client.getOutputStream().flush();
+
+        final DataInputStream in = new DataInputStream(client.getInputStream());
+        Assert.assertTrue("extension agreed", readHead(in).toLowerCase().contains("permessage-deflate"));
+        connection.get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals("receivers", 1, server.broadcast(Broadcast.text(MESSAGE)));
+
+            final int head = in.readUnsignedByte();
+            Assert.assertEquals("final text frame", 0x81, head & 0x8F);
+            Assert.assertEquals("compressed", 0x40, head & 0x40);
+            long length = in.readUnsignedByte() & 0x7F;
+            if (length == 126)
+                length = in.readUnsignedShort();
+            else if (length == 127)
+                length = in.readLong();
+            final byte[] payload = new byte[(int) length];
+            in.readFully(payload);
+
+            // every frame is compressed without context
+            Assert.assertEquals("message " + i, MESSAGE, inflate(payload));
+        }
+    }
+
+    private static PerMessageDeflateExtension agreed(PerMessageDeflate configuration, String offer) {
+        final PerMessageDeflateExtension extension = new PerMessageDeflateExtension(configuration);
+        Assert.assertTrue("offer accepted", extension.acceptProvidedExtensionAsServer(offer));
+        return extension;
+    }
+
+    private static TextFrame compress(PerMessageDeflateExtension extension, String message) {
+        final TextFrame frame = new TextFrame();
+        frame.setPayload(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+        frame.setFin(true);
+        extension.encodeFrame(frame);
+        return frame;
+    }
+
+    private static String decompress(PerMessageDeflateExtension extension, DataFrame frame) throws InvalidDataException {
+        extension.decodeFrame(frame);
+        Assert.assertFalse("decompressed", frame.isRSV1());
+        return utf8(frame.getPayloadData());
+    }
+
+    private static String inflate(byte[] payload) throws DataFormatException {
+        final Inflater inflater = new Inflater(true);
+        inflater.setInput(concat(payload, TAIL));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int count;
+        while ((count = inflater.inflate(buffer)) > 0)
+            out.write(buffer, 0, count);
+        inflater.end();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String readHead(InputStream in) throws IOException {
+        final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        for (int matched = 0; matched < 4; ) {
+            final int b = in.read();
+            Assert.assertNotEquals("handshake", -1, b);
+            head.write(b);
+            matched = b == (matched % 2 == 0 ? '\r' : '\n') ? matched + 1 : b == '\r' ? 1 : 0;
+        }
+        return new String(head.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean endsWithTail(ByteBuffer payload) {
+        if (payload.remaining() < TAIL.length)
+            return false;
+        final ByteBuffer end = payload.duplicate();
+        end.position(end.limit() - TAIL.length);
+        return end.equals(ByteBuffer.wrap(TAIL));
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int from, int to) {
+        final ByteBuffer slice = buffer.duplicate();
+        slice.position(buffer.position() + from).limit(buffer.position() + to);
+        return slice.slice();
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        final byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static String utf8(ByteBuffer buffer) {
+        final byte[] data = new byte[buffer.remaining()];
+        buffer.duplicate().get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static String message(int length) {
+        final StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; sb.length() < length; i++)
+            sb.append("message ").append(i % 16).append(' ');
+        return sb.substring(0, length);
+    }
+}